@@ -1,48 +1,76 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
 import ru.practicum.shareit.booking.enums.State;
+import ru.practicum.shareit.client.AsyncHttpTransport;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerConnectionPool;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static ru.practicum.shareit.booking.util.Constant.ITEM_ID_HEADER;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
+    private static final String ITEMS_PREFIX = "/items";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
+                         RestTemplateBuilder builder,
+                         ServerConnectionPool connectionPool,
+                         AsyncHttpTransport asyncHttpTransport,
+                         ResponseCache responseCache,
+                         MeterRegistry meterRegistry) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(connectionPool::requestFactory)
+                        .build(),
+                asyncHttpTransport,
+                responseCache,
+                meterRegistry
         );
     }
 
-    public ResponseEntity<Object> bookItem(BookingInputDto bookingInputDto, long userId) {
-        return post("", bookingInputDto, userId);
+    public CompletableFuture<ResponseEntity<Object>> bookItem(BookingInputDto bookingInputDto, long userId) {
+        return invalidating(post("", bookingInputDto, userId), ITEMS_PREFIX + "/" + bookingInputDto.getItemId());
     }
 
-    public ResponseEntity<Object> getBooking(long bookingId, long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getBooking(long bookingId, long userId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookingsByBookerIdAndState(
+    public CompletableFuture<ResponseEntity<Object>> getBookingsByBookerIdAndState(
             long userId,
             State state,
             Integer from,
             Integer size,
             String sort,
-            String dir
+            String dir,
+            String after
     ) {
+        if (after != null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "size", size,
+                    "after", after
+            );
+
+            return get("?state={state}&size={size}&after={after}", userId, parameters);
+        }
+
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -54,14 +82,25 @@ public class BookingClient extends BaseClient {
         return get("?state={state}&from={from}&size={size}&sort={sort}&dir={dir}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getBookingsByOwnerIdAndState(
+    public CompletableFuture<ResponseEntity<Object>> getBookingsByOwnerIdAndState(
             long userId,
             State state,
             int from,
             int size,
             String sort,
-            String dir
+            String dir,
+            String after
     ) {
+        if (after != null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "size", size,
+                    "after", after
+            );
+
+            return get("/owner?state={state}&size={size}&after={after}", userId, parameters);
+        }
+
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -73,7 +112,30 @@ public class BookingClient extends BaseClient {
         return get("/owner?state={state}&from={from}&size={size}&sort={sort}&dir={dir}", userId, parameters);
     }
 
-    public ResponseEntity<Object> changeStatus(long userId, long bookingId, boolean approved) {
-        return patch("/" + bookingId + "?approved=" + approved, userId);
+    public CompletableFuture<ResponseEntity<Object>> changeStatus(long userId, long bookingId, boolean approved) {
+        return patch("/" + bookingId + "?approved=" + approved, userId)
+                .whenComplete((response, e) -> invalidateBookedItem(response));
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> changeStatuses(long userId, List<BookingStatusChangeDto> changes) {
+        return patch("/batch", userId, changes)
+                .whenComplete((response, e) -> responseCache.invalidateAll(ITEMS_PREFIX + "/"));
+    }
+
+    /**
+     * The owner's view of an item shows its last and next bookings; the server names the changed booking's item
+     * in a header.
+     */
+    private void invalidateBookedItem(ResponseEntity<Object> response) {
+        if (response == null || !response.getStatusCode().is2xxSuccessful()) {
+            return;
+        }
+
+        String itemId = response.getHeaders().getFirst(ITEM_ID_HEADER);
+        if (itemId != null) {
+            responseCache.invalidate(ITEMS_PREFIX + "/" + itemId);
+        } else {
+            responseCache.invalidateAll(ITEMS_PREFIX + "/");
+        }
     }
 }
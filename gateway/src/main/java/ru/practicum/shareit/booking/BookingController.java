@@ -8,11 +8,16 @@ import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
 import ru.practicum.shareit.booking.enums.State;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static ru.practicum.shareit.booking.util.Constant.*;
 
@@ -26,48 +31,58 @@ public class BookingController {
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<Object> bookItem(@RequestHeader(USER_ID_HEADER) long userId,
-                                           @RequestBody @Valid BookingInputDto bookingDto) {
+    public CompletableFuture<ResponseEntity<Object>> bookItem(@RequestHeader(USER_ID_HEADER) long userId,
+                                                              @RequestBody @Valid BookingInputDto bookingDto) {
         log.info("Book an item. User id = {}, booking = {}", userId, bookingDto);
         return bookingClient.bookItem(bookingDto, userId);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader(USER_ID_HEADER) long userId,
-                                             @PathVariable long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> getBooking(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                @PathVariable long bookingId) {
         log.info("Get booking. User id = {}, bookingId = {}", userId, bookingId);
         return bookingClient.getBooking(bookingId, userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getBookingsByBooker(@RequestHeader(USER_ID_HEADER) long userId,
-                                                      @RequestParam(defaultValue = "all") String state,
-                                                      @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
-                                                      @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) @Positive int size,
-                                                      @RequestParam(value = "sort", defaultValue = "start") String sort,
-                                                      @RequestParam(value = "dir", defaultValue = DESC) String dir) {
-        log.info("Get booking by booker. User id = {}, state = {}, from = {}, size = {}, sort = {}, dir = {}",
-                userId, state, from, size, sort, dir);
-        return bookingClient.getBookingsByBookerIdAndState(userId, State.getEnum(state), from, size, sort, dir);
+    public CompletableFuture<ResponseEntity<Object>> getBookingsByBooker(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                         @RequestParam(defaultValue = "all") String state,
+                                                                         @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
+                                                                         @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) @Positive int size,
+                                                                         @RequestParam(value = "sort", defaultValue = "start") String sort,
+                                                                         @RequestParam(value = "dir", defaultValue = DESC) String dir,
+                                                                         @RequestParam(value = "after", required = false) String after) {
+        log.info("Get booking by booker. User id = {}, state = {}, from = {}, size = {}, sort = {}, dir = {}, after = {}",
+                userId, state, from, size, sort, dir, after);
+        return bookingClient.getBookingsByBookerIdAndState(userId, State.getEnum(state), from, size, sort, dir, after);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingsByOwner(@RequestHeader(USER_ID_HEADER) long userId,
-                                                     @RequestParam(defaultValue = "all") String state,
-                                                     @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
-                                                     @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) @Positive int size,
-                                                     @RequestParam(value = "sort", defaultValue = "start") String sort,
-                                                     @RequestParam(value = "dir", defaultValue = DESC) String dir) {
-        log.info("Get booking by owner. User id = {}, state = {}, from = {}, size = {}, sort = {}, dir = {}",
-                userId, state, from, size, sort, dir);
-        return bookingClient.getBookingsByOwnerIdAndState(userId, State.getEnum(state), from, size, sort, dir);
+    public CompletableFuture<ResponseEntity<Object>> getBookingsByOwner(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                        @RequestParam(defaultValue = "all") String state,
+                                                                        @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
+                                                                        @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) @Positive int size,
+                                                                        @RequestParam(value = "sort", defaultValue = "start") String sort,
+                                                                        @RequestParam(value = "dir", defaultValue = DESC) String dir,
+                                                                        @RequestParam(value = "after", required = false) String after) {
+        log.info("Get booking by owner. User id = {}, state = {}, from = {}, size = {}, sort = {}, dir = {}, after = {}",
+                userId, state, from, size, sort, dir, after);
+        return bookingClient.getBookingsByOwnerIdAndState(userId, State.getEnum(state), from, size, sort, dir, after);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approvedBooking(@RequestHeader(USER_ID_HEADER) long userId,
-                                                  @PathVariable long bookingId,
-                                                  @RequestParam boolean approved) {
+    public CompletableFuture<ResponseEntity<Object>> approvedBooking(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                     @PathVariable long bookingId,
+                                                                     @RequestParam boolean approved) {
         log.info("Update booking status. User id = {}, isApproved = {}", bookingId, approved);
         return bookingClient.changeStatus(userId, bookingId, approved);
     }
+
+    @PatchMapping("/batch")
+    public CompletableFuture<ResponseEntity<Object>> changeStatuses(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                    @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                                                    List<@Valid BookingStatusChangeDto> changes) {
+        log.info("Update booking statuses. User id = {}, changes = {}", userId, changes);
+        return bookingClient.changeStatuses(userId, changes);
+    }
 }
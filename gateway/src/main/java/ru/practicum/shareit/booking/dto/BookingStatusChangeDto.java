@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingStatusChangeDto {
+
+    @NotNull
+    @Positive
+    private Long bookingId;
+
+    @NotNull
+    private Boolean approved;
+}
@@ -5,8 +5,10 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 public class Constant {
     public static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    public static final String ITEM_ID_HEADER = "X-Item-Id";
     public static final String DEFAULT_NUMBER_ELEMENT_PER_PAGE = "50";
     public static final String DESC = "desc";
     public static final String ASC = "asc";
     public static final String DATE_TIME_PATTERN = "yyyy-MM-dd'T'HH:mm:ss";
+    public static final int MAX_BATCH_SIZE = 100;
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Non-blocking transport to the server built on the JDK HTTP client.
+ * When enabled, gateway calls complete on the transport's own threads, so the Tomcat thread that accepted
+ * the request is released while the server works. All clients share one HTTP client and its connection pool.
+ */
+@Component
+@Slf4j
+public class AsyncHttpTransport {
+    private static final String POOL_SIZE_PROPERTY = "jdk.httpclient.connectionPoolSize";
+    private static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+
+    private final boolean enabled;
+    private final Duration readTimeout;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+
+    public AsyncHttpTransport(@Value("${shareit-server.async.enabled:false}") boolean enabled,
+                              @Value("${shareit-server.async.max-idle-connections:200}") int maxIdleConnections,
+                              @Value("${shareit-server.async.keep-alive:PT30S}") Duration keepAlive,
+                              @Value("${shareit-server.async.connect-timeout:PT2S}") Duration connectTimeout,
+                              @Value("${shareit-server.async.read-timeout:PT30S}") Duration readTimeout,
+                              @Value("${shareit-server.async.threads:4}") int threads,
+                              ObjectMapper objectMapper) {
+        this.enabled = enabled;
+        this.readTimeout = readTimeout;
+        this.objectMapper = objectMapper;
+
+        if (!enabled) {
+            this.executor = null;
+            this.httpClient = null;
+            return;
+        }
+
+        // The JDK client reads its pool settings from system properties once, when the first client is created.
+        if (System.getProperty(POOL_SIZE_PROPERTY) == null) {
+            System.setProperty(POOL_SIZE_PROPERTY, String.valueOf(maxIdleConnections));
+        }
+        if (System.getProperty(KEEP_ALIVE_PROPERTY) == null) {
+            System.setProperty(KEEP_ALIVE_PROPERTY, String.valueOf(keepAlive.toSeconds()));
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("gateway-http-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(threads, threadFactory);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .executor(executor)
+                .build();
+
+        log.info("Non-blocking server transport enabled: {} threads, {} idle connections, keep-alive {}",
+                threads, maxIdleConnections, keepAlive);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> send(HttpMethod method,
+                                                          URI uri,
+                                                          HttpHeaders headers,
+                                                          @Nullable Object body) {
+        HttpRequest.BodyPublisher bodyPublisher;
+        try {
+            bodyPublisher = body == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .method(method.name(), bodyPublisher);
+        headers.forEach((name, values) -> values.forEach(value -> request.header(name, value)));
+
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(this::toResponseEntity);
+    }
+
+    private ResponseEntity<Object> toResponseEntity(HttpResponse<byte[]> response) {
+        HttpHeaders headers = new HttpHeaders();
+        response.headers().map().forEach(headers::addAll);
+        return ServerResponses.passThrough(response.statusCode(), headers, response.body());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,117 +1,199 @@
 package ru.practicum.shareit.client;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class BaseClient {
+    private static final String TIMER_NAME = "gateway.client.requests";
+
     protected final RestTemplate rest;
+    protected final ResponseCache responseCache;
+    private final AsyncHttpTransport asyncTransport;
+    private final MeterRegistry meterRegistry;
+    private final String clientName;
 
-    public BaseClient(RestTemplate rest) {
+    public BaseClient(RestTemplate rest, AsyncHttpTransport asyncTransport, ResponseCache responseCache,
+                      MeterRegistry meterRegistry) {
         this.rest = rest;
+        this.asyncTransport = asyncTransport;
+        this.responseCache = responseCache;
+        this.meterRegistry = meterRegistry;
+        this.clientName = getClass().getSimpleName();
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, null);
+    }
+
+    /**
+     * Reads the resource through the {@link ResponseCache}; resource is the full server path, e.g. /items/1.
+     */
+    protected CompletableFuture<ResponseEntity<Object>> getCached(String resource, String path, @Nullable Long userId) {
+        return responseCache.get(resource, userId,
+                etag -> makeAndSendRequest(HttpMethod.GET, path, userId, null, null, etag));
+    }
+
+    /**
+     * Drops the cached resources once the call that changes them completes.
+     */
+    protected CompletableFuture<ResponseEntity<Object>> invalidating(CompletableFuture<ResponseEntity<Object>> call,
+                                                                     String... resources) {
+        return call.whenComplete((response, e) -> {
+            for (String resource : resources) {
+                responseCache.invalidate(resource);
+            }
+        });
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body, long userId) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, T body, long userId) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body, null);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body, null);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    /**
+     * Sends the request and times it as gateway.client.requests, tagged with the client, method and response status.
+     * Responses served from the {@link ResponseCache} never get here and are not timed.
+     */
+    private <T> CompletableFuture<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body, @Nullable String ifNoneMatch) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<ResponseEntity<Object>> response;
 
-        ResponseEntity<Object> shareitServerResponse;
+        try {
+            response = send(method, path, userId, parameters, body, ifNoneMatch);
+        } catch (RuntimeException e) {
+            sample.stop(timer(method, "IO_ERROR"));
+            throw e;
+        }
+
+        return response.whenComplete((result, e) ->
+                sample.stop(timer(method, result != null ? String.valueOf(result.getStatusCodeValue()) : "IO_ERROR")));
+    }
+
+    private Timer timer(HttpMethod method, String status) {
+        return Timer.builder(TIMER_NAME)
+                .description("Calls from the gateway to the server")
+                .tag("client", clientName)
+                .tag("method", method.name())
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+
+    private <T> CompletableFuture<ResponseEntity<Object>> send(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body, @Nullable String ifNoneMatch) {
+        if (ifNoneMatch == null && method == HttpMethod.GET) {
+            ifNoneMatch = callerIfNoneMatch();
+        }
+
+        if (asyncTransport.isEnabled()) {
+            URI uri = parameters != null
+                    ? rest.getUriTemplateHandler().expand(path, parameters)
+                    : rest.getUriTemplateHandler().expand(path);
+            return asyncTransport.send(method, uri, defaultHeaders(userId, ifNoneMatch), body);
+        }
+
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId, ifNoneMatch));
+
+        ResponseEntity<byte[]> shareitServerResponse;
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return CompletableFuture.completedFuture(ServerResponses.passThrough(
+                    e.getRawStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray()));
+        }
+        return CompletableFuture.completedFuture(ServerResponses.passThrough(
+                shareitServerResponse.getStatusCodeValue(), shareitServerResponse.getHeaders(), shareitServerResponse.getBody()));
+    }
+
+    /**
+     * If-None-Match of the request the gateway is serving, so the server can answer 304 without building the body.
+     */
+    @Nullable
+    private static String callerIfNoneMatch() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return null;
         }
-        return prepareGatewayResponse(shareitServerResponse);
+
+        return ((ServletRequestAttributes) attributes).getRequest().getHeader(HttpHeaders.IF_NONE_MATCH);
     }
 
-    private HttpHeaders defaultHeaders(Long userId) {
+    private HttpHeaders defaultHeaders(Long userId, @Nullable String ifNoneMatch) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
-        return headers;
-    }
-
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
         }
-
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
-        }
-
-        return responseBuilder.build();
+        return headers;
     }
 }
\ No newline at end of file
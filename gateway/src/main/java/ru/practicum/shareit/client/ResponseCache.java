@@ -0,0 +1,264 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Cache of successful server responses to single-resource reads, one variant per requesting user.
+ * Holds at most maxSize bytes of responses in LRU order. An entry is served without asking the server
+ * for ttl; after that it is revalidated with If-None-Match and served again on 304 Not Modified.
+ * Clients that change a resource must call {@link #invalidate(String)} once the change is done.
+ * Counters and size are exported over JMX and as gateway.cache.* meters.
+ */
+@Component
+@ManagedResource(objectName = "ru.practicum.shareit:type=ResponseCache")
+public class ResponseCache implements MeterBinder {
+    // rough size of the key, headers and bookkeeping of an entry
+    private static final int ENTRY_OVERHEAD = 512;
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+    private final Map<String, Set<String>> variants;
+    private long sizeInBytes;
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ResponseCache(@Value("${shareit-server.cache.enabled:true}") boolean enabled,
+                         @Value("${shareit-server.cache.max-size:16MB}") DataSize maxSize,
+                         @Value("${shareit-server.cache.ttl:PT5S}") Duration ttl) {
+        this.enabled = enabled;
+        this.maxBytes = maxSize.toBytes();
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.variants = new HashMap<>();
+    }
+
+    /**
+     * Returns the cached response for the resource as seen by the user, or calls fetch with the ETag
+     * of the stale entry (null if there is none) and caches what the server returns.
+     */
+    public CompletableFuture<ResponseEntity<Object>> get(String resource,
+                                                         @Nullable Long userId,
+                                                         Function<String, CompletableFuture<ResponseEntity<Object>>> fetch) {
+        if (!enabled) {
+            return fetch.apply(null);
+        }
+
+        String key = resource + '#' + userId;
+        Entry cached;
+        long loadGeneration;
+
+        synchronized (entries) {
+            cached = entries.get(key);
+
+            if (cached != null && System.nanoTime() - cached.validatedAt < ttlNanos) {
+                hits.increment();
+                return CompletableFuture.completedFuture(cached.toResponse());
+            }
+
+            loadGeneration = generation;
+        }
+
+        return fetch.apply(cached != null ? cached.etag : null).thenApply(response -> {
+            synchronized (entries) {
+                if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                    revalidations.increment();
+                    if (entries.get(key) == cached) {
+                        cached.validatedAt = System.nanoTime();
+                    }
+                    return cached.toResponse();
+                }
+
+                misses.increment();
+                // an invalidation during the call means the response may already be stale
+                if (loadGeneration == generation) {
+                    remove(key);
+                    if (response.getStatusCode() == HttpStatus.OK && response.getBody() instanceof byte[]) {
+                        store(resource, key, new Entry(response.getHeaders(), (byte[]) response.getBody()));
+                    }
+                }
+            }
+
+            return response;
+        });
+    }
+
+    /**
+     * Drops every user's variant of the resource.
+     */
+    public void invalidate(String resource) {
+        synchronized (entries) {
+            generation++;
+            Set<String> keys = variants.remove(resource);
+            if (keys != null) {
+                keys.forEach(key -> sizeInBytes -= entries.remove(key).size);
+            }
+        }
+    }
+
+    /**
+     * Drops every resource whose path starts with the prefix, for changes that cannot name the resources.
+     */
+    public void invalidateAll(String prefix) {
+        synchronized (entries) {
+            generation++;
+            Iterator<Map.Entry<String, Set<String>>> resources = variants.entrySet().iterator();
+            while (resources.hasNext()) {
+                Map.Entry<String, Set<String>> resource = resources.next();
+                if (resource.getKey().startsWith(prefix)) {
+                    resource.getValue().forEach(key -> sizeInBytes -= entries.remove(key).size);
+                    resources.remove();
+                }
+            }
+        }
+    }
+
+    @ManagedOperation
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+            variants.clear();
+            sizeInBytes = 0;
+        }
+    }
+
+    @ManagedAttribute
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @ManagedAttribute
+    public long getRevalidationCount() {
+        return revalidations.sum();
+    }
+
+    @ManagedAttribute
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @ManagedAttribute
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @ManagedAttribute
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @ManagedAttribute
+    public long getSizeInBytes() {
+        synchronized (entries) {
+            return sizeInBytes;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "hit", ResponseCache::getHitCount);
+        counter(registry, "revalidation", ResponseCache::getRevalidationCount);
+        counter(registry, "miss", ResponseCache::getMissCount);
+        FunctionCounter.builder("gateway.cache.evictions", this, ResponseCache::getEvictionCount)
+                .register(registry);
+        Gauge.builder("gateway.cache.size", this, ResponseCache::getSize)
+                .register(registry);
+        Gauge.builder("gateway.cache.size.bytes", this, ResponseCache::getSizeInBytes)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private void counter(MeterRegistry registry, String result, ToDoubleFunction<ResponseCache> count) {
+        FunctionCounter.builder("gateway.cache.gets", this, count)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private void store(String resource, String key, Entry entry) {
+        if (entry.size > maxBytes) {
+            return;
+        }
+
+        entries.put(key, entry);
+        variants.computeIfAbsent(resource, r -> new HashSet<>()).add(key);
+        sizeInBytes += entry.size;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (sizeInBytes > maxBytes) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            eldest.remove();
+            sizeInBytes -= evicted.getValue().size;
+            forgetVariant(evicted.getKey());
+            evictions.increment();
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            sizeInBytes -= entry.size;
+            forgetVariant(key);
+        }
+    }
+
+    private void forgetVariant(String key) {
+        String resource = key.substring(0, key.lastIndexOf('#'));
+        Set<String> keys = variants.get(resource);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            variants.remove(resource);
+        }
+    }
+
+    private static class Entry {
+        private final HttpHeaders headers;
+        private final byte[] body;
+        private final String etag;
+        private final long size;
+        private long validatedAt;
+
+        private Entry(HttpHeaders headers, byte[] body) {
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            this.body = body;
+            this.etag = headers.getETag();
+            this.size = body.length + ENTRY_OVERHEAD;
+            this.validatedAt = System.nanoTime();
+        }
+
+        private ResponseEntity<Object> toResponse() {
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
+        }
+    }
+}
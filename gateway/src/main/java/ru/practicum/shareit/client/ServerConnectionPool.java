@@ -0,0 +1,133 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Blocking transport to the server: one Apache HTTP client and connection pool shared by every client.
+ * Connections are kept alive between calls, idle ones are closed in the background,
+ * and the pool usage is exported over JMX and as gateway.server.connections gauges.
+ */
+@Component
+@ManagedResource(objectName = "ru.practicum.shareit:type=ServerConnectionPool")
+@Slf4j
+public class ServerConnectionPool implements MeterBinder {
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    public ServerConnectionPool(@Value("${shareit-server.http.max-total:200}") int maxTotal,
+                                @Value("${shareit-server.http.max-per-route:100}") int maxPerRoute,
+                                @Value("${shareit-server.http.keep-alive:PT30S}") Duration keepAlive,
+                                @Value("${shareit-server.http.idle-eviction:PT30S}") Duration idleEviction,
+                                @Value("${shareit-server.http.connect-timeout:PT2S}") Duration connectTimeout,
+                                @Value("${shareit-server.http.read-timeout:PT30S}") Duration readTimeout,
+                                @Value("${shareit-server.http.pool-timeout:PT2S}") Duration poolTimeout) {
+        connectionManager = new PoolingHttpClientConnectionManager(keepAlive.toMillis(), TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(1000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setSocketTimeout((int) readTimeout.toMillis())
+                .setConnectionRequestTimeout((int) poolTimeout.toMillis())
+                .build();
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(keepAlive.toMillis()))
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEviction.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+
+        log.info("Server connection pool: {} connections, {} per route, keep-alive {}", maxTotal, maxPerRoute, keepAlive);
+    }
+
+    /**
+     * Honours the server's Keep-Alive header but never keeps a connection longer than configured.
+     */
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long maxKeepAliveMillis) {
+        return (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, maxKeepAliveMillis) : maxKeepAliveMillis;
+        };
+    }
+
+    public HttpComponentsClientHttpRequestFactory requestFactory() {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    /**
+     * Request factory that writes bodies straight to the connection instead of buffering them in memory.
+     */
+    public HttpComponentsClientHttpRequestFactory streamingRequestFactory() {
+        HttpComponentsClientHttpRequestFactory requestFactory = requestFactory();
+        requestFactory.setBufferRequestBody(false);
+        return requestFactory;
+    }
+
+    @ManagedAttribute
+    public int getLeased() {
+        return connectionManager.getTotalStats().getLeased();
+    }
+
+    @ManagedAttribute
+    public int getPending() {
+        return connectionManager.getTotalStats().getPending();
+    }
+
+    @ManagedAttribute
+    public int getAvailable() {
+        return connectionManager.getTotalStats().getAvailable();
+    }
+
+    @ManagedAttribute
+    public int getMax() {
+        return connectionManager.getTotalStats().getMax();
+    }
+
+    public PoolStats getTotalStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "leased", this, ServerConnectionPool::getLeased);
+        gauge(registry, "pending", this, ServerConnectionPool::getPending);
+        gauge(registry, "available", this, ServerConnectionPool::getAvailable);
+        gauge(registry, "max", this, ServerConnectionPool::getMax);
+    }
+
+    private static void gauge(MeterRegistry registry, String state, ServerConnectionPool pool,
+                              ToDoubleFunction<ServerConnectionPool> value) {
+        Gauge.builder("gateway.server.connections", pool, value)
+                .tag("state", state)
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        httpClient.close();
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.client;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Turns a server response into the gateway response without parsing its body:
+ * status, end-to-end headers and the raw bytes are passed to the caller as they are.
+ */
+@UtilityClass
+class ServerResponses {
+    private static final Set<String> SKIPPED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        // Hop-by-hop headers and the ones the gateway's own container writes.
+        SKIPPED_HEADERS.addAll(Set.of(
+                HttpHeaders.CONNECTION, "Keep-Alive", HttpHeaders.TRANSFER_ENCODING, HttpHeaders.TE,
+                HttpHeaders.TRAILER, HttpHeaders.UPGRADE, HttpHeaders.PROXY_AUTHENTICATE,
+                HttpHeaders.PROXY_AUTHORIZATION, HttpHeaders.CONTENT_LENGTH, HttpHeaders.DATE));
+    }
+
+    static ResponseEntity<Object> passThrough(int status, @Nullable HttpHeaders serverHeaders, @Nullable byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null) {
+            serverHeaders.forEach((name, values) -> {
+                if (!SKIPPED_HEADERS.contains(name)) {
+                    headers.addAll(name, values);
+                }
+            });
+        }
+
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status).headers(headers);
+
+        if (body == null || body.length == 0) {
+            return responseBuilder.build();
+        }
+
+        return responseBuilder.body(body);
+    }
+}
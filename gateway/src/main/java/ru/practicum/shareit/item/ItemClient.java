@@ -1,41 +1,96 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.AsyncHttpTransport;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerConnectionPool;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.validation.Create;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+
+import static ru.practicum.shareit.booking.util.Constant.DATE_TIME_PATTERN;
+import static ru.practicum.shareit.booking.util.Constant.USER_ID_HEADER;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
+    private static final String REQUESTS_PREFIX = "/requests";
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern(DATE_TIME_PATTERN);
+
+    private final ObjectReader itemReader;
+    private final ObjectWriter itemWriter;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl,
+                      RestTemplateBuilder builder,
+                      ServerConnectionPool connectionPool,
+                      AsyncHttpTransport asyncHttpTransport,
+                      ResponseCache responseCache,
+                      MeterRegistry meterRegistry,
+                      ObjectMapper objectMapper,
+                      Validator validator) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(connectionPool::streamingRequestFactory)
+                        .build(),
+                asyncHttpTransport,
+                responseCache,
+                meterRegistry
         );
+        this.itemReader = objectMapper.readerFor(ItemDto.class);
+        this.itemWriter = objectMapper.writerFor(ItemDto.class);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
 
-    public ResponseEntity<Object> createItem(ItemDto itemDto, long userId) {
+    public CompletableFuture<ResponseEntity<Object>> createItem(ItemDto itemDto, long userId) {
+        if (itemDto.getRequestId() != null) {
+            return invalidating(post("", itemDto, userId), REQUESTS_PREFIX + "/" + itemDto.getRequestId());
+        }
+
         return post("", itemDto, userId);
     }
 
-    public ResponseEntity<Object> createComment(CommentDto commentDto, long itemId, long userId) {
-        return post("/" + itemId + "/comment", commentDto, userId);
+    public CompletableFuture<ResponseEntity<Object>> createComment(CommentDto commentDto, long itemId, long userId) {
+        return invalidating(post("/" + itemId + "/comment", commentDto, userId), API_PREFIX + "/" + itemId);
     }
 
-    public ResponseEntity<Object> getItemsByOwnerId(long userId, int from, int size, String sort, String dir) {
+    public CompletableFuture<ResponseEntity<Object>> getItemsByOwnerId(long userId, int from, int size, String sort, String dir) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size,
@@ -46,11 +101,11 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}&sort={sort}&dir={dir}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getItemById(long userId, long itemId) {
-        return get("/" + itemId, userId);
+    public CompletableFuture<ResponseEntity<Object>> getItemById(long userId, long itemId) {
+        return getCached(API_PREFIX + "/" + itemId, "/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getItemsByText(String text, int from, int size, String sort, String dir) {
+    public CompletableFuture<ResponseEntity<Object>> getItemsByText(String text, int from, int size, String sort, String dir) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
@@ -62,11 +117,120 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}&sort={sort}&dir={dir}", null, parameters);
     }
 
-    public ResponseEntity<Object> updateItemById(long itemId, ItemDto itemDto, long userId) {
-        return patch("/" + itemId, userId, itemDto);
+    public CompletableFuture<ResponseEntity<Object>> getItemAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from.format(DATE_TIME_FORMATTER),
+                "to", to.format(DATE_TIME_FORMATTER)
+        );
+
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> updateItemById(long itemId, ItemDto itemDto, long userId) {
+        return invalidating(patch("/" + itemId, userId, itemDto), API_PREFIX + "/" + itemId);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> deleteItemById(long itemId, long userId) {
+        return invalidating(delete("/" + itemId, userId), API_PREFIX + "/" + itemId);
+    }
+
+    /**
+     * Streams the valid records of a JSON array or NDJSON body to the server as NDJSON.
+     * Records failing the {@link Create} checks are not forwarded and are reported in the result
+     * together with the server's errors, all numbered by their position in the original body.
+     */
+    public ResponseEntity<Object> importItems(long userId, InputStream body) {
+        List<ItemImportErrorDto> errors = new ArrayList<>();
+        List<Long> forwardedRecords = new ArrayList<>();
+
+        try {
+            return rest.execute("/bulk", HttpMethod.POST,
+                    request -> {
+                        request.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+                        request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                        request.getHeaders().set(USER_ID_HEADER, String.valueOf(userId));
+                        forwardValidItems(body, request.getBody(), errors, forwardedRecords);
+                    },
+                    response -> {
+                        ItemImportResultDto result = objectMapper.readValue(response.getBody(), ItemImportResultDto.class);
+                        return ResponseEntity.status(response.getStatusCode())
+                                .body(mergeErrors(result, errors, forwardedRecords));
+                    });
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        } finally {
+            // imported items can answer any request, so every cached request view may be stale
+            responseCache.invalidateAll(REQUESTS_PREFIX + "/");
+        }
+    }
+
+    private void forwardValidItems(InputStream body,
+                                   OutputStream out,
+                                   List<ItemImportErrorDto> errors,
+                                   List<Long> forwardedRecords) throws IOException {
+        long recordNumber = 0;
+
+        try (MappingIterator<ItemDto> records = itemReader.readValues(body)) {
+            while (records.hasNextValue()) {
+                recordNumber++;
+
+                ItemDto itemDto;
+                try {
+                    itemDto = records.nextValue();
+                } catch (JsonProcessingException e) {
+                    errors.add(new ItemImportErrorDto(recordNumber, e.getOriginalMessage()));
+                    continue;
+                }
+
+                String error = validate(itemDto);
+                if (error != null) {
+                    errors.add(new ItemImportErrorDto(recordNumber, error));
+                    continue;
+                }
+
+                out.write(itemWriter.writeValueAsBytes(itemDto));
+                out.write('\n');
+                forwardedRecords.add(recordNumber);
+            }
+        } catch (JsonProcessingException e) {
+            errors.add(new ItemImportErrorDto(recordNumber, "Malformed body: " + e.getOriginalMessage()));
+        }
     }
 
-    public void deleteItemById(long itemId, long userId) {
-        delete("/" + itemId, userId);
+    private String validate(ItemDto itemDto) {
+        if (itemDto == null) {
+            return "Item must not be null.";
+        }
+
+        Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto, Create.class);
+        if (violations.isEmpty()) {
+            return null;
+        }
+
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static ItemImportResultDto mergeErrors(ItemImportResultDto result,
+                                                   List<ItemImportErrorDto> errors,
+                                                   List<Long> forwardedRecords) {
+        List<ItemImportErrorDto> merged = new ArrayList<>(errors);
+
+        if (result.getErrors() != null) {
+            for (ItemImportErrorDto error : result.getErrors()) {
+                int forwardedIndex = (int) error.getRecord() - 1;
+                long record = forwardedIndex >= 0 && forwardedIndex < forwardedRecords.size()
+                        ? forwardedRecords.get(forwardedIndex)
+                        : error.getRecord();
+                merged.add(new ItemImportErrorDto(record, error.getMessage()));
+            }
+        }
+
+        merged.sort(Comparator.comparingLong(ItemImportErrorDto::getRecord));
+        result.setErrors(merged);
+
+        return result;
     }
 }
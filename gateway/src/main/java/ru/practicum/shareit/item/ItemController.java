@@ -2,7 +2,9 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -14,7 +16,10 @@ import ru.practicum.shareit.validation.Update;
 
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static ru.practicum.shareit.booking.util.Constant.*;
 
@@ -28,61 +33,82 @@ public class ItemController {
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<Object> createItem(@RequestHeader(USER_ID_HEADER) long userId,
-                                             @Validated(Create.class) @RequestBody ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<Object>> createItem(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                @Validated(Create.class) @RequestBody ItemDto itemDto) {
         log.info("Create Item. User id = {}, item = {}", userId, itemDto);
         return itemClient.createItem(itemDto, userId);
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Object> importItems(@RequestHeader(USER_ID_HEADER) long userId,
+                                              InputStream body) {
+        log.info("Import items. User id = {}", userId);
+        return itemClient.importItems(userId, body);
+    }
+
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createComment(@RequestHeader(USER_ID_HEADER) long userId,
-                                                @PathVariable long itemId,
-                                                @Validated(Create.class) @RequestBody CommentDto commentDto) {
+    public CompletableFuture<ResponseEntity<Object>> createComment(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                   @PathVariable long itemId,
+                                                                   @Validated(Create.class) @RequestBody CommentDto commentDto) {
         log.info("Create Comment. User id = {}, comment = {}", userId, commentDto);
         return itemClient.createComment(commentDto, itemId, userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getItemsByUserId(@RequestHeader(USER_ID_HEADER) long userId,
-                                                   @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
-                                                   @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) @Positive int size,
-                                                   @RequestParam(value = "sort", defaultValue = "id") String sort,
-                                                   @RequestParam(value = "dir", defaultValue = ASC) String dir) {
+    public CompletableFuture<ResponseEntity<Object>> getItemsByUserId(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                      @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
+                                                                      @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) @Positive int size,
+                                                                      @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                                      @RequestParam(value = "dir", defaultValue = ASC) String dir) {
         log.info("Get items by user id. User id = {}", userId);
         return itemClient.getItemsByOwnerId(userId, from, size, sort, dir);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@RequestHeader(USER_ID_HEADER) long userId,
-                                              @PathVariable long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> getItemById(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                 @PathVariable long itemId) {
         log.info("Get item by ud. User id = {}, item id = {}", userId, itemId);
         return itemClient.getItemById(userId, itemId);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> getItemsByText(@RequestParam(required = false) String text,
-                                                 @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
-                                                 @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) @Positive int size,
-                                                 @RequestParam(value = "sort", defaultValue = "id") String sort,
-                                                 @RequestParam(value = "dir", defaultValue = ASC) String dir) {
+    public CompletableFuture<ResponseEntity<Object>> getItemsByText(@RequestParam(required = false) String text,
+                                                                    @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
+                                                                    @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) @Positive int size,
+                                                                    @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                                    @RequestParam(value = "dir", defaultValue = ASC) String dir) {
         log.info("Get items by text. Text = {}", text);
 
-        return text.isBlank() ? ResponseEntity.ok(List.of()) :
+        return text.isBlank() ? CompletableFuture.completedFuture(ResponseEntity.ok(List.of())) :
                 itemClient.getItemsByText(text, from, size, sort, dir);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public CompletableFuture<ResponseEntity<Object>> getItemAvailability(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                         @PathVariable long itemId,
+                                                                         @RequestParam @DateTimeFormat(pattern = DATE_TIME_PATTERN) LocalDateTime from,
+                                                                         @RequestParam @DateTimeFormat(pattern = DATE_TIME_PATTERN) LocalDateTime to) {
+        log.info("Get item availability. User id = {}, item id = {}, from = {}, to = {}", userId, itemId, from, to);
+
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Parameter from must be before to.");
+        }
+
+        return itemClient.getItemAvailability(userId, itemId, from, to);
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItemById(@PathVariable long itemId,
-                                                 @RequestHeader(USER_ID_HEADER) long userId,
-                                                 @Validated(Update.class) @RequestBody ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<Object>> updateItemById(@PathVariable long itemId,
+                                                                    @RequestHeader(USER_ID_HEADER) long userId,
+                                                                    @Validated(Update.class) @RequestBody ItemDto itemDto) {
         log.info("Update item. User id = {}, item id = {}, new item = {}", userId, itemId, itemDto);
         return itemClient.updateItemById(itemId, itemDto, userId);
     }
 
     @DeleteMapping("/{itemId}")
-    public void deleteItemById(@PathVariable long itemId,
-                               @RequestHeader(USER_ID_HEADER) long userId) {
+    public CompletableFuture<Void> deleteItemById(@PathVariable long itemId,
+                                                  @RequestHeader(USER_ID_HEADER) long userId) {
         log.info("Delete item. User id = {}, item id = {}", userId, itemId);
-        itemClient.deleteItemById(itemId, userId);
+        return itemClient.deleteItemById(itemId, userId).thenApply(response -> null);
     }
 }
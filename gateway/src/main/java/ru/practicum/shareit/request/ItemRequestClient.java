@@ -1,36 +1,48 @@
 package ru.practicum.shareit.request;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.AsyncHttpTransport;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerConnectionPool;
 import ru.practicum.shareit.request.dto.ItemRequestInputDto;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl,
+                             RestTemplateBuilder builder,
+                             ServerConnectionPool connectionPool,
+                             AsyncHttpTransport asyncHttpTransport,
+                             ResponseCache responseCache,
+                             MeterRegistry meterRegistry) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(connectionPool::requestFactory)
+                        .build(),
+                asyncHttpTransport,
+                responseCache,
+                meterRegistry
         );
     }
 
-    protected ResponseEntity<Object> createRequest(ItemRequestInputDto itemRequestInputDto, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> createRequest(ItemRequestInputDto itemRequestInputDto, long userId) {
         return post("", itemRequestInputDto, userId);
     }
 
-    public ResponseEntity<Object> getRequestsByRequesterId(long userId, String sort, String dir) {
+    public CompletableFuture<ResponseEntity<Object>> getRequestsByRequesterId(long userId, String sort, String dir) {
         Map<String, Object> parameters = Map.of(
                 "sort", sort,
                 "dir", dir
@@ -39,7 +51,7 @@ public class ItemRequestClient extends BaseClient {
         return get("?sort={sort}&dir={dir}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getOtherRequests(long userId, int from, int size, String sort, String dir) {
+    public CompletableFuture<ResponseEntity<Object>> getOtherRequests(long userId, int from, int size, String sort, String dir) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size,
@@ -50,7 +62,7 @@ public class ItemRequestClient extends BaseClient {
         return get("/all?from={from}&size={size}&sort={sort}&dir={dir}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getRequestById(long requestId, long userId) {
-        return get("/" + requestId, userId);
+    public CompletableFuture<ResponseEntity<Object>> getRequestById(long requestId, long userId) {
+        return getCached(API_PREFIX + "/" + requestId, "/" + requestId, userId);
     }
 }
@@ -15,6 +15,8 @@ import javax.validation.constraints.PositiveOrZero;
 
 import static ru.practicum.shareit.booking.util.Constant.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @Controller
 @RequestMapping(path = "/requests")
 @RequiredArgsConstructor
@@ -25,33 +27,33 @@ public class ItemRequestController {
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<Object> createRequest(@RequestHeader(USER_ID_HEADER) long userId,
-                                                @RequestBody @Valid ItemRequestInputDto itemRequestInputDto) {
+    public CompletableFuture<ResponseEntity<Object>> createRequest(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                   @RequestBody @Valid ItemRequestInputDto itemRequestInputDto) {
         log.info("Create item request. User id = {}, request = {}", userId, itemRequestInputDto);
         return itemRequestClient.createRequest(itemRequestInputDto, userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getRequests(@RequestHeader(USER_ID_HEADER) long userId,
-                                              @RequestParam(value = "sort", defaultValue = "created") String sort,
-                                              @RequestParam(value = "dir", defaultValue = DESC) String dir) {
+    public CompletableFuture<ResponseEntity<Object>> getRequests(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                 @RequestParam(value = "sort", defaultValue = "created") String sort,
+                                                                 @RequestParam(value = "dir", defaultValue = DESC) String dir) {
         log.info("Get requests. User id = {}", userId);
         return itemRequestClient.getRequestsByRequesterId(userId, sort, dir);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getOtherRequests(@RequestHeader(USER_ID_HEADER) long userId,
-                                                   @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
-                                                   @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) @Positive int size,
-                                                   @RequestParam(value = "sort", defaultValue = "created") String sort,
-                                                   @RequestParam(value = "dir", defaultValue = DESC) String dir) {
+    public CompletableFuture<ResponseEntity<Object>> getOtherRequests(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                      @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
+                                                                      @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) @Positive int size,
+                                                                      @RequestParam(value = "sort", defaultValue = "created") String sort,
+                                                                      @RequestParam(value = "dir", defaultValue = DESC) String dir) {
         log.info("Get other requests. User id = {}", userId);
         return itemRequestClient.getOtherRequests(userId, from, size, sort, dir);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequest(@RequestHeader(USER_ID_HEADER) long userId,
-                                             @PathVariable long requestId) {
+    public CompletableFuture<ResponseEntity<Object>> getRequest(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                @PathVariable long requestId) {
         log.info("Delete request. User id = {}, request id = {}", userId, requestId);
         return itemRequestClient.getRequestById(requestId, userId);
     }
@@ -1,46 +1,72 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.AsyncHttpTransport;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerConnectionPool;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
+    private static final String ITEMS_PREFIX = "/items";
+    private static final String REQUESTS_PREFIX = "/requests";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl,
+                      RestTemplateBuilder builder,
+                      ServerConnectionPool connectionPool,
+                      AsyncHttpTransport asyncHttpTransport,
+                      ResponseCache responseCache,
+                      MeterRegistry meterRegistry) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(connectionPool::requestFactory)
+                        .build(),
+                asyncHttpTransport,
+                responseCache,
+                meterRegistry
         );
     }
 
-    public ResponseEntity<Object> createUser(UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> createUser(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> getAllUsers() {
+    public CompletableFuture<ResponseEntity<Object>> getAllUsers() {
         return get("");
     }
 
-    public ResponseEntity<Object> getUserById(long userId) {
-        return get("/" + userId);
+    public CompletableFuture<ResponseEntity<Object>> getUserById(long userId) {
+        return getCached(API_PREFIX + "/" + userId, "/" + userId, null);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> updateUserById(long userId, UserDto userDto) {
+        return invalidating(patch("/" + userId, userDto), API_PREFIX + "/" + userId)
+                .whenComplete((response, e) -> invalidateAuthoredViews());
     }
 
-    public ResponseEntity<Object> updateUserById(long userId, UserDto userDto) {
-        return patch("/" + userId, userDto);
+    public CompletableFuture<ResponseEntity<Object>> deleteUserById(long userId) {
+        return invalidating(delete("/" + userId), API_PREFIX + "/" + userId)
+                .whenComplete((response, e) -> invalidateAuthoredViews());
     }
 
-    public ResponseEntity<Object> deleteUserById(long userId) {
-        return delete("/" + userId);
+    /**
+     * Item and request views show the user's name as comment author, and deleting the user deletes
+     * their items and comments; the views can't be named, so every cached one is dropped.
+     */
+    private void invalidateAuthoredViews() {
+        responseCache.invalidateAll(ITEMS_PREFIX + "/");
+        responseCache.invalidateAll(REQUESTS_PREFIX + "/");
     }
 }
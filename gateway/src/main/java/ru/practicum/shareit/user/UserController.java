@@ -11,6 +11,8 @@ import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.validation.Create;
 import ru.practicum.shareit.validation.Update;
 
+import java.util.concurrent.CompletableFuture;
+
 @Controller
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
@@ -20,32 +22,32 @@ public class UserController {
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<Object> createUser(@Validated(Create.class) @RequestBody UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> createUser(@Validated(Create.class) @RequestBody UserDto userDto) {
         log.info("Create user. New user = {}", userDto);
         return userClient.createUser(userDto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
+    public CompletableFuture<ResponseEntity<Object>> getAllUsers() {
         log.info("Get all users");
         return userClient.getAllUsers();
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getUserById(@PathVariable long userId) {
         log.info("Get user by id. User id = {}", userId);
         return userClient.getUserById(userId);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUserById(@PathVariable long userId,
-                                                 @Validated(Update.class) @RequestBody UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> updateUserById(@PathVariable long userId,
+                                                                    @Validated(Update.class) @RequestBody UserDto userDto) {
         log.info("Update user. User id = {}, new user = {}", userId, userDto);
         return userClient.updateUserById(userId, userDto);
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> deleteUserById(@PathVariable long userId) {
+    public CompletableFuture<ResponseEntity<Object>> deleteUserById(@PathVariable long userId) {
         log.info("Delete user. User id = {}", userId);
         return userClient.deleteUserById(userId);
     }
@@ -0,0 +1,187 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResponseCacheTest {
+    private static final Duration FRESH = Duration.ofMinutes(1);
+    private static final Duration ALWAYS_STALE = Duration.ZERO;
+    // body length that makes an entry take 1 KB together with the entry overhead
+    private static final int BODY_LENGTH = 512;
+
+    private final List<String> fetchedEtags = new ArrayList<>();
+
+    @Test
+    void get_whenEntryIsFresh_thenServeItWithoutFetching() {
+        //given
+        ResponseCache cache = new ResponseCache(true, DataSize.ofKilobytes(16), FRESH);
+        get(cache, "/items/1", 1L, ok("item 1", "\"v1\""));
+
+        //when
+        ResponseEntity<Object> response = get(cache, "/items/1", 1L, ok("item 1 changed", "\"v2\""));
+
+        //then
+        assertEquals(1, fetchedEtags.size());
+        assertBody("item 1", response);
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void get_whenEntriesExceedMaxSize_thenEvictLeastRecentlyUsed() {
+        //given
+        ResponseCache cache = new ResponseCache(true, DataSize.ofKilobytes(2), FRESH);
+        get(cache, "/items/1", 1L, ok(body('1'), "\"v1\""));
+        get(cache, "/items/2", 1L, ok(body('2'), "\"v1\""));
+        get(cache, "/items/1", 1L, ok(body('x'), "\"v2\""));
+
+        //when
+        get(cache, "/items/3", 1L, ok(body('3'), "\"v1\""));
+
+        //then
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2, cache.getSize());
+        assertEquals(2 * 1024, cache.getSizeInBytes());
+        assertBody(body('1'), get(cache, "/items/1", 1L, ok(body('x'), "\"v2\"")));
+        assertBody(body('x'), get(cache, "/items/2", 1L, ok(body('x'), "\"v2\"")));
+    }
+
+    @Test
+    void get_whenEntryIsLargerThanMaxSize_thenDoNotCacheIt() {
+        //given
+        ResponseCache cache = new ResponseCache(true, DataSize.ofKilobytes(1), FRESH);
+
+        //when
+        get(cache, "/items/1", 1L, ok(body('1') + body('1'), "\"v1\""));
+
+        //then
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    void get_whenResourceIsInvalidatedDuringFetch_thenDoNotCacheTheResponse() {
+        //given
+        ResponseCache cache = new ResponseCache(true, DataSize.ofKilobytes(16), FRESH);
+        CompletableFuture<ResponseEntity<Object>> pending = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> response = cache.get("/items/1", 1L, etag -> pending);
+
+        //when
+        cache.invalidate("/items/1");
+        pending.complete(response("item 1 before update", "\"v1\"", HttpStatus.OK));
+
+        //then
+        assertBody("item 1 before update", response.join());
+        assertEquals(0, cache.getSize());
+        assertBody("item 1 after update", get(cache, "/items/1", 1L, ok("item 1 after update", "\"v2\"")));
+        assertNull(fetchedEtags.get(0));
+    }
+
+    @Test
+    void get_whenStaleEntryIsNotModified_thenServeCachedBody() {
+        //given
+        ResponseCache cache = new ResponseCache(true, DataSize.ofKilobytes(16), ALWAYS_STALE);
+        get(cache, "/items/1", 1L, ok("item 1", "\"v1\""));
+
+        //when
+        ResponseEntity<Object> response = get(cache, "/items/1", 1L,
+                etag -> response(null, etag, HttpStatus.NOT_MODIFIED));
+
+        //then
+        assertEquals("\"v1\"", fetchedEtags.get(1));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertBody("item 1", response);
+        assertEquals(1, cache.getRevalidationCount());
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void get_whenStaleEntryIsModified_thenReplaceItWithNewResponse() {
+        //given
+        ResponseCache cache = new ResponseCache(true, DataSize.ofKilobytes(16), ALWAYS_STALE);
+        get(cache, "/items/1", 1L, ok("item 1", "\"v1\""));
+
+        //when
+        ResponseEntity<Object> response = get(cache, "/items/1", 1L, ok("item 1 changed", "\"v2\""));
+        get(cache, "/items/1", 1L, etag -> response(null, etag, HttpStatus.NOT_MODIFIED));
+
+        //then
+        assertBody("item 1 changed", response);
+        assertEquals(List.of("\"v1\"", "\"v2\""), fetchedEtags.subList(1, 3));
+        assertEquals(1, cache.getRevalidationCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void get_whenAnotherUserRequestsResource_thenFetchTheirOwnVariant() {
+        //given
+        ResponseCache cache = new ResponseCache(true, DataSize.ofKilobytes(16), FRESH);
+        get(cache, "/items/1", 1L, ok("item 1 for owner", "\"owner\""));
+
+        //when
+        ResponseEntity<Object> response = get(cache, "/items/1", 2L, ok("item 1 for booker", "\"booker\""));
+
+        //then
+        assertBody("item 1 for booker", response);
+        assertNull(fetchedEtags.get(1));
+        assertBody("item 1 for owner", get(cache, "/items/1", 1L, ok("unexpected", "\"v2\"")));
+        assertEquals(2, cache.getSize());
+    }
+
+    @Test
+    void invalidate_whenResourceHasSeveralVariants_thenDropAllOfThem() {
+        //given
+        ResponseCache cache = new ResponseCache(true, DataSize.ofKilobytes(16), FRESH);
+        get(cache, "/items/1", 1L, ok("item 1 for owner", "\"owner\""));
+        get(cache, "/items/1", 2L, ok("item 1 for booker", "\"booker\""));
+        get(cache, "/items/2", 1L, ok("item 2", "\"v1\""));
+
+        //when
+        cache.invalidate("/items/1");
+
+        //then
+        assertEquals(1, cache.getSize());
+        assertBody("item 2", get(cache, "/items/2", 1L, ok("unexpected", "\"v2\"")));
+    }
+
+    private ResponseEntity<Object> get(ResponseCache cache, String resource, Long userId,
+                                       Function<String, ResponseEntity<Object>> server) {
+        return cache.get(resource, userId, etag -> {
+            fetchedEtags.add(etag);
+            return CompletableFuture.completedFuture(server.apply(etag));
+        }).join();
+    }
+
+    private static Function<String, ResponseEntity<Object>> ok(String body, String etag) {
+        return ifNoneMatch -> response(body, etag, HttpStatus.OK);
+    }
+
+    private static ResponseEntity<Object> response(String body, String etag, HttpStatus status) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+
+        return new ResponseEntity<>(body == null ? null : body.getBytes(StandardCharsets.UTF_8), headers, status);
+    }
+
+    private static String body(char content) {
+        return String.valueOf(content).repeat(BODY_LENGTH);
+    }
+
+    private static void assertBody(String expected, ResponseEntity<Object> response) {
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+    }
+}
@@ -0,0 +1,30 @@
+// Fixed-concurrency load test for the gateway.
+// Run it once with shareit-server.async.enabled=false and once with true, keeping server.tomcat.threads.max
+// the same, and compare http_reqs (RPS) and the p(99) of http_req_duration:
+//
+//   k6 run -e GATEWAY_URL=http://localhost:8080 -e USER_ID=1 -e ITEM_ID=1 loadtest/gateway.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const gatewayUrl = __ENV.GATEWAY_URL || 'http://localhost:8080';
+const headers = { 'X-Sharer-User-Id': __ENV.USER_ID || '1' };
+
+export const options = {
+    scenarios: {
+        fixed_concurrency: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 400),
+            duration: __ENV.DURATION || '60s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const responses = http.batch([
+        ['GET', `${gatewayUrl}/items/${__ENV.ITEM_ID || 1}`, null, { headers }],
+        ['GET', `${gatewayUrl}/bookings/owner?state=ALL&from=0&size=20`, null, { headers }],
+    ]);
+
+    responses.forEach((response) => check(response, { 'status is 200': (r) => r.status === 200 }));
+}
@@ -0,0 +1,34 @@
+// Large-response load test for the gateway's pass-through of server responses.
+// Fill the server with a few hundred bookings for USER_ID, then run this script against the build before
+// and after the pass-through change while recording the gateway with Java Flight Recorder:
+//
+//   jcmd <gateway-pid> JFR.start name=passthrough settings=profile duration=90s filename=gateway.jfr
+//   k6 run -e GATEWAY_URL=http://localhost:8080 -e USER_ID=1 -e PAGE_SIZE=500 loadtest/passthrough.js
+//
+// Divide the CPU time (jdk.CPULoad, jvmUser) and the allocated bytes (jdk.ObjectAllocationSample, or
+// `jfr summary` / JMC's "Allocation" page) of the recording by http_reqs to get per-request figures.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const gatewayUrl = __ENV.GATEWAY_URL || 'http://localhost:8080';
+const headers = { 'X-Sharer-User-Id': __ENV.USER_ID || '1' };
+const pageSize = __ENV.PAGE_SIZE || '500';
+
+export const options = {
+    scenarios: {
+        large_pages: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 50),
+            duration: __ENV.DURATION || '60s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const response = http.get(`${gatewayUrl}/bookings?state=ALL&from=0&size=${pageSize}`, { headers });
+    check(response, {
+        'status is 200': (r) => r.status === 200,
+        'body is json': (r) => (r.headers['Content-Type'] || '').startsWith('application/json'),
+    });
+}
@@ -0,0 +1,33 @@
+// Connection-heavy load test for comparing the platform-thread default with virtual threads.
+// Start the gateway and server with VIRTUAL_THREADS=false, run this script, then repeat with
+// VIRTUAL_THREADS=true on a Java 21 runtime. Compare http_reqs (throughput), the p(99) of
+// http_req_duration and the resident memory of both JVMs while the test runs, e.g.
+// `jcmd <pid> GC.heap_info` and `ps -o rss= -p <pid>` or `docker stats`.
+//
+//   k6 run -e GATEWAY_URL=http://localhost:8080 -e USER_ID=1 -e ITEM_ID=1 loadtest/threads.js
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const gatewayUrl = __ENV.GATEWAY_URL || 'http://localhost:8080';
+const headers = { 'X-Sharer-User-Id': __ENV.USER_ID || '1' };
+
+export const options = {
+    scenarios: {
+        open_connections: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: Number(__ENV.VUS || 5000) },
+                { duration: __ENV.DURATION || '2m', target: Number(__ENV.VUS || 5000) },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const response = http.get(`${gatewayUrl}/items/${__ENV.ITEM_ID || 1}`, { headers });
+    check(response, { 'status is 200': (r) => r.status === 200 });
+    sleep(Number(__ENV.THINK_TIME || 0.1));
+}
@@ -0,0 +1,52 @@
+-- Query plans of the booking finders on a seeded dataset.
+--
+-- Usage from the server directory, against a scratch database (NOT the application one):
+--   createdb shareit_bench
+--   psql -d shareit_bench -f src/main/resources/schema.sql -f benchmark/booking-finder-plans.sql
+--
+-- Seeding takes a few minutes; the secondary indexes are dropped before it and recreated
+-- from schema.sql afterwards.
+--
+-- The script seeds 10 000 users, 100 000 items and 5 000 000 bookings, then prints
+-- EXPLAIN ANALYZE for every finder twice: first without secondary indexes
+-- (sequential scans), then with the indexes from schema.sql (index scans).
+
+\timing on
+
+DROP INDEX IF EXISTS idx_item_requests_requester_id, idx_items_owner_id, idx_items_request_id,
+    idx_bookings_booker_start, idx_bookings_booker_status_start, idx_bookings_booker_item,
+    idx_bookings_item_start, idx_bookings_item_status_start, idx_comments_item_id;
+
+INSERT INTO users (email, name)
+SELECT 'user' || n || '@bench.ru', 'user ' || n
+FROM generate_series(1, 10000) AS n;
+
+INSERT INTO items (available, description, name, owner_id)
+SELECT n % 10 <> 0, 'description ' || n, 'item ' || n, 1 + n % 10000
+FROM generate_series(1, 100000) AS n;
+
+INSERT INTO bookings (start_date, end_date, status, booker_id, item_id)
+SELECT start_date, start_date + INTERVAL '2 days',
+       (ARRAY ['WAITING', 'APPROVED', 'REJECTED'])[1 + n % 3],
+       1 + (n * 7) % 10000,
+       1 + (n * 13) % 100000
+FROM (SELECT n, TIMESTAMP '2020-01-01' + (n % 2000) * INTERVAL '1 day' AS start_date
+      FROM generate_series(1, 5000000) AS n) AS seed;
+
+ANALYZE;
+
+\set user_id 4242
+\set item_id 4242
+\set now_date '''2023-06-01'''
+
+\echo '======== Without secondary indexes ========'
+
+\ir booking-finder-queries.sql
+
+\echo '======== With indexes from schema.sql ========'
+
+\ir ../src/main/resources/schema.sql
+
+ANALYZE;
+
+\ir booking-finder-queries.sql
@@ -0,0 +1,60 @@
+-- SQL issued by BookingFinderByBooker / BookingFinderByOwner implementations and the
+-- owner item view, with the default page of 50 sorted by start date.
+
+\echo '--- ALL by booker'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bookings b
+WHERE b.booker_id = :user_id
+ORDER BY b.start_date DESC LIMIT 50;
+
+\echo '--- WAITING / REJECTED / APPROVED by booker'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bookings b
+WHERE b.booker_id = :user_id AND b.status = 'WAITING'
+ORDER BY b.start_date DESC LIMIT 50;
+
+\echo '--- PAST by booker'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bookings b
+WHERE b.booker_id = :user_id AND b.end_date < :now_date
+ORDER BY b.start_date DESC LIMIT 50;
+
+\echo '--- FUTURE by booker'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bookings b
+WHERE b.booker_id = :user_id AND b.start_date > :now_date
+ORDER BY b.start_date DESC LIMIT 50;
+
+\echo '--- ALL by owner'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT b.* FROM bookings b
+JOIN items i ON i.id = b.item_id
+WHERE i.owner_id = :user_id
+ORDER BY b.start_date DESC LIMIT 50;
+
+\echo '--- WAITING by owner'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT b.* FROM bookings b
+JOIN items i ON i.id = b.item_id
+WHERE i.owner_id = :user_id AND b.status = 'WAITING'
+ORDER BY b.start_date DESC LIMIT 50;
+
+\echo '--- CURRENT by owner'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT b.* FROM bookings b
+JOIN items i ON i.id = b.item_id
+WHERE i.owner_id = :user_id AND b.start_date <= :now_date AND b.end_date >= :now_date
+ORDER BY b.start_date DESC LIMIT 50;
+
+\echo '--- Last booking of owner items'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT b.item_id, b.id, b.booker_id, b.start_date, b.end_date FROM bookings b
+WHERE b.item_id IN (SELECT id FROM items WHERE owner_id = :user_id)
+  AND b.status = 'APPROVED'
+  AND b.start_date = (SELECT MAX(lb.start_date) FROM bookings lb
+                      WHERE lb.item_id = b.item_id AND lb.status = 'APPROVED' AND lb.start_date < :now_date);
+
+\echo '--- Comment eligibility (booker + item)'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bookings b
+WHERE b.booker_id = :user_id AND b.item_id = :item_id;
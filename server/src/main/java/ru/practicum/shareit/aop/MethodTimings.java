@@ -0,0 +1,120 @@
+package ru.practicum.shareit.aop;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Duration histograms of the methods traced by {@link TracingAspect}, one per method.
+ * Bucket i counts calls that took less than 2^i microseconds, so recording a call is a few
+ * uncontended counter increments and percentiles are accurate to a factor of two.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.tracing.enabled", havingValue = "true", matchIfMissing = true)
+@ManagedResource(objectName = "ru.practicum.shareit:type=MethodTimings")
+public class MethodTimings {
+    static final int BUCKETS = 32;
+
+    private final Map<Method, Timing> timings = new ConcurrentHashMap<>();
+
+    public void record(Method method, long elapsedNanos) {
+        Timing timing = timings.get(method);
+        if (timing == null) {
+            timing = timings.computeIfAbsent(method, Timing::new);
+        }
+        timing.record(elapsedNanos);
+    }
+
+    public List<Timing> snapshot() {
+        return List.copyOf(timings.values());
+    }
+
+    @ManagedOperation(description = "Call count, mean, p50, p99 and max duration of every traced method")
+    public String[] report() {
+        return timings.values().stream()
+                .sorted(Comparator.comparing((Timing timing) -> timing.totalNanos.sum()).reversed())
+                .map(Timing::toString)
+                .toArray(String[]::new);
+    }
+
+    @ManagedOperation
+    public void reset() {
+        timings.clear();
+    }
+
+    public static class Timing {
+        private final String name;
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private Timing(Method method) {
+            this.name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long elapsedNanos) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+            int bucket = Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+            buckets[bucket].increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulate(elapsedNanos);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        /**
+         * Upper bound of the bucket holding the given percentile of calls, in microseconds.
+         */
+        public long percentileMicros(double percentile) {
+            long count = getCount();
+            long rank = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank && seen > 0) {
+                    return 1L << i;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            long count = getCount();
+            return String.format("%s count=%d mean=%dus p50<%dus p99<%dus max=%dus", name, count,
+                    count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(getTotalNanos() / count),
+                    percentileMicros(50), percentileMicros(99), TimeUnit.NANOSECONDS.toMicros(getMaxNanos()));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.aop;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Array;
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Times every controller and service call into {@link MethodTimings} and logs a sampled share of them
+ * with their arguments. The log line is rendered only for sampled calls and only from primitive-like
+ * values: other arguments are shown by their type, so entities never run their toString on lazy associations.
+ * Log output goes through an asynchronous appender (see logback-spring.xml).
+ * With {@code shareit.tracing.enabled=false} the aspect is not registered at all.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "shareit.tracing.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class TracingAspect {
+    private static final int MAX_VALUE_LENGTH = 64;
+
+    private final MethodTimings methodTimings;
+    private final double sampleRate;
+
+    public TracingAspect(MethodTimings methodTimings,
+                         @Value("${shareit.tracing.sample-rate:0.01}") double sampleRate) {
+        this.methodTimings = methodTimings;
+        this.sampleRate = sampleRate;
+        log.info("Tracing controller and service calls, logging {} of them", sampleRate);
+    }
+
+    @Pointcut("within(@org.springframework.web.bind.annotation.RestController *) " +
+            "|| within(@org.springframework.stereotype.Service *)")
+    public void pointcut() {
+    }
+
+    @Around("pointcut()")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean sampled = sampleRate > 0 && log.isInfoEnabled()
+                && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        long start = System.nanoTime();
+        boolean failed = true;
+
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+            methodTimings.record(signature.getMethod(), elapsedNanos);
+
+            if (sampled) {
+                log.info("{}.{} {} in {} us, arguments: {}", signature.getDeclaringType().getSimpleName(),
+                        signature.getName(), failed ? "failed" : "returned", elapsedNanos / 1000,
+                        new Arguments(joinPoint.getArgs()));
+            }
+        }
+    }
+
+    /**
+     * Renders the arguments when the log line is formatted, not when the call is traced.
+     */
+    private static class Arguments {
+        private final Object[] values;
+
+        private Arguments(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("[");
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                render(builder, values[i]);
+            }
+            return builder.append(']').toString();
+        }
+
+        private static void render(StringBuilder builder, Object value) {
+            if (value == null || value instanceof Number || value instanceof Boolean || value instanceof Enum
+                    || value instanceof Temporal) {
+                builder.append(value);
+            } else if (value instanceof CharSequence) {
+                CharSequence text = (CharSequence) value;
+                builder.append('"').append(text, 0, Math.min(text.length(), MAX_VALUE_LENGTH));
+                builder.append(text.length() > MAX_VALUE_LENGTH ? "...\"" : "\"");
+            } else if (value instanceof Collection) {
+                builder.append(value.getClass().getSimpleName()).append('(').append(((Collection<?>) value).size())
+                        .append(')');
+            } else if (value instanceof Map) {
+                builder.append(value.getClass().getSimpleName()).append('(').append(((Map<?, ?>) value).size())
+                        .append(')');
+            } else if (value.getClass().isArray()) {
+                builder.append(value.getClass().getComponentType().getSimpleName())
+                        .append('[').append(Array.getLength(value)).append(']');
+            } else {
+                builder.append(value.getClass().getSimpleName());
+            }
+        }
+    }
+}
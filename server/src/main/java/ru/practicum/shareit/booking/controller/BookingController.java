@@ -6,11 +6,18 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
+import ru.practicum.shareit.booking.enums.BookingRole;
 import ru.practicum.shareit.booking.enums.State;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.util.ETags;
 
 import java.util.List;
 
@@ -37,31 +44,82 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingOutputDto> getBookingsByBooker(@RequestHeader(USER_ID_HEADER) long userId,
-                                                      @RequestParam(defaultValue = "all") String state,
-                                                      @RequestParam(value = "from", defaultValue = "0") int from,
-                                                      @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) int size,
-                                                      @RequestParam(value = "sort", defaultValue = "start") String sort,
-                                                      @RequestParam(value = "dir", defaultValue = DESC) String dir) {
+    public ResponseEntity<List<BookingOutputDto>> getBookingsByBooker(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                      @RequestParam(defaultValue = "all") String state,
+                                                                      @RequestParam(value = "from", defaultValue = "0") int from,
+                                                                      @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) int size,
+                                                                      @RequestParam(value = "sort", defaultValue = "start") String sort,
+                                                                      @RequestParam(value = "dir", defaultValue = DESC) String dir,
+                                                                      @RequestParam(value = "after", required = false) String after,
+                                                                      WebRequest request) {
+        if (after != null) {
+            List<BookingOutputDto> bookings = bookingService.getBookingsByBookerIdAndState(
+                    userId, State.getEnum(state), BookingCursor.decode(after), size);
+            return notModified(request, BookingRole.BOOKER, userId, bookings) ? null : withNextCursor(bookings, size);
+        }
+
         Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.fromString(dir), sort));
-        return bookingService.getBookingsByBookerIdAndState(userId, State.getEnum(state), pageable);
+        List<BookingOutputDto> bookings = bookingService.getBookingsByBookerIdAndState(
+                userId, State.getEnum(state), pageable);
+        return notModified(request, BookingRole.BOOKER, userId, bookings) ? null : ResponseEntity.ok(bookings);
     }
 
     @GetMapping("/owner")
-    public List<BookingOutputDto> getBookingsByOwner(@RequestHeader(USER_ID_HEADER) long userId,
-                                                     @RequestParam(defaultValue = "all") String state,
-                                                     @RequestParam(value = "from", defaultValue = "0") int from,
-                                                     @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) int size,
-                                                     @RequestParam(value = "sort", defaultValue = "start") String sort,
-                                                     @RequestParam(value = "dir", defaultValue = DESC) String dir) {
+    public ResponseEntity<List<BookingOutputDto>> getBookingsByOwner(@RequestHeader(USER_ID_HEADER) long userId,
+                                                                     @RequestParam(defaultValue = "all") String state,
+                                                                     @RequestParam(value = "from", defaultValue = "0") int from,
+                                                                     @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) int size,
+                                                                     @RequestParam(value = "sort", defaultValue = "start") String sort,
+                                                                     @RequestParam(value = "dir", defaultValue = DESC) String dir,
+                                                                     @RequestParam(value = "after", required = false) String after,
+                                                                     WebRequest request) {
+        if (after != null) {
+            List<BookingOutputDto> bookings = bookingService.getBookingsByOwnerIdAndState(
+                    userId, State.getEnum(state), BookingCursor.decode(after), size);
+            return notModified(request, BookingRole.OWNER, userId, bookings) ? null : withNextCursor(bookings, size);
+        }
+
         Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.fromString(dir), sort));
-        return bookingService.getBookingsByOwnerIdAndState(userId, State.getEnum(state), pageable);
+        List<BookingOutputDto> bookings = bookingService.getBookingsByOwnerIdAndState(
+                userId, State.getEnum(state), pageable);
+        return notModified(request, BookingRole.OWNER, userId, bookings) ? null : ResponseEntity.ok(bookings);
     }
 
+    /**
+     * Names the booked item in a header, so the gateway can drop its cached item without reading the body.
+     */
     @PatchMapping("/{bookingId}")
-    public BookingOutputDto approvedBooking(@RequestHeader(USER_ID_HEADER) long userId,
-                                            @PathVariable long bookingId,
-                                            @RequestParam boolean approved) {
-        return bookingService.changeStatus(userId, bookingId, approved);
+    public ResponseEntity<BookingOutputDto> approvedBooking(@RequestHeader(USER_ID_HEADER) long userId,
+                                                            @PathVariable long bookingId,
+                                                            @RequestParam boolean approved) {
+        BookingOutputDto booking = bookingService.changeStatus(userId, bookingId, approved);
+
+        return ResponseEntity.ok()
+                .header(ITEM_ID_HEADER, String.valueOf(booking.getItem().getId()))
+                .body(booking);
+    }
+
+    @PatchMapping("/batch")
+    public List<BookingStatusChangeResultDto> changeStatuses(@RequestHeader(USER_ID_HEADER) long userId,
+                                                             @RequestBody List<BookingStatusChangeDto> changes) {
+        return bookingService.changeStatuses(userId, changes);
+    }
+
+    /**
+     * Validates against the page being served rather than the user's whole booking history,
+     * so a 304 costs the page queries and nothing more, however deep the page is.
+     */
+    private boolean notModified(WebRequest request, BookingRole role, long userId, List<BookingOutputDto> bookings) {
+        return request.checkNotModified(ETags.of(role, userId, bookings));
+    }
+
+    private ResponseEntity<List<BookingOutputDto>> withNextCursor(List<BookingOutputDto> bookings, int size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, BookingCursor.of(bookings.get(bookings.size() - 1)).encode())
+                .body(bookings);
     }
 }
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.exception.model.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last booking of a page in (start DESC, id DESC) order, passed to clients as an opaque token.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class BookingCursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime start;
+    private final Long id;
+
+    public static BookingCursor of(BookingOutputDto booking) {
+        return new BookingCursor(booking.getStart(), booking.getId());
+    }
+
+    /**
+     * Decodes a token, an empty token stands for the first page.
+     */
+    public static BookingCursor decode(String token) {
+        if (token.isBlank()) {
+            return null;
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = value.lastIndexOf(SEPARATOR);
+
+            return new BookingCursor(
+                    LocalDateTime.parse(value.substring(0, separatorIndex)),
+                    Long.parseLong(value.substring(separatorIndex + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new BadRequestException("Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((start + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
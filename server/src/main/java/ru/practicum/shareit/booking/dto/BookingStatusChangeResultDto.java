@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingStatusChangeResultDto {
+    private Long bookingId;
+    private BookingStatus status;
+    private String error;
+
+    public static BookingStatusChangeResultDto changed(Long bookingId, BookingStatus status) {
+        return new BookingStatusChangeResultDto(bookingId, status, null);
+    }
+
+    public static BookingStatusChangeResultDto failed(Long bookingId, String error) {
+        return new BookingStatusChangeResultDto(bookingId, null, error);
+    }
+}
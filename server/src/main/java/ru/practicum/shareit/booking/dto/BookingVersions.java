@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.util.RowVersions;
+
+/**
+ * {@link RowVersions} of bookings together with how they lie relative to the current time.
+ * Views of bookings depend on the time as well (booking states, last and next bookings of an item),
+ * so a booking starting or ending has to change the fingerprint even though no row changed.
+ */
+public interface BookingVersions extends RowVersions {
+    Long getStartedBefore();
+
+    Long getStartingAfter();
+
+    Long getEndedBefore();
+
+    Long getEndingAfter();
+
+    @Override
+    default String fingerprint() {
+        return RowVersions.super.fingerprint() + ":" + getStartedBefore() + ":" + getStartingAfter()
+                + ":" + getEndedBefore() + ":" + getEndingAfter();
+    }
+}
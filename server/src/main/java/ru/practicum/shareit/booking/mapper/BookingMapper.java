@@ -5,7 +5,10 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.dto.BookingInnerDto;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.dto.ItemBookingDto;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 
 import java.util.Objects;
@@ -27,7 +30,7 @@ public class BookingMapper {
 
         return Optional.of(new BookingOutputDto(
                 booking.getId(),
-                ItemMapper.toItemDtoForOwner(booking.getItem()),
+                ItemMapper.toItemDto(booking.getItem()),
                 UserMapper.toUserDto(booking.getBooker()),
                 booking.getStart(),
                 booking.getEnd(),
@@ -35,6 +38,17 @@ public class BookingMapper {
         ));
     }
 
+    public BookingOutputDto toBookingOutputDto(Booking booking, ItemDto item, UserDto booker) {
+        return new BookingOutputDto(
+                booking.getId(),
+                item,
+                booker,
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getStatus()
+        );
+    }
+
     public Optional<BookingInnerDto> toBookingInnerDto(Booking booking) {
         if (Objects.isNull(booking)) {
             return Optional.empty();
@@ -47,4 +61,13 @@ public class BookingMapper {
                 booking.getEnd()
         ));
     }
+
+    public BookingInnerDto toBookingInnerDto(ItemBookingDto itemBooking) {
+        return new BookingInnerDto(
+                itemBooking.getId(),
+                itemBooking.getBookerId(),
+                itemBooking.getStart(),
+                itemBooking.getEnd()
+        );
+    }
 }
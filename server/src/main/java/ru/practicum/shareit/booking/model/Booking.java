@@ -19,9 +19,13 @@ import java.util.Objects;
 @ToString
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    private long version;
+
     @ManyToOne
     @JoinColumn(name = "item_id")
     private Item item;
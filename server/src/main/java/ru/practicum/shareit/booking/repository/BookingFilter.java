@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.State;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criteria of a booking list query. Only role, userId, state and currentTime are required.
+ */
+@Getter
+@Builder
+@ToString
+public class BookingFilter {
+    private final BookingRole role;
+    private final Long userId;
+    private final State state;
+    private final LocalDateTime currentTime;
+    private final Long itemId;
+    private final LocalDateTime startFrom;
+    private final LocalDateTime startTo;
+}
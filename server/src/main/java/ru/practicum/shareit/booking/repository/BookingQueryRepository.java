@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+
+public interface BookingQueryRepository {
+    List<Booking> findBookings(BookingFilter filter, Pageable pageable);
+
+    List<Booking> findBookings(BookingFilter filter, BookingCursor cursor, int size);
+}
@@ -0,0 +1,187 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.enums.State;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Builds booking list queries from a {@link BookingFilter}.
+ * The JPQL text depends only on the shape of the filter, so it is built once per shape and cached;
+ * identical text lets Hibernate reuse its query plan and the prepared statement.
+ */
+public class BookingQueryRepositoryImpl implements BookingQueryRepository {
+    private static final Map<String, String> SORT_PROPERTIES = Map.of(
+            "id", "b.id",
+            "start", "b.start",
+            "end", "b.end",
+            "status", "b.status",
+            "item.id", "i.id",
+            "booker.id", "u.id"
+    );
+
+    private static final Sort CURSOR_SORT = Sort.by(Sort.Direction.DESC, "start", "id");
+
+    private final Map<QueryShape, String> queries = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Booking> findBookings(BookingFilter filter, Pageable pageable) {
+        QueryShape shape = QueryShape.of(filter, false, pageable.getSort());
+        TypedQuery<Booking> query = createQuery(filter, shape);
+
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        return query.getResultList();
+    }
+
+    @Override
+    public List<Booking> findBookings(BookingFilter filter, BookingCursor cursor, int size) {
+        QueryShape shape = QueryShape.of(filter, cursor != null, CURSOR_SORT);
+        TypedQuery<Booking> query = createQuery(filter, shape);
+
+        if (cursor != null) {
+            query.setParameter("cursorStart", cursor.getStart());
+            query.setParameter("cursorId", cursor.getId());
+        }
+
+        return query.setMaxResults(size).getResultList();
+    }
+
+    private TypedQuery<Booking> createQuery(BookingFilter filter, QueryShape shape) {
+        String jpql = queries.computeIfAbsent(shape, this::buildQuery);
+        TypedQuery<Booking> query = entityManager.createQuery(jpql, Booking.class)
+                .setParameter("userId", filter.getUserId());
+
+        switch (filter.getState()) {
+            case WAITING:
+            case APPROVED:
+            case REJECTED:
+                query.setParameter("status", BookingStatus.valueOf(filter.getState().name()));
+                break;
+            case PAST:
+            case FUTURE:
+            case CURRENT:
+                query.setParameter("currentTime", filter.getCurrentTime());
+                break;
+            default:
+                break;
+        }
+
+        if (shape.isByItem()) {
+            query.setParameter("itemId", filter.getItemId());
+        }
+
+        if (shape.isStartFrom()) {
+            query.setParameter("startFrom", filter.getStartFrom());
+        }
+
+        if (shape.isStartTo()) {
+            query.setParameter("startTo", filter.getStartTo());
+        }
+
+        return query;
+    }
+
+    private String buildQuery(QueryShape shape) {
+        StringBuilder jpql = new StringBuilder("SELECT b FROM Booking b ")
+                .append("JOIN FETCH b.item i ")
+                .append("JOIN FETCH b.booker u ")
+                .append("WHERE ");
+
+        jpql.append(shape.getRole() == BookingRole.BOOKER ? "u.id = :userId" : "i.ownerId = :userId");
+
+        switch (shape.getState()) {
+            case WAITING:
+            case APPROVED:
+            case REJECTED:
+                jpql.append(" AND b.status = :status");
+                break;
+            case PAST:
+                jpql.append(" AND b.end < :currentTime");
+                break;
+            case FUTURE:
+                jpql.append(" AND b.start > :currentTime");
+                break;
+            case CURRENT:
+                jpql.append(" AND b.start <= :currentTime AND b.end >= :currentTime");
+                break;
+            default:
+                break;
+        }
+
+        if (shape.isByItem()) {
+            jpql.append(" AND i.id = :itemId");
+        }
+
+        if (shape.isStartFrom()) {
+            jpql.append(" AND b.start >= :startFrom");
+        }
+
+        if (shape.isStartTo()) {
+            jpql.append(" AND b.start < :startTo");
+        }
+
+        if (shape.isAfterCursor()) {
+            jpql.append(" AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId))");
+        }
+
+        if (shape.getSort().isSorted()) {
+            jpql.append(shape.getSort().stream()
+                    .map(order -> toSortProperty(order.getProperty()) + " " + order.getDirection().name())
+                    .collect(Collectors.joining(", ", " ORDER BY ", "")));
+        }
+
+        return jpql.toString();
+    }
+
+    private static String toSortProperty(String property) {
+        String sortProperty = SORT_PROPERTIES.get(property);
+
+        if (sortProperty == null) {
+            throw new IllegalArgumentException("Unknown sort property: " + property);
+        }
+
+        return sortProperty;
+    }
+
+    @Value
+    private static class QueryShape {
+        BookingRole role;
+        State state;
+        boolean byItem;
+        boolean startFrom;
+        boolean startTo;
+        boolean afterCursor;
+        Sort sort;
+
+        static QueryShape of(BookingFilter filter, boolean afterCursor, Sort sort) {
+            return new QueryShape(
+                    filter.getRole(),
+                    filter.getState(),
+                    filter.getItemId() != null,
+                    filter.getStartFrom() != null,
+                    filter.getStartTo() != null,
+                    afterCursor,
+                    sort
+            );
+        }
+    }
+}
@@ -1,44 +1,118 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingVersions;
+import ru.practicum.shareit.booking.dto.ItemBookingDto;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.schedule.BookingSlot;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByBookerIdAndEndIsBefore(Long bookerId, LocalDateTime date, Pageable pageable);
-
-    List<Booking> findByBookerIdAndStartIsAfter(Long bookerId, LocalDateTime date, Pageable pageable);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueryRepository {
+    List<Booking> findByBookerIdAndItemId(Long bookerId, Long itemId);
 
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.booker.id = :bookerId " +
-            "AND b.start <= current_timestamp " +
-            "AND b.end >= current_timestamp ")
-    List<Booking> findCurrentBookingByBookerId(Long bookerId, Pageable pageable);
+    /**
+     * Moves a waiting booking of the owner's item to the given status in one statement.
+     *
+     * @return 1 if the booking was still waiting and the item belongs to the owner, 0 otherwise
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b " +
+            "SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id = :bookingId " +
+            "AND b.status = ru.practicum.shareit.booking.enums.BookingStatus.WAITING " +
+            "AND b.item.id IN (SELECT i.id FROM Item i WHERE i.ownerId = :ownerId)")
+    int updateStatusIfWaiting(Long bookingId, Long ownerId, BookingStatus status);
 
-    List<Booking> findByBookerId(Long bookerId, Pageable pageable);
+    /**
+     * Loads the bookings with their items and bookers and locks the rows until the end of the transaction.
+     * Rows are locked in id order so that concurrent batches can't deadlock each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b " +
+            "FROM Booking b " +
+            "JOIN FETCH b.item " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.id IN :bookingIds " +
+            "ORDER BY b.id")
+    List<Booking> findAllForUpdateByIdIn(Collection<Long> bookingIds);
 
-    List<Booking> findByBookerIdAndStatus(Long bookerId, BookingStatus status, Pageable pageable);
+    @Query("SELECT new ru.practicum.shareit.booking.dto.ItemBookingDto(b.item.id, b.id, b.booker.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status = ru.practicum.shareit.booking.enums.BookingStatus.APPROVED " +
+            "AND b.start = (SELECT MAX(lb.start) FROM Booking lb " +
+            "WHERE lb.item.id = b.item.id " +
+            "AND lb.status = ru.practicum.shareit.booking.enums.BookingStatus.APPROVED " +
+            "AND lb.start < :date)")
+    List<ItemBookingDto> findLastBookingsByItemIds(Collection<Long> itemIds, LocalDateTime date);
 
-    List<Booking> findByItemOwnerIdAndEndIsBefore(Long ownerId, LocalDateTime date, Pageable pageable);
+    @Query("SELECT new ru.practicum.shareit.booking.dto.ItemBookingDto(b.item.id, b.id, b.booker.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status = ru.practicum.shareit.booking.enums.BookingStatus.APPROVED " +
+            "AND b.start = (SELECT MIN(nb.start) FROM Booking nb " +
+            "WHERE nb.item.id = b.item.id " +
+            "AND nb.status = ru.practicum.shareit.booking.enums.BookingStatus.APPROVED " +
+            "AND nb.start > :date)")
+    List<ItemBookingDto> findNextBookingsByItemIds(Collection<Long> itemIds, LocalDateTime date);
 
-    List<Booking> findByItemOwnerIdAndStartIsAfter(Long ownerId, LocalDateTime date, Pageable pageable);
+    @Query("SELECT new ru.practicum.shareit.booking.schedule.BookingSlot(b.item.id, b.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.status IN (ru.practicum.shareit.booking.enums.BookingStatus.WAITING, " +
+            "ru.practicum.shareit.booking.enums.BookingStatus.APPROVED) " +
+            "AND b.end > :date")
+    List<BookingSlot> findActiveSlotsEndingAfter(LocalDateTime date);
 
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.ownerId = :ownerId " +
-            "AND b.start <= current_timestamp " +
-            "AND b.end >= current_timestamp ")
-    List<Booking> findCurrentBookingByItemOwnerId(Long ownerId, Pageable pageable);
+    @Query("SELECT new ru.practicum.shareit.booking.schedule.BookingSlot(b.item.id, b.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.item.id = :itemId " +
+            "AND b.status IN (ru.practicum.shareit.booking.enums.BookingStatus.WAITING, " +
+            "ru.practicum.shareit.booking.enums.BookingStatus.APPROVED) " +
+            "AND b.start < :to " +
+            "AND b.end > :from " +
+            "ORDER BY b.start, b.id")
+    List<BookingSlot> findActiveSlotsByItemId(Long itemId, LocalDateTime from, LocalDateTime to);
 
-    List<Booking> findByBookerIdAndItemId(Long bookerId, Long itemId);
+    @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END " +
+            "FROM Booking b " +
+            "WHERE b.item.id = :itemId " +
+            "AND b.id <> :bookingId " +
+            "AND b.status IN (ru.practicum.shareit.booking.enums.BookingStatus.WAITING, " +
+            "ru.practicum.shareit.booking.enums.BookingStatus.APPROVED) " +
+            "AND b.start < :end " +
+            "AND b.end > :start")
+    boolean existsOverlapping(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end);
 
-    List<Booking> findByItemOwnerId(Long ownerId, Pageable pageable);
+    /**
+     * Versions of the bookings with their items and bookers, split by the date for the views that depend on time.
+     */
+    @Query("SELECT COUNT(b) AS total, MAX(b.id) AS maxId, " +
+            "SUM(b.version + b.item.version + b.booker.version) AS versionSum, " +
+            "SUM(CASE WHEN b.start < :date THEN 1 ELSE 0 END) AS startedBefore, " +
+            "SUM(CASE WHEN b.start > :date THEN 1 ELSE 0 END) AS startingAfter, " +
+            "SUM(CASE WHEN b.end < :date THEN 1 ELSE 0 END) AS endedBefore, " +
+            "SUM(CASE WHEN b.end > :date THEN 1 ELSE 0 END) AS endingAfter " +
+            "FROM Booking b " +
+            "WHERE b.item.ownerId = :ownerId")
+    BookingVersions findVersionsByItemOwnerId(Long ownerId, LocalDateTime date);
 
-    List<Booking> findByItemOwnerIdAndStatus(Long ownerId, BookingStatus status, Pageable pageable);
+    @Query("SELECT COUNT(b) AS total, MAX(b.id) AS maxId, " +
+            "SUM(b.version + b.item.version + b.booker.version) AS versionSum, " +
+            "SUM(CASE WHEN b.start < :date THEN 1 ELSE 0 END) AS startedBefore, " +
+            "SUM(CASE WHEN b.start > :date THEN 1 ELSE 0 END) AS startingAfter, " +
+            "SUM(CASE WHEN b.end < :date THEN 1 ELSE 0 END) AS endedBefore, " +
+            "SUM(CASE WHEN b.end > :date THEN 1 ELSE 0 END) AS endingAfter " +
+            "FROM Booking b " +
+            "WHERE b.item.id = :itemId")
+    BookingVersions findVersionsByItemId(Long itemId, LocalDateTime date);
 }
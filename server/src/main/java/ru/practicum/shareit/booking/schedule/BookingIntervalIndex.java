@@ -0,0 +1,310 @@
+package ru.practicum.shareit.booking.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-item index of the slots held by waiting and approved bookings, ordered by start.
+ * A window is checked against the slots starting less than the longest slot length before it,
+ * so a lookup costs O(log n) plus the few neighbours it actually overlaps.
+ * Slots that ended are dropped once per sweep interval, so the index holds the bookings ending after the last sweep
+ * rather than the whole booking history.
+ * The index is local to the instance, so it can be disabled when several servers share one database;
+ * the database exclusion constraint on bookings stays the final guard either way.
+ */
+@Component
+@Slf4j
+public class BookingIntervalIndex {
+    private static final Comparator<BookingSlot> BY_START = Comparator.comparing(BookingSlot::getStart)
+            .thenComparing(BookingSlot::getBookingId);
+
+    private final BookingRepository bookingRepository;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Duration sweepInterval;
+
+    private final Map<Long, ItemSchedule> schedules = new ConcurrentHashMap<>();
+    private volatile LocalDateTime horizon;
+    private volatile boolean ready;
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                Clock clock,
+                                @Value("${shareit.booking.interval-index.enabled:true}") boolean enabled,
+                                @Value("${shareit.booking.interval-index.sweep-interval:PT1H}") Duration sweepInterval) {
+        this.bookingRepository = bookingRepository;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.sweepInterval = sweepInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        if (!enabled) {
+            log.info("Booking interval index is disabled, checking overlaps in the database.");
+            return;
+        }
+
+        schedules.clear();
+
+        horizon = LocalDateTime.now(clock);
+        List<BookingSlot> slots = bookingRepository.findActiveSlotsEndingAfter(horizon);
+        slots.forEach(this::put);
+        ready = true;
+
+        log.info("Booking interval index built: {} items, {} slots.", schedules.size(), slots.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized int getSlotCount() {
+        return schedules.values().stream()
+                .mapToInt(schedule -> schedule.slots.size())
+                .sum();
+    }
+
+    /**
+     * Returns the active slots of the item overlapping [from, to), ordered by start.
+     * Bookings finished before the last sweep are not held in memory, so older windows are read from the database.
+     */
+    public List<BookingSlot> findActiveSlots(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!ready || from.isBefore(horizon)) {
+            return bookingRepository.findActiveSlotsByItemId(itemId, from, to);
+        }
+
+        return findOverlapping(itemId, from, to);
+    }
+
+    /**
+     * Holds the slot of a just saved or approved booking unless another active booking overlaps it.
+     * Callers lock the item row first, so the database sees every booking of the item committed before.
+     * The index only skips the database when it has no overlapping slot: a slot it holds may belong to a booking
+     * that was rolled back or removed by a cascade delete, so a conflict is confirmed in the database.
+     * Within a transaction the index is restored if the transaction rolls back.
+     *
+     * @return false if the window is already taken
+     */
+    public boolean tryReserve(BookingSlot slot) {
+        if (!ready) {
+            return !overlapsInDatabase(slot);
+        }
+
+        sweepIfDue();
+
+        List<BookingSlot> conflicts = findOverlapping(slot.getItemId(), slot.getStart(), slot.getEnd());
+        conflicts.removeIf(conflict -> conflict.getBookingId().equals(slot.getBookingId()));
+
+        if (!conflicts.isEmpty() && overlapsInDatabase(slot)) {
+            return false;
+        }
+
+        BookingSlot previous = put(slot);
+        restoreOnRollback(slot, previous);
+
+        return true;
+    }
+
+    /**
+     * Releases the slot of a rejected booking once the transaction commits.
+     */
+    public void release(Long itemId, Long bookingId) {
+        afterCommit(() -> remove(itemId, bookingId));
+    }
+
+    /**
+     * Drops the slots of a deleted item once the transaction commits.
+     */
+    public void removeItem(Long itemId) {
+        afterCommit(() -> removeSchedule(itemId));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void restoreOnRollback(BookingSlot slot, BookingSlot previous) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+
+                if (previous == null) {
+                    remove(slot.getItemId(), slot.getBookingId());
+                } else {
+                    put(previous);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops the slots that ended before now and moves the horizon to now, once per sweep interval.
+     */
+    private synchronized void sweepIfDue() {
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        if (now.isBefore(horizon.plus(sweepInterval))) {
+            return;
+        }
+
+        int swept = 0;
+        Iterator<ItemSchedule> iterator = schedules.values().iterator();
+
+        while (iterator.hasNext()) {
+            ItemSchedule schedule = iterator.next();
+            swept += schedule.removeEndedBefore(now);
+
+            if (schedule.slots.isEmpty()) {
+                iterator.remove();
+            }
+        }
+
+        horizon = now;
+        log.debug("Booking interval index swept: {} ended slots dropped.", swept);
+    }
+
+    private boolean overlapsInDatabase(BookingSlot slot) {
+        return bookingRepository.existsOverlapping(slot.getItemId(), slot.getBookingId(),
+                slot.getStart(), slot.getEnd());
+    }
+
+    private synchronized List<BookingSlot> findOverlapping(Long itemId, LocalDateTime from, LocalDateTime to) {
+        ItemSchedule schedule = schedules.get(itemId);
+        List<BookingSlot> overlapping = new ArrayList<>();
+
+        if (schedule == null) {
+            return overlapping;
+        }
+
+        BookingSlot lower = new BookingSlot(itemId, Long.MAX_VALUE, from.minus(schedule.longest), null);
+        BookingSlot upper = new BookingSlot(itemId, Long.MIN_VALUE, to, null);
+
+        for (BookingSlot slot : schedule.slots.subSet(lower, false, upper, false)) {
+            if (slot.overlaps(from, to)) {
+                overlapping.add(slot);
+            }
+        }
+
+        return overlapping;
+    }
+
+    private synchronized BookingSlot put(BookingSlot slot) {
+        ItemSchedule schedule = schedules.computeIfAbsent(slot.getItemId(), itemId -> new ItemSchedule());
+        BookingSlot previous = schedule.slotsById.put(slot.getBookingId(), slot);
+
+        if (previous != null) {
+            schedule.slots.remove(previous);
+        }
+
+        schedule.slots.add(slot);
+
+        Duration length = Duration.between(slot.getStart(), slot.getEnd());
+        if (length.compareTo(schedule.longest) > 0) {
+            schedule.longest = length;
+        }
+
+        return previous;
+    }
+
+    private synchronized void removeSchedule(Long itemId) {
+        schedules.remove(itemId);
+    }
+
+    private synchronized void remove(Long itemId, Long bookingId) {
+        ItemSchedule schedule = schedules.get(itemId);
+
+        if (schedule == null) {
+            return;
+        }
+
+        BookingSlot slot = schedule.slotsById.remove(bookingId);
+
+        if (slot != null) {
+            schedule.slots.remove(slot);
+
+            if (Duration.between(slot.getStart(), slot.getEnd()).equals(schedule.longest)) {
+                schedule.updateLongest();
+            }
+        }
+
+        if (schedule.slots.isEmpty()) {
+            schedules.remove(itemId);
+        }
+    }
+
+    private static class ItemSchedule {
+        private final NavigableSet<BookingSlot> slots = new TreeSet<>(BY_START);
+        private final Map<Long, BookingSlot> slotsById = new HashMap<>();
+        private Duration longest = Duration.ZERO;
+
+        /**
+         * Removes the slots ending at or before the time; only slots starting before it can have ended.
+         */
+        private int removeEndedBefore(LocalDateTime time) {
+            int removed = 0;
+            Iterator<BookingSlot> started = slots.headSet(new BookingSlot(null, Long.MIN_VALUE, time, null), false)
+                    .iterator();
+
+            while (started.hasNext()) {
+                BookingSlot slot = started.next();
+
+                if (!slot.getEnd().isAfter(time)) {
+                    started.remove();
+                    slotsById.remove(slot.getBookingId());
+                    removed++;
+                }
+            }
+
+            if (removed > 0) {
+                updateLongest();
+            }
+
+            return removed;
+        }
+
+        private void updateLongest() {
+            longest = slots.stream()
+                    .map(slot -> Duration.between(slot.getStart(), slot.getEnd()))
+                    .max(Comparator.naturalOrder())
+                    .orElse(Duration.ZERO);
+        }
+    }
+}
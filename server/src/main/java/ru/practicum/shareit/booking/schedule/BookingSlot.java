@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.schedule;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time an item is held by a waiting or approved booking, as the half-open interval [start, end).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSlot {
+    private Long itemId;
+    private Long bookingId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return start.isBefore(to) && end.isAfter(from);
+    }
+}
@@ -1,8 +1,11 @@
 package ru.practicum.shareit.booking.service;
 
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
 import ru.practicum.shareit.booking.enums.State;
 
 import java.util.List;
@@ -14,7 +17,13 @@ public interface BookingService {
 
     List<BookingOutputDto> getBookingsByBookerIdAndState(Long bookerId, State state, Pageable pageable);
 
+    List<BookingOutputDto> getBookingsByBookerIdAndState(Long bookerId, State state, BookingCursor cursor, int size);
+
     List<BookingOutputDto> getBookingsByOwnerIdAndState(Long ownerId, State state, Pageable pageable);
 
+    List<BookingOutputDto> getBookingsByOwnerIdAndState(Long ownerId, State state, BookingCursor cursor, int size);
+
     BookingOutputDto changeStatus(Long userId, Long bookingId, Boolean approved);
+
+    List<BookingStatusChangeResultDto> changeStatuses(Long userId, List<BookingStatusChangeDto> changes);
 }
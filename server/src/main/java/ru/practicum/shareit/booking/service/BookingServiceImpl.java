@@ -1,62 +1,66 @@
 package ru.practicum.shareit.booking.service;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
+import ru.practicum.shareit.booking.enums.BookingRole;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.enums.State;
-import ru.practicum.shareit.booking.finder.booker.BookingFinderByBooker;
-import ru.practicum.shareit.booking.finder.owner.BookingFinderByOwner;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingFilter;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingIntervalIndex;
+import ru.practicum.shareit.booking.schedule.BookingSlot;
 import ru.practicum.shareit.exception.model.BadRequestException;
 import ru.practicum.shareit.exception.model.NotFountException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.RequestClock;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
+    private final UserCache userCache;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
-    private final Map<State, BookingFinderByBooker> bookingFinderByBooker;
-    private final Map<State, BookingFinderByOwner> bookingFinderByOwner;
-
-    public BookingServiceImpl(BookingRepository bookingRepository,
-                              UserRepository userRepository,
-                              ItemRepository itemRepository,
-                              List<BookingFinderByBooker> bookingFinderByBooker,
-                              List<BookingFinderByOwner> bookingFinderByOwner) {
-        this.bookingRepository = bookingRepository;
-        this.userRepository = userRepository;
-        this.itemRepository = itemRepository;
-        this.bookingFinderByBooker = bookingFinderByBooker.stream()
-                .collect(Collectors.toMap(BookingFinderByBooker::getState, Function.identity()));
-        this.bookingFinderByOwner = bookingFinderByOwner.stream()
-                .collect(Collectors.toMap(BookingFinderByOwner::getState, Function.identity()));
-    }
+    private final CommentRepository commentRepository;
+    private final RequestClock requestClock;
+    private final BookingIntervalIndex bookingIntervalIndex;
 
     @Override
     @Transactional
     public BookingOutputDto createBooking(BookingInputDto bookingDto, Long userId) {
         Long itemId = bookingDto.getItemId();
 
-        User booker = userRepository.findById(userId)
+        UserDto booker = userCache.findById(userId)
                 .orElseThrow(() -> new NotFountException("User with id = " + userId + " not found."));
 
-        Item item = itemRepository.findById(itemId)
+        Item item = itemRepository.findForUpdateById(itemId)
                 .orElseThrow(() -> new NotFountException("Item with id = " + itemId + " not found."));
 
         if (!item.getAvailable()) {
@@ -68,10 +72,19 @@ public class BookingServiceImpl implements BookingService {
         }
 
         Booking booking = BookingMapper.toBooking(bookingDto);
-        updateFields(booker, item, booking);
-        booking = bookingRepository.save(booking);
+        updateFields(userRepository.getReferenceById(userId), item, booking);
+        bookingRepository.save(booking);
+        reserve(itemId, booking);
 
-        return BookingMapper.toBookingOutputDto(booking).orElse(null);
+        return BookingMapper.toBookingOutputDto(booking, ItemMapper.toItemDto(item, List.of()), booker);
+    }
+
+    private void reserve(Long itemId, Booking booking) {
+        BookingSlot slot = new BookingSlot(itemId, booking.getId(), booking.getStart(), booking.getEnd());
+
+        if (!bookingIntervalIndex.tryReserve(slot)) {
+            throw new BadRequestException("Item with id = " + itemId + " is already booked for this time.");
+        }
     }
 
     private void updateFields(User booker, Item item, Booking booking) {
@@ -86,7 +99,7 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFountException("Booking with id = " + bookingId + " not found."));
 
-        if (!userRepository.existsById(userId)) {
+        if (!userCache.existsById(userId)) {
             throw new NotFountException("User with id = " + userId + " not found.");
         }
 
@@ -101,53 +114,183 @@ public class BookingServiceImpl implements BookingService {
     @Override
     @Transactional(readOnly = true)
     public List<BookingOutputDto> getBookingsByBookerIdAndState(Long bookerId, State state, Pageable pageable) {
-        if (!userRepository.existsById(bookerId)) {
+        if (!userCache.existsById(bookerId)) {
             throw new NotFountException("User with id = " + bookerId + " not found.");
         }
 
-        return bookingFinderByBooker.get(state).findBooking(bookerId, pageable)
-                .stream()
-                .map(BookingMapper::toBookingOutputDto)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toList());
+        return toBookingOutputDtos(
+                bookingRepository.findBookings(filter(BookingRole.BOOKER, bookerId, state), pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingOutputDto> getBookingsByBookerIdAndState(Long bookerId, State state,
+                                                                BookingCursor cursor, int size) {
+        if (!userCache.existsById(bookerId)) {
+            throw new NotFountException("User with id = " + bookerId + " not found.");
+        }
+
+        return toBookingOutputDtos(
+                bookingRepository.findBookings(filter(BookingRole.BOOKER, bookerId, state), cursor, size));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<BookingOutputDto> getBookingsByOwnerIdAndState(Long ownerId, State state, Pageable pageable) {
-        if (!userRepository.existsById(ownerId)) {
+        if (!userCache.existsById(ownerId)) {
             throw new NotFountException("User with id = " + ownerId + " not found.");
         }
 
-        return bookingFinderByOwner.get(state).findBooking(ownerId, pageable)
-                .stream()
-                .map(BookingMapper::toBookingOutputDto)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
+        return toBookingOutputDtos(
+                bookingRepository.findBookings(filter(BookingRole.OWNER, ownerId, state), pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingOutputDto> getBookingsByOwnerIdAndState(Long ownerId, State state,
+                                                               BookingCursor cursor, int size) {
+        if (!userCache.existsById(ownerId)) {
+            throw new NotFountException("User with id = " + ownerId + " not found.");
+        }
+
+        return toBookingOutputDtos(
+                bookingRepository.findBookings(filter(BookingRole.OWNER, ownerId, state), cursor, size));
+    }
+
+    /**
+     * Maps bookings loading the comments of all their items in one query instead of one query per item.
+     */
+    private List<BookingOutputDto> toBookingOutputDtos(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> itemIds = bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+
+        Map<Long, List<CommentDto>> comments = CommentMapper.toCommentDtosByItemId(
+                commentRepository.findByItemIdIn(itemIds));
+
+        return bookings.stream()
+                .map(booking -> BookingMapper.toBookingOutputDto(booking,
+                        ItemMapper.toItemDto(booking.getItem(),
+                                comments.getOrDefault(booking.getItem().getId(), List.of())),
+                        UserMapper.toUserDto(booking.getBooker())))
                 .collect(Collectors.toList());
     }
 
+    private BookingFilter filter(BookingRole role, Long userId, State state) {
+        return BookingFilter.builder()
+                .role(role)
+                .userId(userId)
+                .state(state)
+                .currentTime(requestClock.now())
+                .build();
+    }
+
     @Override
     @Transactional
     public BookingOutputDto changeStatus(Long userId, Long bookingId, Boolean approved) {
-        User user = userRepository.findById(userId).orElseThrow(
-                () -> new NotFountException("User with id = " + userId + " not found."));
+        if (!userCache.existsById(userId)) {
+            throw new NotFountException("User with id = " + userId + " not found.");
+        }
+
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+
+        if (bookingRepository.updateStatusIfWaiting(bookingId, userId, status) == 0) {
+            throw statusNotChanged(userId, bookingId);
+        }
 
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFountException("Booking with id = " + bookingId + " not found."));
 
+        if (approved) {
+            reserve(booking.getItem().getId(), booking);
+        } else {
+            bookingIntervalIndex.release(booking.getItem().getId(), bookingId);
+        }
+
+        return BookingMapper.toBookingOutputDto(booking).orElse(null);
+    }
+
+    /**
+     * Reads the booking the compare-and-set left untouched to tell why it wasn't changed.
+     */
+    private RuntimeException statusNotChanged(Long userId, Long bookingId) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new NotFountException("Booking with id = " + bookingId + " not found."));
+
+        if (booking.getStatus() == BookingStatus.WAITING && !Objects.equals(booking.getItem().getOwnerId(), userId)) {
+            return new NotFountException("Booking status can only be changed by item's owner.");
+        }
+
+        return new BadRequestException("Booking status can only be changed from waiting status.");
+    }
+
+    @Override
+    @Transactional
+    public List<BookingStatusChangeResultDto> changeStatuses(Long userId, List<BookingStatusChangeDto> changes) {
+        if (!userCache.existsById(userId)) {
+            throw new NotFountException("User with id = " + userId + " not found.");
+        }
+
+        Set<Long> bookingIds = changes.stream()
+                .map(BookingStatusChangeDto::getBookingId)
+                .collect(Collectors.toSet());
+
+        Map<Long, Booking> bookings = bookingRepository.findAllForUpdateByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        Set<Long> processedIds = new HashSet<>();
+
+        return changes.stream()
+                .map(change -> changeStatus(userId, change, bookings, processedIds))
+                .collect(Collectors.toList());
+    }
+
+    private BookingStatusChangeResultDto changeStatus(Long userId,
+                                                      BookingStatusChangeDto change,
+                                                      Map<Long, Booking> bookings,
+                                                      Set<Long> processedIds) {
+        Long bookingId = change.getBookingId();
+        Booking booking = bookings.get(bookingId);
+
+        if (booking == null) {
+            return BookingStatusChangeResultDto.failed(bookingId, "Booking with id = " + bookingId + " not found.");
+        }
+
+        if (!processedIds.add(bookingId)) {
+            return BookingStatusChangeResultDto.failed(bookingId,
+                    "Booking with id = " + bookingId + " is repeated in the request.");
+        }
+
         if (booking.getStatus() != BookingStatus.WAITING) {
-            throw new BadRequestException("Booking status can only be changed from waiting status.");
+            return BookingStatusChangeResultDto.failed(bookingId,
+                    "Booking status can only be changed from waiting status.");
         }
 
-        if (!Objects.equals(booking.getItem().getOwnerId(), user.getId())) {
-            throw new NotFountException("Booking status can only be changed by item's owner.");
+        if (!Objects.equals(booking.getItem().getOwnerId(), userId)) {
+            return BookingStatusChangeResultDto.failed(bookingId,
+                    "Booking status can only be changed by item's owner.");
         }
 
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        bookingRepository.save(booking);
+        Long itemId = booking.getItem().getId();
 
-        return BookingMapper.toBookingOutputDto(booking).orElse(null);
+        if (change.getApproved()) {
+            BookingSlot slot = new BookingSlot(itemId, bookingId, booking.getStart(), booking.getEnd());
+
+            if (!bookingIntervalIndex.tryReserve(slot)) {
+                return BookingStatusChangeResultDto.failed(bookingId,
+                        "Item with id = " + itemId + " is already booked for this time.");
+            }
+
+            booking.setStatus(BookingStatus.APPROVED);
+        } else {
+            booking.setStatus(BookingStatus.REJECTED);
+            bookingIntervalIndex.release(itemId, bookingId);
+        }
+
+        return BookingStatusChangeResultDto.changed(bookingId, booking.getStatus());
     }
 }
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Tomcat request handling and Spring's application task executor on virtual threads
+ * when {@code shareit.threads.virtual=true}.
+ * The project is compiled for Java 11, so the executor is looked up reflectively and startup fails
+ * if the runtime is older than Java 21.
+ * <p>
+ * Request threads of the server mostly wait on JDBC, and the gateway waits on its calls to the server, so both
+ * modules need this class. They are separate Spring Boot applications with no shared module, so the
+ * class is duplicated like their DTOs; keep both copies in sync.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.threads.virtual", havingValue = "true")
+@Slf4j
+public class VirtualThreadsConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        log.info("Tomcat requests are handled on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor());
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(
+                    "shareit.threads.virtual=true requires Java 21 or later, running on " + Runtime.version(), e);
+        }
+    }
+}
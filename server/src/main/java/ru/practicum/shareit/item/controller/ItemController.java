@@ -4,12 +4,20 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static ru.practicum.shareit.util.Constant.*;
@@ -19,6 +27,7 @@ import static ru.practicum.shareit.util.Constant.*;
 @RequiredArgsConstructor
 public class ItemController {
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -27,6 +36,12 @@ public class ItemController {
         return itemService.createItem(itemDto, userId);
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ItemImportResultDto importItems(@RequestHeader(USER_ID_HEADER) long userId,
+                                           InputStream body) {
+        return itemImportService.importItems(userId, body);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto createComment(@RequestHeader(USER_ID_HEADER) long userId,
                                     @PathVariable long itemId,
@@ -39,14 +54,24 @@ public class ItemController {
                                           @RequestParam(value = "from", defaultValue = "0") int from,
                                           @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) int size,
                                           @RequestParam(value = "sort", defaultValue = "id") String sort,
-                                          @RequestParam(value = "dir", defaultValue = ASC) String dir) {
+                                          @RequestParam(value = "dir", defaultValue = ASC) String dir,
+                                          WebRequest request) {
+        if (request.checkNotModified(itemService.getItemsByOwnerIdETag(userId))) {
+            return null;
+        }
+
         Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.fromString(dir), sort));
         return itemService.getItemsByOwnerId(userId, pageable);
     }
 
     @GetMapping("/{itemId}")
     public ItemDto getItemById(@RequestHeader(USER_ID_HEADER) long userId,
-                               @PathVariable long itemId) {
+                               @PathVariable long itemId,
+                               WebRequest request) {
+        if (request.checkNotModified(itemService.getItemByIdETag(userId, itemId))) {
+            return null;
+        }
+
         return itemService.getItemById(userId, itemId);
     }
 
@@ -60,6 +85,14 @@ public class ItemController {
         return itemService.getItemsByText(text, pageable);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getItemAvailability(@RequestHeader(USER_ID_HEADER) long userId,
+                                                   @PathVariable long itemId,
+                                                   @RequestParam @DateTimeFormat(pattern = DATE_TIME_PATTERN) LocalDateTime from,
+                                                   @RequestParam @DateTimeFormat(pattern = DATE_TIME_PATTERN) LocalDateTime to) {
+        return itemService.getItemAvailability(userId, itemId, from, to);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItemById(@PathVariable long itemId,
                                   @RequestHeader(USER_ID_HEADER) long userId,
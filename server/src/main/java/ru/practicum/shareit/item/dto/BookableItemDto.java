@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Item columns needed to validate and answer a booking request, without its bookings and comments.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookableItemDto {
+    private Long id;
+    private String name;
+    private String description;
+    private Boolean available;
+    private Long ownerId;
+    private Long requestId;
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static ru.practicum.shareit.util.Constant.DATE_TIME_PATTERN;
+
+/**
+ * Busy and free intervals of an item within [from, to). Busy intervals are merged, free ones are the gaps between them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAvailabilityDto {
+    private Long itemId;
+    private Boolean available;
+    @JsonFormat(pattern = DATE_TIME_PATTERN)
+    private LocalDateTime from;
+    @JsonFormat(pattern = DATE_TIME_PATTERN)
+    private LocalDateTime to;
+    private List<TimeIntervalDto> busy;
+    private List<TimeIntervalDto> free;
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+import static ru.practicum.shareit.util.Constant.DATE_TIME_PATTERN;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeIntervalDto {
+    @JsonFormat(pattern = DATE_TIME_PATTERN)
+    private LocalDateTime start;
+    @JsonFormat(pattern = DATE_TIME_PATTERN)
+    private LocalDateTime end;
+}
@@ -4,6 +4,11 @@ import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @UtilityClass
 public class CommentMapper {
     public Comment toComment(CommentDto commentDto) {
@@ -15,11 +20,28 @@ public class CommentMapper {
     }
 
     public CommentDto toCommentDto(Comment comment) {
+        return toCommentDto(comment, comment.getAuthor().getName());
+    }
+
+    /**
+     * Maps a comment whose author is known by name only, without loading the author.
+     */
+    public CommentDto toCommentDto(Comment comment, String authorName) {
         return new CommentDto(
                 comment.getId(),
                 comment.getText(),
-                comment.getAuthor().getName(),
+                authorName,
                 comment.getCreated()
         );
     }
+
+    /**
+     * Groups the comments by item, each item's comments in id order whatever order the query returned them in.
+     */
+    public Map<Long, List<CommentDto>> toCommentDtosByItemId(List<Comment> comments) {
+        return comments.stream()
+                .sorted(Comparator.comparing(Comment::getId))
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+    }
 }
@@ -1,14 +1,12 @@
 package ru.practicum.shareit.item.mapper;
 
 import lombok.experimental.UtilityClass;
-import ru.practicum.shareit.booking.enums.BookingStatus;
-import ru.practicum.shareit.booking.mapper.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingInnerDto;
+import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 
-import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @UtilityClass
@@ -39,29 +37,32 @@ public class ItemMapper {
         );
     }
 
-    public ItemDto toItemDtoForOwner(Item item) {
+    public ItemDto toItemDto(Item item, List<CommentDto> comments) {
         return new ItemDto(
                 item.getId(),
                 item.getName(),
                 item.getDescription(),
                 item.getAvailable(),
                 item.getRequestId(),
-                item.getBookings() == null ? null :
-                        BookingMapper.toBookingInnerDto(item.getBookings().stream()
-                                        .filter(booking -> booking.getStart().isBefore(LocalDateTime.now())
-                                                && booking.getStatus() == BookingStatus.APPROVED)
-                                        .max(Comparator.comparing(Booking::getStart)).orElse(null))
-                                .orElse(null),
-                item.getBookings() == null ? null :
-                        BookingMapper.toBookingInnerDto(item.getBookings().stream()
-                                        .filter(booking -> booking.getStart().isAfter(LocalDateTime.now())
-                                                && booking.getStatus() == BookingStatus.APPROVED)
-                                        .min(Comparator.comparing(Booking::getStart)).orElse(null))
-                                .orElse(null),
-                item.getComments() == null ? null :
-                        item.getComments().stream()
-                                .map(CommentMapper::toCommentDto)
-                                .collect(Collectors.toList())
+                null,
+                null,
+                comments
+        );
+    }
+
+    public ItemDto toItemDtoForOwner(Item item,
+                                     BookingInnerDto lastBooking,
+                                     BookingInnerDto nextBooking,
+                                     List<CommentDto> comments) {
+        return new ItemDto(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getAvailable(),
+                item.getRequestId(),
+                lastBooking,
+                nextBooking,
+                comments
         );
     }
 }
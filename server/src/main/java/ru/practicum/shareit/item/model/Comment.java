@@ -17,9 +17,13 @@ import java.util.Objects;
 @AllArgsConstructor
 public class Comment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_seq")
+    @SequenceGenerator(name = "comments_seq", sequenceName = "comments_seq", allocationSize = 50)
     Long id;
 
+    @Version
+    long version;
+
     String text;
 
     @ManyToOne
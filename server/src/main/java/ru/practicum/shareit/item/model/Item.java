@@ -18,9 +18,13 @@ import java.util.Objects;
 @Builder
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    private long version;
+
     private String name;
 
     private String description;
@@ -33,8 +37,9 @@ public class Item {
     @Column(name = "request_id")
     private Long requestId;
 
-    @OneToMany(fetch = FetchType.EAGER)
+    @OneToMany
     @JoinColumn(name = "item_id")
+    @ToString.Exclude
     private List<Booking> bookings;
 
     @OneToMany
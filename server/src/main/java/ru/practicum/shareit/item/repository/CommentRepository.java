@@ -1,9 +1,39 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.util.RowVersions;
+
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @Query("SELECT c " +
+            "FROM Comment c " +
+            "JOIN FETCH c.author " +
+            "WHERE c.item.id IN :itemIds")
+    List<Comment> findByItemIdIn(Collection<Long> itemIds);
+
+    @Query("SELECT COUNT(c) AS total, MAX(c.id) AS maxId, SUM(c.version + c.author.version) AS versionSum " +
+            "FROM Comment c " +
+            "WHERE c.item.ownerId = :ownerId")
+    RowVersions findVersionsByItemOwnerId(Long ownerId);
+
+    @Query("SELECT COUNT(c) AS total, MAX(c.id) AS maxId, SUM(c.version + c.author.version) AS versionSum " +
+            "FROM Comment c " +
+            "WHERE c.item.id = :itemId")
+    RowVersions findVersionsByItemId(Long itemId);
+
+    @Query("SELECT COUNT(c) AS total, MAX(c.id) AS maxId, SUM(c.version + c.author.version) AS versionSum " +
+            "FROM Comment c " +
+            "WHERE c.item.requestId = :requestId")
+    RowVersions findVersionsByRequestId(Long requestId);
+
+    @Query("SELECT COUNT(c) AS total, MAX(c.id) AS maxId, SUM(c.version + c.author.version) AS versionSum " +
+            "FROM Comment c " +
+            "WHERE c.item.requestId IN (SELECT r.id FROM ItemRequest r WHERE r.requesterId = :requesterId)")
+    RowVersions findVersionsByRequesterId(Long requesterId);
 }
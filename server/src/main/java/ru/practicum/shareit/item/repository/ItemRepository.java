@@ -1,21 +1,96 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.BookableItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.util.RowVersions;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
     @Query("SELECT i " +
             "FROM Item i " +
-            "WHERE UPPER(i.name) LIKE(UPPER(CONCAT('%', :name, '%'))) " +
-            "OR UPPER(i.description) LIKE(UPPER(CONCAT('%', :description, '%'))) " +
+            "WHERE (UPPER(i.name) LIKE(UPPER(CONCAT('%', :name, '%'))) " +
+            "OR UPPER(i.description) LIKE(UPPER(CONCAT('%', :description, '%')))) " +
             "AND i.available = true")
     List<Item> findByNameAndDescription(String name, String description, Pageable pageable);
 
+    @Query(value = "SELECT * " +
+            "FROM items i " +
+            "WHERE (i.name ILIKE CONCAT('%', :text, '%') " +
+            "OR i.description ILIKE CONCAT('%', :text, '%')) " +
+            "AND i.available = true",
+            nativeQuery = true)
+    List<Item> findByTextTrigram(String text, Pageable pageable);
+
+    @Query(value = "SELECT * " +
+            "FROM items i " +
+            "WHERE (i.name || ' ' || i.description) ~* :pattern " +
+            "AND i.available = true",
+            nativeQuery = true)
+    List<Item> findByTextPattern(String pattern, Pageable pageable);
+
+    @Query("SELECT i " +
+            "FROM Item i " +
+            "WHERE FUNCTION('REGEXP_LIKE', CONCAT(i.name, ' ', i.description), :pattern) = true " +
+            "AND i.available = true")
+    List<Item> findByTextRegexp(String pattern, Pageable pageable);
+
     List<Item> findByOwnerId(Long userId, Pageable pageable);
+
+    @Query("SELECT i.id " +
+            "FROM Item i " +
+            "WHERE i.ownerId = :ownerId")
+    List<Long> findIdsByOwnerId(Long ownerId);
+
+    List<Item> findByIdInAndAvailableTrue(Collection<Long> ids, Pageable pageable);
+
+    List<Item> findByIdInAndAvailableTrue(Collection<Long> ids, Sort sort);
+
+    List<Item> findByRequestIdIn(Collection<Long> requestIds);
+
+    /**
+     * Loads the item and locks its row until the end of the transaction, so that bookings of one item
+     * are checked for overlaps one at a time and each check sees the bookings committed before it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i " +
+            "FROM Item i " +
+            "WHERE i.id = :itemId")
+    Optional<Item> findForUpdateById(Long itemId);
+
+    @Query("SELECT new ru.practicum.shareit.item.dto.BookableItemDto(" +
+            "i.id, i.name, i.description, i.available, i.ownerId, i.requestId) " +
+            "FROM Item i " +
+            "WHERE i.id = :itemId")
+    Optional<BookableItemDto> findBookableItemById(Long itemId);
+
+    @Query("SELECT COUNT(i) AS total, MAX(i.id) AS maxId, SUM(i.version) AS versionSum " +
+            "FROM Item i " +
+            "WHERE i.ownerId = :ownerId")
+    RowVersions findVersionsByOwnerId(Long ownerId);
+
+    @Query("SELECT COUNT(i) AS total, MAX(i.id) AS maxId, SUM(i.version) AS versionSum " +
+            "FROM Item i " +
+            "WHERE i.id = :itemId")
+    RowVersions findVersionsById(Long itemId);
+
+    @Query("SELECT COUNT(i) AS total, MAX(i.id) AS maxId, SUM(i.version) AS versionSum " +
+            "FROM Item i " +
+            "WHERE i.requestId = :requestId")
+    RowVersions findVersionsByRequestId(Long requestId);
+
+    @Query("SELECT COUNT(i) AS total, MAX(i.id) AS maxId, SUM(i.version) AS versionSum " +
+            "FROM Item i " +
+            "WHERE i.requestId IN (SELECT r.id FROM ItemRequest r WHERE r.requesterId = :requesterId)")
+    RowVersions findVersionsByRequesterId(Long requesterId);
 }
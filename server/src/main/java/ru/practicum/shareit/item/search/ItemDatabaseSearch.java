@@ -0,0 +1,60 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Searches items in the database. On PostgreSQL the query is served by pg_trgm GIN indexes,
+ * other databases fall back to the portable JPQL query.
+ * Word prefix searches match the same items as {@link ItemSearchIndex} and are written as a regular expression
+ * in the flavour of the database: POSIX classes on PostgreSQL, Java regular expressions on H2.
+ */
+@Component
+@Transactional(readOnly = true)
+public class ItemDatabaseSearch {
+    private final ItemRepository itemRepository;
+    private final boolean trigramSupported;
+
+    public ItemDatabaseSearch(ItemRepository itemRepository,
+                              @Value("${spring.jpa.properties.hibernate.dialect:}") String dialect) {
+        this.itemRepository = itemRepository;
+        this.trigramSupported = dialect.contains("PostgreSQL");
+    }
+
+    public List<Item> search(String text, Pageable pageable) {
+        if (trigramSupported) {
+            return itemRepository.findByTextTrigram(text, pageable);
+        }
+
+        return itemRepository.findByNameAndDescription(text, text, pageable);
+    }
+
+    /**
+     * Returns available items that contain every word of the text as a word prefix.
+     */
+    public List<Item> searchByWordPrefix(String text, Pageable pageable) {
+        Set<String> keywords = ItemSearchIndex.tokenize(text);
+
+        if (trigramSupported) {
+            return itemRepository.findByTextPattern(wordPrefixPattern(keywords, "[^[:alnum:]]"), pageable);
+        }
+
+        return itemRepository.findByTextRegexp("(?siu)" + wordPrefixPattern(keywords, "[^\\p{L}\\p{Nd}]"), pageable);
+    }
+
+    private static String wordPrefixPattern(Set<String> keywords, String separator) {
+        // keywords are made of letters and digits only, so they need no escaping
+        return keywords.stream()
+                .sorted()
+                .map(keyword -> "(?=.*(^|" + separator + ")" + keyword + ")")
+                .collect(Collectors.joining("", "^", ""));
+    }
+}
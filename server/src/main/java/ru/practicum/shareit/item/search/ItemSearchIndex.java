@@ -0,0 +1,187 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over the name and description of available items.
+ * Tokens are case-folded words; every search keyword matches tokens it is a prefix of.
+ * The index is local to the instance, so it can be disabled when several servers share one database.
+ */
+@Component
+@Slf4j
+public class ItemSearchIndex {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final int maxCandidates;
+
+    private final NavigableMap<String, Set<Long>> itemIdsByToken = new ConcurrentSkipListMap<>();
+    private final Map<Long, Set<String>> tokensByItemId = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.search.index.enabled:true}") boolean enabled,
+                           @Value("${shareit.search.index.max-candidates:1000}") int maxCandidates) {
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+        this.maxCandidates = maxCandidates;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        if (!enabled) {
+            log.info("Item search index is disabled, searching in the database.");
+            return;
+        }
+
+        itemIdsByToken.clear();
+        tokensByItemId.clear();
+
+        // the rebuild runs in its own read-only transaction, so the items are put without waiting for a commit
+        itemRepository.findAll().forEach(item -> put(item.getId(), tokensOf(item)));
+        ready = true;
+
+        log.info("Item search index built: {} items, {} tokens.", tokensByItemId.size(), itemIdsByToken.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Largest number of search results that may be handed over to the database as one IN list.
+     */
+    public int getMaxCandidates() {
+        return maxCandidates;
+    }
+
+    /**
+     * Indexes the item as it is now once the transaction commits, or right away outside of a transaction.
+     */
+    public void index(Item item) {
+        if (!enabled) {
+            return;
+        }
+
+        Long itemId = item.getId();
+        Set<String> tokens = tokensOf(item);
+
+        afterCommit(() -> put(itemId, tokens));
+    }
+
+    /**
+     * Drops the item once the transaction commits, or right away outside of a transaction.
+     */
+    public void remove(Long itemId) {
+        afterCommit(() -> delete(itemId));
+    }
+
+    /**
+     * Returns ids of available items that contain every word of the text as a word prefix.
+     */
+    public Set<Long> search(String text) {
+        Set<Long> result = null;
+
+        for (String keyword : tokenize(text)) {
+            Set<Long> matches = new HashSet<>();
+            itemIdsByToken.subMap(keyword, true, keyword + Character.MAX_VALUE, true)
+                    .values()
+                    .forEach(matches::addAll);
+
+            if (result == null) {
+                result = matches;
+            } else {
+                result.retainAll(matches);
+            }
+
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+
+        return result == null ? Set.of() : result;
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private synchronized void put(Long itemId, Set<String> tokens) {
+        delete(itemId);
+
+        if (tokens.isEmpty()) {
+            return;
+        }
+
+        tokensByItemId.put(itemId, tokens);
+        tokens.forEach(token -> itemIdsByToken.computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet())
+                .add(itemId));
+    }
+
+    private synchronized void delete(Long itemId) {
+        Set<String> tokens = tokensByItemId.remove(itemId);
+
+        if (tokens == null) {
+            return;
+        }
+
+        tokens.forEach(token -> itemIdsByToken.computeIfPresent(token, (key, itemIds) -> {
+            itemIds.remove(itemId);
+            return itemIds.isEmpty() ? null : itemIds;
+        }));
+    }
+
+    private Set<String> tokensOf(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return Set.of();
+        }
+
+        return tokenize(item.getName() + " " + item.getDescription());
+    }
+
+    /**
+     * Splits the text into case-folded words, the way both item texts and search keywords are indexed.
+     */
+    static Set<String> tokenize(String text) {
+        if (Objects.isNull(text)) {
+            return Set.of();
+        }
+
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,179 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.exception.model.BadRequestException;
+import ru.practicum.shareit.exception.model.NotFountException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports items from a JSON array or newline-delimited JSON body without reading it into memory.
+ * Records are saved in batches, each in its own transaction, so a failed batch doesn't undo the earlier ones.
+ * Records are numbered from 1 in the order they appear in the body.
+ */
+@Service
+@Slf4j
+public class ItemImportServiceImpl implements ItemImportService {
+    // name and description are VARCHAR(255); a longer value would fail its whole batch at insert time
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final ItemService itemService;
+    private final ItemRequestRepository itemRequestRepository;
+    private final UserCache userCache;
+    private final ObjectReader itemReader;
+    private final int batchSize;
+
+    public ItemImportServiceImpl(ItemService itemService,
+                                 ItemRequestRepository itemRequestRepository,
+                                 UserCache userCache,
+                                 ObjectMapper objectMapper,
+                                 @Value("${shareit.items.import.batch-size:500}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Import batch size must be positive.");
+        }
+
+        this.itemService = itemService;
+        this.itemRequestRepository = itemRequestRepository;
+        this.userCache = userCache;
+        this.itemReader = objectMapper.readerFor(ItemDto.class);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public ItemImportResultDto importItems(Long userId, InputStream body) {
+        if (!userCache.existsById(userId)) {
+            throw new NotFountException("User with id = " + userId + " not found.");
+        }
+
+        ItemImportResultDto result = new ItemImportResultDto(0, new ArrayList<>());
+        List<ImportRecord> batch = new ArrayList<>(batchSize);
+        long recordNumber = 0;
+
+        try (MappingIterator<ItemDto> records = itemReader.readValues(body)) {
+            while (records.hasNextValue()) {
+                recordNumber++;
+
+                ItemDto itemDto;
+                try {
+                    itemDto = records.nextValue();
+                } catch (JsonProcessingException e) {
+                    result.getErrors().add(new ItemImportErrorDto(recordNumber, e.getOriginalMessage()));
+                    continue;
+                }
+
+                String error = validate(itemDto);
+                if (error != null) {
+                    result.getErrors().add(new ItemImportErrorDto(recordNumber, error));
+                    continue;
+                }
+
+                batch.add(new ImportRecord(recordNumber, itemDto));
+
+                if (batch.size() == batchSize) {
+                    saveBatch(userId, batch, result);
+                    batch.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            result.getErrors().add(new ItemImportErrorDto(recordNumber, "Malformed body: " + e.getOriginalMessage()));
+        } catch (IOException e) {
+            throw new BadRequestException("Failed to read import body: " + e.getMessage());
+        }
+
+        if (!batch.isEmpty()) {
+            saveBatch(userId, batch, result);
+        }
+
+        return result;
+    }
+
+    private void saveBatch(Long userId, List<ImportRecord> batch, ItemImportResultDto result) {
+        Set<Long> requestIds = batch.stream()
+                .map(record -> record.item.getRequestId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Set<Long> existingRequestIds = requestIds.isEmpty() ? Set.of() : itemRequestRepository.findExistingIds(requestIds);
+
+        List<ImportRecord> accepted = new ArrayList<>(batch.size());
+        for (ImportRecord record : batch) {
+            Long requestId = record.item.getRequestId();
+
+            if (requestId != null && !existingRequestIds.contains(requestId)) {
+                result.getErrors().add(new ItemImportErrorDto(record.number,
+                        "Request with id = " + requestId + " not found."));
+            } else {
+                accepted.add(record);
+            }
+        }
+
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            itemService.createItems(accepted.stream().map(record -> record.item).collect(Collectors.toList()), userId);
+            result.setCreated(result.getCreated() + accepted.size());
+        } catch (DataAccessException e) {
+            log.warn("Failed to import batch of {} items: {}", accepted.size(), e.getMessage());
+            accepted.forEach(record -> result.getErrors().add(new ItemImportErrorDto(record.number,
+                    "Batch failed: " + e.getMostSpecificCause().getMessage())));
+        }
+    }
+
+    private String validate(ItemDto itemDto) {
+        if (itemDto == null) {
+            return "Item must not be null.";
+        }
+
+        if (itemDto.getName() == null || itemDto.getName().isBlank()) {
+            return "name: must not be blank";
+        }
+
+        if (itemDto.getDescription() == null || itemDto.getDescription().isBlank()) {
+            return "description: must not be blank";
+        }
+
+        if (itemDto.getName().length() > MAX_TEXT_LENGTH) {
+            return "name: size must be between 1 and " + MAX_TEXT_LENGTH;
+        }
+
+        if (itemDto.getDescription().length() > MAX_TEXT_LENGTH) {
+            return "description: size must be between 1 and " + MAX_TEXT_LENGTH;
+        }
+
+        if (itemDto.getAvailable() == null) {
+            return "available: must not be null";
+        }
+
+        return null;
+    }
+
+    private static class ImportRecord {
+        private final long number;
+        private final ItemDto item;
+
+        private ImportRecord(long number, ItemDto item) {
+            this.number = number;
+            this.item = item;
+        }
+    }
+}
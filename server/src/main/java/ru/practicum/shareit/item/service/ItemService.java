@@ -2,17 +2,31 @@ package ru.practicum.shareit.item.service;
 
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
     ItemDto createItem(ItemDto itemDto, Long userId);
 
+    List<ItemDto> createItems(List<ItemDto> itemDtos, Long userId);
+
     ItemDto getItemById(Long userId, Long itemId);
 
+    /**
+     * ETag of {@link #getItemById}, or null if the item doesn't exist.
+     */
+    String getItemByIdETag(Long userId, Long itemId);
+
     List<ItemDto> getItemsByOwnerId(Long userId, Pageable pageable);
 
+    /**
+     * ETag of {@link #getItemsByOwnerId} for every page.
+     */
+    String getItemsByOwnerIdETag(Long userId);
+
     List<ItemDto> getItemsByText(String text, Pageable pageable);
 
     ItemDto updateItemById(Long itemId, ItemDto itemDto, Long userId);
@@ -20,4 +34,6 @@ public interface ItemService {
     void deleteItemById(Long itemId, Long userId);
 
     CommentDto createComment(CommentDto commentDto, Long itemId, Long authorId);
+
+    ItemAvailabilityDto getItemAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to);
 }
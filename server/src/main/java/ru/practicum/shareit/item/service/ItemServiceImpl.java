@@ -2,28 +2,47 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingInnerDto;
+import ru.practicum.shareit.booking.dto.ItemBookingDto;
 import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingIntervalIndex;
+import ru.practicum.shareit.booking.schedule.BookingSlot;
 import ru.practicum.shareit.exception.model.BadRequestException;
 import ru.practicum.shareit.exception.model.ForbiddenException;
 import ru.practicum.shareit.exception.model.NotFountException;
+import ru.practicum.shareit.item.dto.BookableItemDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.TimeIntervalDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.item.search.ItemDatabaseSearch;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.ETags;
+import ru.practicum.shareit.util.RequestClock;
+import ru.practicum.shareit.util.RowVersions;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,13 +50,18 @@ import java.util.stream.Collectors;
 public class ItemServiceImpl implements ItemService {
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
+    private final UserCache userCache;
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemDatabaseSearch itemDatabaseSearch;
+    private final RequestClock requestClock;
+    private final BookingIntervalIndex bookingIntervalIndex;
 
     @Override
     @Transactional
     public ItemDto createItem(ItemDto itemDto, Long userId) {
-        if (!userRepository.existsById(userId)) {
+        if (!userCache.existsById(userId)) {
             throw new NotFountException("User with id = " + userId + " not found.");
         }
 
@@ -45,8 +69,32 @@ public class ItemServiceImpl implements ItemService {
         item.setOwnerId(userId);
 
         item = itemRepository.save(item);
+        itemSearchIndex.index(item);
 
-        return ItemMapper.toItemDtoForOwner(item);
+        return ItemMapper.toItemDto(item);
+    }
+
+    @Override
+    @Transactional
+    public List<ItemDto> createItems(List<ItemDto> itemDtos, Long userId) {
+        if (!userCache.existsById(userId)) {
+            throw new NotFountException("User with id = " + userId + " not found.");
+        }
+
+        List<Item> items = new ArrayList<>(itemDtos.size());
+        for (ItemDto itemDto : itemDtos) {
+            Item item = ItemMapper.toItem(itemDto);
+            item.setId(null);
+            item.setOwnerId(userId);
+            items.add(item);
+        }
+
+        items = itemRepository.saveAll(items);
+        items.forEach(itemSearchIndex::index);
+
+        return items.stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -56,20 +104,40 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new NotFountException("Item with id = " + itemId + " not found."));
 
         if (item.getOwnerId().equals(userId)) {
-            return ItemMapper.toItemDtoForOwner(item);
+            return toItemDtosForOwner(List.of(item), requestClock.now()).get(0);
         }
 
         return ItemMapper.toItemDto(item);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String getItemByIdETag(Long userId, Long itemId) {
+        RowVersions item = itemRepository.findVersionsById(itemId);
+
+        if (item.getTotal() == 0) {
+            return null;
+        }
+
+        // the owner sees bookings the others don't, so the tag is per user
+        return ETags.of(userId, item,
+                bookingRepository.findVersionsByItemId(itemId, requestClock.now()),
+                commentRepository.findVersionsByItemId(itemId));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ItemDto> getItemsByOwnerId(Long userId, Pageable pageable) {
-        return itemRepository.findByOwnerId(userId, pageable)
-                .stream()
-                .map(ItemMapper::toItemDtoForOwner)
-                .collect(Collectors.toList());
+        return toItemDtosForOwner(itemRepository.findByOwnerId(userId, pageable), requestClock.now());
+    }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String getItemsByOwnerIdETag(Long userId) {
+        return ETags.of(userId,
+                itemRepository.findVersionsByOwnerId(userId),
+                bookingRepository.findVersionsByItemOwnerId(userId, requestClock.now()),
+                commentRepository.findVersionsByItemOwnerId(userId));
     }
 
     @Override
@@ -79,9 +147,54 @@ public class ItemServiceImpl implements ItemService {
             return List.of();
         }
 
-        return itemRepository.findByNameAndDescription(keyword, keyword, pageable)
-                .stream()
-                .map(ItemMapper::toItemDto)
+        if (!itemSearchIndex.isReady()) {
+            return toItemDtos(itemDatabaseSearch.search(keyword, pageable));
+        }
+
+        Set<Long> itemIds = itemSearchIndex.search(keyword);
+
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+
+        Sort.Order idOrder = pageable.getSort().getOrderFor("id");
+
+        if (idOrder != null && pageable.getSort().stream().count() == 1) {
+            // the page can be cut in the index, so only its ids are sent to the database
+            List<Long> pageIds = itemIds.stream()
+                    .sorted(idOrder.isAscending() ? Comparator.naturalOrder() : Comparator.reverseOrder())
+                    .skip(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .collect(Collectors.toList());
+
+            if (pageIds.isEmpty()) {
+                return List.of();
+            }
+
+            return toItemDtos(itemRepository.findByIdInAndAvailableTrue(pageIds, pageable.getSort()));
+        }
+
+        if (itemIds.size() > itemSearchIndex.getMaxCandidates()) {
+            // a short prefix matches most of the catalog, too many ids for one IN list
+            return toItemDtos(itemDatabaseSearch.searchByWordPrefix(keyword, pageable));
+        }
+
+        return toItemDtos(itemRepository.findByIdInAndAvailableTrue(itemIds, pageable));
+    }
+
+    /**
+     * Maps items loading all their comments in one query instead of one query per item.
+     */
+    private List<ItemDto> toItemDtos(List<Item> items) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<CommentDto>> comments = CommentMapper.toCommentDtosByItemId(
+                commentRepository.findByItemIdIn(items.stream().map(Item::getId).collect(Collectors.toSet())));
+
+        return items.stream()
+                .map(item -> ItemMapper.toItemDto(item, comments.getOrDefault(item.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
@@ -91,7 +204,7 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFountException("Item with id = " + itemId + " not found."));
 
-        if (!userRepository.existsById(userId)) {
+        if (!userCache.existsById(userId)) {
             throw new NotFountException("User with id = " + userId + " not found.");
         }
 
@@ -105,8 +218,9 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) item.setAvailable(itemDto.getAvailable());
 
         itemRepository.save(item);
+        itemSearchIndex.index(item);
 
-        return ItemMapper.toItemDtoForOwner(item);
+        return toItemDtosForOwner(List.of(item), requestClock.now()).get(0);
     }
 
     @Override
@@ -115,7 +229,7 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFountException("Item with id = " + itemId + " not found."));
 
-        if (!userRepository.existsById(userId)) {
+        if (!userCache.existsById(userId)) {
             throw new NotFountException("User with id = " + userId + " not found.");
         }
 
@@ -125,16 +239,18 @@ public class ItemServiceImpl implements ItemService {
         }
 
         itemRepository.deleteById(itemId);
+        itemSearchIndex.remove(itemId);
+        bookingIntervalIndex.removeItem(itemId);
     }
 
     @Override
     @Transactional
     public CommentDto createComment(CommentDto commentDto, Long itemId, Long authorId) {
-        LocalDateTime currentTime = LocalDateTime.now();
+        LocalDateTime currentTime = requestClock.now();
         Comment comment = CommentMapper.toComment(commentDto);
         comment.setCreated(currentTime);
 
-        User author = userRepository.findById(authorId).orElseThrow(
+        UserDto author = userCache.findById(authorId).orElseThrow(
                 () -> new NotFountException("User with id = " + authorId + " not found."));
 
         Item item = itemRepository.findById(itemId)
@@ -149,9 +265,98 @@ public class ItemServiceImpl implements ItemService {
             throw new BadRequestException("User with id = " + authorId + " did not rent this item.");
         }
 
-        comment.setAuthor(author);
+        comment.setAuthor(userRepository.getReferenceById(authorId));
         comment.setItem(item);
 
-        return CommentMapper.toCommentDto(commentRepository.save(comment));
+        return CommentMapper.toCommentDto(commentRepository.save(comment), author.getName());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemAvailabilityDto getItemAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("Parameter from must be before to.");
+        }
+
+        if (!userCache.existsById(userId)) {
+            throw new NotFountException("User with id = " + userId + " not found.");
+        }
+
+        BookableItemDto item = itemRepository.findBookableItemById(itemId)
+                .orElseThrow(() -> new NotFountException("Item with id = " + itemId + " not found."));
+
+        List<TimeIntervalDto> busy = mergeSlots(bookingIntervalIndex.findActiveSlots(itemId, from, to), from, to);
+        List<TimeIntervalDto> free = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+
+        for (TimeIntervalDto interval : busy) {
+            if (freeFrom.isBefore(interval.getStart())) {
+                free.add(new TimeIntervalDto(freeFrom, interval.getStart()));
+            }
+
+            freeFrom = interval.getEnd();
+        }
+
+        if (freeFrom.isBefore(to)) {
+            free.add(new TimeIntervalDto(freeFrom, to));
+        }
+
+        return new ItemAvailabilityDto(itemId, item.getAvailable(), from, to, busy, free);
+    }
+
+    /**
+     * Clips slots ordered by start to [from, to) and joins the ones that overlap or touch.
+     */
+    private List<TimeIntervalDto> mergeSlots(List<BookingSlot> slots, LocalDateTime from, LocalDateTime to) {
+        List<TimeIntervalDto> merged = new ArrayList<>();
+        TimeIntervalDto current = null;
+
+        for (BookingSlot slot : slots) {
+            LocalDateTime start = slot.getStart().isBefore(from) ? from : slot.getStart();
+            LocalDateTime end = slot.getEnd().isAfter(to) ? to : slot.getEnd();
+
+            if (current != null && !start.isAfter(current.getEnd())) {
+                if (end.isAfter(current.getEnd())) {
+                    current.setEnd(end);
+                }
+                continue;
+            }
+
+            current = new TimeIntervalDto(start, end);
+            merged.add(current);
+        }
+
+        return merged;
+    }
+
+    private List<ItemDto> toItemDtosForOwner(List<Item> items, LocalDateTime currentTime) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toSet());
+
+        Map<Long, BookingInnerDto> lastBookings = bookingRepository.findLastBookingsByItemIds(itemIds, currentTime)
+                .stream()
+                .collect(Collectors.toMap(ItemBookingDto::getItemId, BookingMapper::toBookingInnerDto,
+                        (first, second) -> first));
+
+        Map<Long, BookingInnerDto> nextBookings = bookingRepository.findNextBookingsByItemIds(itemIds, currentTime)
+                .stream()
+                .collect(Collectors.toMap(ItemBookingDto::getItemId, BookingMapper::toBookingInnerDto,
+                        (first, second) -> first));
+
+        Map<Long, List<CommentDto>> comments = CommentMapper.toCommentDtosByItemId(
+                commentRepository.findByItemIdIn(itemIds));
+
+        return items.stream()
+                .map(item -> ItemMapper.toItemDtoForOwner(
+                        item,
+                        lastBookings.get(item.getId()),
+                        nextBookings.get(item.getId()),
+                        comments.getOrDefault(item.getId(), List.of())))
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Request metrics on top of the actuator's: http.server.requests gets a handler tag naming the controller method,
+ * and every request records its SQL statement count (see {@link StatementCountInterceptor}).
+ * Without a meter registry, as in web slice tests, no interceptor is added.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public MetricsConfig(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        meterRegistry.ifAvailable(meters -> registry.addInterceptor(new StatementCountInterceptor(meters)));
+    }
+
+    @Bean
+    public WebMvcTagsContributor handlerTagsContributor() {
+        return new WebMvcTagsContributor() {
+            @Override
+            public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                         Throwable exception) {
+                return Tags.of("handler", StatementCountInterceptor.handlerName(handler));
+            }
+
+            @Override
+            public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+                return Tags.of("handler", StatementCountInterceptor.handlerName(handler));
+            }
+        };
+    }
+}
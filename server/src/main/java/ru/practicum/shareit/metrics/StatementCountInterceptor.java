@@ -0,0 +1,53 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Records how many SQL statements each request ran, per controller method, to expose N+1 queries.
+ * The count covers lazy loading while the response is written, because the session stays open until then.
+ */
+public class StatementCountInterceptor implements HandlerInterceptor {
+    static final String METRIC_NAME = "hibernate.statements.per.request";
+
+    private final MeterRegistry meterRegistry;
+
+    public StatementCountInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StatementCounter.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        DistributionSummary.builder(METRIC_NAME)
+                .description("SQL statements prepared while handling a request")
+                .baseUnit("statements")
+                .tag("handler", handlerName(handler))
+                .serviceLevelObjectives(1, 2, 3, 5, 10, 20, 50, 100)
+                .register(meterRegistry)
+                .record(StatementCounter.count());
+    }
+
+    /**
+     * Controller method handling the request, e.g. BookingController.getBookings.
+     */
+    static String handlerName(Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return "none";
+        }
+
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+    }
+}
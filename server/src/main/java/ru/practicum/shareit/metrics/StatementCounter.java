@@ -0,0 +1,26 @@
+package ru.practicum.shareit.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ * Registered through {@code hibernate.session_factory.statement_inspector}, so Hibernate creates the instance itself
+ * and the count lives in a thread local shared by all instances.
+ */
+public class StatementCounter implements StatementInspector {
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static long count() {
+        return COUNT.get()[0];
+    }
+}
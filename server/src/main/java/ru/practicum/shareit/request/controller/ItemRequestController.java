@@ -7,9 +7,11 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestInputDto;
 import ru.practicum.shareit.request.dto.ItemRequestOutputDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.util.ETags;
 
 import java.util.List;
 
@@ -33,7 +35,12 @@ public class ItemRequestController {
     @GetMapping
     public List<ItemRequestOutputDto> getRequests(@RequestHeader(USER_ID_HEADER) long userId,
                                                   @RequestParam(value = "sort", defaultValue = "created") String sort,
-                                                  @RequestParam(value = "dir", defaultValue = DESC) String dir) {
+                                                  @RequestParam(value = "dir", defaultValue = DESC) String dir,
+                                                  WebRequest request) {
+        if (request.checkNotModified(itemRequestService.getRequestsByRequesterIdETag(userId))) {
+            return null;
+        }
+
         return itemRequestService.getRequestsByRequesterId(userId, sort, Sort.Direction.fromString(dir));
     }
 
@@ -42,14 +49,27 @@ public class ItemRequestController {
                                                        @RequestParam(value = "from", defaultValue = "0") int from,
                                                        @RequestParam(value = "size", defaultValue = DEFAULT_NUMBER_ELEMENT_PER_PAGE) int size,
                                                        @RequestParam(value = "sort", defaultValue = "created") String sort,
-                                                       @RequestParam(value = "dir", defaultValue = DESC) String dir) {
+                                                       @RequestParam(value = "dir", defaultValue = DESC) String dir,
+                                                       WebRequest request) {
         Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.fromString(dir), sort));
-        return itemRequestService.getOtherRequests(userId, pageable);
+        List<ItemRequestOutputDto> requests = itemRequestService.getOtherRequests(userId, pageable);
+
+        // validated against the page served, other users' requests as a whole are too many to fingerprint
+        if (request.checkNotModified(ETags.of(userId, requests))) {
+            return null;
+        }
+
+        return requests;
     }
 
     @GetMapping("/{requestId}")
     public ItemRequestOutputDto getRequest(@RequestHeader(USER_ID_HEADER) long userId,
-                                           @PathVariable long requestId) {
+                                           @PathVariable long requestId,
+                                           WebRequest request) {
+        if (request.checkNotModified(itemRequestService.getRequestByIdETag(requestId, userId))) {
+            return null;
+        }
+
         return itemRequestService.getRequestById(requestId, userId);
     }
 }
@@ -1,12 +1,14 @@
 package ru.practicum.shareit.request.mapper;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.request.dto.ItemRequestInputDto;
 import ru.practicum.shareit.request.dto.ItemRequestOutputDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @UtilityClass
@@ -23,11 +25,20 @@ public class ItemRequestMapper {
         );
     }
 
-    public ItemRequest toItemRequest(ItemRequestInputDto itemRequestInputDto, Long requesterId) {
+    public ItemRequestOutputDto toDto(ItemRequest itemRequest, List<ItemDto> items) {
+        return new ItemRequestOutputDto(
+                itemRequest.getId(),
+                itemRequest.getDescription(),
+                itemRequest.getCreated(),
+                items
+        );
+    }
+
+    public ItemRequest toItemRequest(ItemRequestInputDto itemRequestInputDto, Long requesterId, LocalDateTime created) {
         return ItemRequest.builder()
                 .requesterId(requesterId)
                 .description(itemRequestInputDto.getDescription())
-                .created(LocalDateTime.now())
+                .created(created)
                 .build();
     }
 }
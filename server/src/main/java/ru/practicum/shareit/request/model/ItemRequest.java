@@ -18,9 +18,13 @@ import java.util.Objects;
 @AllArgsConstructor
 public class ItemRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_requests_seq")
+    @SequenceGenerator(name = "item_requests_seq", sequenceName = "item_requests_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    private long version;
+
     @Column(name = "requester_id")
     private Long requesterId;
 
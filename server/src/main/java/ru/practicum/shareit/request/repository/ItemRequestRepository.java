@@ -3,14 +3,31 @@ package ru.practicum.shareit.request.repository;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.util.RowVersions;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findByRequesterId(Long requesterId, Sort sort);
 
     List<ItemRequest> findByRequesterIdNot(Long requesterId, Pageable pageable);
+
+    @Query("SELECT r.id FROM ItemRequest r WHERE r.id IN :requestIds")
+    Set<Long> findExistingIds(Collection<Long> requestIds);
+
+    @Query("SELECT COUNT(r) AS total, MAX(r.id) AS maxId, SUM(r.version) AS versionSum " +
+            "FROM ItemRequest r " +
+            "WHERE r.requesterId = :requesterId")
+    RowVersions findVersionsByRequesterId(Long requesterId);
+
+    @Query("SELECT COUNT(r) AS total, MAX(r.id) AS maxId, SUM(r.version) AS versionSum " +
+            "FROM ItemRequest r " +
+            "WHERE r.id = :requestId")
+    RowVersions findVersionsById(Long requestId);
 }
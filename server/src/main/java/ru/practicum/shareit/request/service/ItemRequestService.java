@@ -12,7 +12,17 @@ public interface ItemRequestService {
 
     List<ItemRequestOutputDto> getRequestsByRequesterId(Long requesterId, String param, Sort.Direction sort);
 
+    /**
+     * ETag of {@link #getRequestsByRequesterId}, or null if the user doesn't exist.
+     */
+    String getRequestsByRequesterIdETag(Long requesterId);
+
     List<ItemRequestOutputDto> getOtherRequests(Long userId, Pageable pageable);
 
     ItemRequestOutputDto getRequestById(Long requestId, Long userId);
+
+    /**
+     * ETag of {@link #getRequestById}, or null if the user or the request doesn't exist.
+     */
+    String getRequestByIdETag(Long requestId, Long userId);
 }
@@ -6,30 +6,46 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.model.NotFountException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestInputDto;
 import ru.practicum.shareit.request.dto.ItemRequestOutputDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.util.ETags;
+import ru.practicum.shareit.util.RequestClock;
+import ru.practicum.shareit.util.RowVersions;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
-    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final UserCache userCache;
+    private final RequestClock requestClock;
 
     @Override
     @Transactional
     public ItemRequestOutputDto createRequest(ItemRequestInputDto requestDto, Long requesterId) {
-        if (!userRepository.existsById(requesterId)) {
+        if (!userCache.existsById(requesterId)) {
             throw new NotFountException("User with id = " + requesterId + " not found.");
         }
 
-        ItemRequest itemRequest = ItemRequestMapper.toItemRequest(requestDto, requesterId);
+        ItemRequest itemRequest = ItemRequestMapper.toItemRequest(requestDto, requesterId, requestClock.now());
         itemRequest = itemRequestRepository.save(itemRequest);
 
         return ItemRequestMapper.toDto(itemRequest);
@@ -38,39 +54,94 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Override
     @Transactional(readOnly = true)
     public List<ItemRequestOutputDto> getRequestsByRequesterId(Long requesterId, String param, Sort.Direction sort) {
-        if (!userRepository.existsById(requesterId)) {
+        if (!userCache.existsById(requesterId)) {
             throw new NotFountException("User with id = " + requesterId + " not found.");
         }
 
-        return itemRequestRepository.findByRequesterId(requesterId, Sort.by(sort, param))
-                .stream()
-                .map(ItemRequestMapper::toDto)
-                .collect(Collectors.toList());
+        return toDtos(itemRequestRepository.findByRequesterId(requesterId, Sort.by(sort, param)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getRequestsByRequesterIdETag(Long requesterId) {
+        if (!userCache.existsById(requesterId)) {
+            return null;
+        }
+
+        return ETags.of(requesterId,
+                itemRequestRepository.findVersionsByRequesterId(requesterId),
+                itemRepository.findVersionsByRequesterId(requesterId),
+                commentRepository.findVersionsByRequesterId(requesterId));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ItemRequestOutputDto> getOtherRequests(Long userId, Pageable pageable) {
-        if (!userRepository.existsById(userId)) {
+        if (!userCache.existsById(userId)) {
             throw new NotFountException("User with id = " + userId + " not found.");
         }
 
-        return itemRequestRepository.findByRequesterIdNot(userId, pageable)
-                .stream()
-                .map(ItemRequestMapper::toDto)
-                .collect(Collectors.toList());
+        return toDtos(itemRequestRepository.findByRequesterIdNot(userId, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public ItemRequestOutputDto getRequestById(Long requestId, Long userId) {
-        if (!userRepository.existsById(userId)) {
+        if (!userCache.existsById(userId)) {
             throw new NotFountException("User with id = " + userId + " not found.");
         }
 
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFountException("Request with id = " + requestId + " not found."));
 
-        return ItemRequestMapper.toDto(itemRequest);
+        return toDtos(List.of(itemRequest)).get(0);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getRequestByIdETag(Long requestId, Long userId) {
+        if (!userCache.existsById(userId)) {
+            return null;
+        }
+
+        RowVersions request = itemRequestRepository.findVersionsById(requestId);
+
+        if (request.getTotal() == 0) {
+            return null;
+        }
+
+        return ETags.of(userId, request,
+                itemRepository.findVersionsByRequestId(requestId),
+                commentRepository.findVersionsByRequestId(requestId));
+    }
+
+    /**
+     * Maps requests loading their items and the items' comments in two queries
+     * instead of one query per request and one per item.
+     */
+    private List<ItemRequestOutputDto> toDtos(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> requestIds = itemRequests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toSet());
+
+        List<Item> items = itemRepository.findByRequestIdIn(requestIds);
+
+        Map<Long, List<CommentDto>> comments = items.isEmpty() ? Map.of() : CommentMapper.toCommentDtosByItemId(
+                commentRepository.findByItemIdIn(items.stream().map(Item::getId).collect(Collectors.toSet())));
+
+        Map<Long, List<ItemDto>> itemsByRequestId = items.stream()
+                .sorted(Comparator.comparing(Item::getId))
+                .collect(Collectors.groupingBy(Item::getRequestId, Collectors.mapping(
+                        item -> ItemMapper.toItemDto(item, comments.getOrDefault(item.getId(), List.of())),
+                        Collectors.toList())));
+
+        return itemRequests.stream()
+                .map(itemRequest -> ItemRequestMapper.toDto(itemRequest,
+                        itemsByRequestId.getOrDefault(itemRequest.getId(), List.of())))
+                .collect(Collectors.toList());
     }
 }
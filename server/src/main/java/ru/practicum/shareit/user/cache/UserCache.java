@@ -0,0 +1,192 @@
+package ru.practicum.shareit.user.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Read-through cache in front of {@link UserRepository} for lookups by id.
+ * Holds immutable {@link UserDto} snapshots rather than entities, since the entries are shared by every
+ * thread and session; a caller that needs the user as an association takes {@link UserRepository#getReferenceById}.
+ * Holds at most maxSize users in LRU order, entries expire after ttl.
+ * Unknown ids are cached as well, for the shorter negativeTtl.
+ * Writers of users must call {@link #evict(Long)}.
+ * Counters and size are exported over JMX and as users.cache.* meters.
+ */
+@Component
+@ManagedResource(objectName = "ru.practicum.shareit:type=UserCache")
+public class UserCache implements MeterBinder {
+    private final UserRepository userRepository;
+    private final Clock clock;
+    private final int maxSize;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final Map<Long, Entry> entries;
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UserCache(UserRepository userRepository,
+                     Clock clock,
+                     @Value("${shareit.cache.users.max-size:10000}") int maxSize,
+                     @Value("${shareit.cache.users.ttl:PT5M}") Duration ttl,
+                     @Value("${shareit.cache.users.negative-ttl:PT30S}") Duration negativeTtl) {
+        this.userRepository = userRepository;
+        this.clock = clock;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public Optional<UserDto> findById(Long userId) {
+        Instant now = clock.instant();
+        long loadGeneration;
+
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+
+            if (entry != null && entry.expiresAt.isAfter(now)) {
+                hits.increment();
+                return entry.user;
+            }
+
+            if (entry != null) {
+                entries.remove(userId);
+                evictions.increment();
+            }
+
+            loadGeneration = generation;
+        }
+
+        misses.increment();
+        Optional<UserDto> user = userRepository.findById(userId).map(UserMapper::toUserDto);
+
+        synchronized (entries) {
+            // an invalidation during the load means the loaded value may already be stale
+            if (loadGeneration == generation) {
+                store(userId, user, now);
+            }
+        }
+
+        return user;
+    }
+
+    public boolean existsById(Long userId) {
+        return findById(userId).isPresent();
+    }
+
+    /**
+     * Evicts the user now and, inside a transaction, once more after commit,
+     * so a concurrent read of the not yet committed row does not stay cached.
+     */
+    public void evict(Long userId) {
+        remove(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(userId);
+                }
+            });
+        }
+    }
+
+    @ManagedOperation
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    @ManagedAttribute
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @ManagedAttribute
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @ManagedAttribute
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @ManagedAttribute
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "hit", UserCache::getHitCount);
+        counter(registry, "miss", UserCache::getMissCount);
+        FunctionCounter.builder("users.cache.evictions", this, UserCache::getEvictionCount)
+                .register(registry);
+        Gauge.builder("users.cache.size", this, UserCache::getSize)
+                .register(registry);
+    }
+
+    private void counter(MeterRegistry registry, String result, ToDoubleFunction<UserCache> count) {
+        FunctionCounter.builder("users.cache.gets", this, count)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private void remove(Long userId) {
+        synchronized (entries) {
+            generation++;
+            entries.remove(userId);
+        }
+    }
+
+    private void store(Long userId, Optional<UserDto> user, Instant now) {
+        entries.put(userId, new Entry(user, now.plus(user.isPresent() ? ttl : negativeTtl)));
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxSize) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static class Entry {
+        private final Optional<UserDto> user;
+        private final Instant expiresAt;
+
+        private Entry(Optional<UserDto> user, Instant expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -15,8 +15,11 @@ import java.util.Objects;
 @ToString
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
+    @Version
+    private long version;
     private String name;
     @Column(unique = true)
     private String email;
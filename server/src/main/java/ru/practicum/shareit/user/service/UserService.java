@@ -9,6 +9,11 @@ public interface UserService {
 
     UserDto getUserById(Long userId);
 
+    /**
+     * ETag of {@link #getUserById}, or null if the user doesn't exist.
+     */
+    String getUserByIdETag(Long userId);
+
     List<UserDto> getAllUsers();
 
     UserDto updateUserById(Long userId, UserDto userDto);
@@ -3,12 +3,17 @@ package ru.practicum.shareit.user.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.schedule.BookingIntervalIndex;
 import ru.practicum.shareit.exception.model.AlreadyExistsException;
 import ru.practicum.shareit.exception.model.NotFountException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.ETags;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,11 +23,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
 
     @Override
     @Transactional
     public UserDto createUser(UserDto userDto) {
         User savedUser = userRepository.save(UserMapper.toUser(userDto));
+        userCache.evict(savedUser.getId());
 
         return UserMapper.toUserDto(savedUser);
     }
@@ -30,11 +40,18 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public UserDto getUserById(Long userId) {
-        return userRepository.findById(userId)
-                .map(UserMapper::toUserDto)
+        return userCache.findById(userId)
                 .orElseThrow(() -> new NotFountException("User with id = " + userId + " not found."));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String getUserByIdETag(Long userId) {
+        return userRepository.findVersionById(userId)
+                .map(version -> ETags.of(userId, version))
+                .orElse(null);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<UserDto> getAllUsers() {
@@ -62,12 +79,24 @@ public class UserServiceImpl implements UserService {
 
         if (userDto.getName() != null) user.setName(userDto.getName());
 
-        return UserMapper.toUserDto(userRepository.save(user));
+        User savedUser = userRepository.save(user);
+        userCache.evict(userId);
+
+        return UserMapper.toUserDto(savedUser);
     }
 
     @Override
     @Transactional
     public void deleteUserById(Long userId) {
+        // the owner's items go with the user by cascade, read their ids while they still exist
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(userId);
+
         userRepository.deleteById(userId);
+        userCache.evict(userId);
+
+        for (Long itemId : itemIds) {
+            itemSearchIndex.remove(itemId);
+            bookingIntervalIndex.removeItem(itemId);
+        }
     }
 }
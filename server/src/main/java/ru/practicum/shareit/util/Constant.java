@@ -5,6 +5,8 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 public class Constant {
     public static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String ITEM_ID_HEADER = "X-Item-Id";
     public static final String DEFAULT_NUMBER_ELEMENT_PER_PAGE = "50";
     public static final String DESC = "desc";
     public static final String ASC = "asc";
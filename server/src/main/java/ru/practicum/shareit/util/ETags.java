@@ -0,0 +1,25 @@
+package ru.practicum.shareit.util;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+@UtilityClass
+public class ETags {
+    /**
+     * Strong ETag over everything a response depends on, typically the requesting user and the
+     * {@link RowVersions} of the rows behind it. Computing it never loads the entities themselves.
+     * A page of a long list is fingerprinted by the DTOs it serves instead, through their Lombok toString,
+     * so validating it costs the page queries and not an aggregate over the whole list.
+     */
+    public String of(Object... parts) {
+        StringBuilder value = new StringBuilder();
+
+        for (Object part : parts) {
+            value.append(part instanceof RowVersions ? ((RowVersions) part).fingerprint() : part).append('|');
+        }
+
+        return '"' + DigestUtils.md5DigestAsHex(value.toString().getBytes(StandardCharsets.UTF_8)) + '"';
+    }
+}
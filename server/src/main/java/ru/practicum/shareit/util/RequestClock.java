@@ -0,0 +1,44 @@
+package ru.practicum.shareit.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Current time pinned for the whole HTTP request and truncated to seconds,
+ * so every query and mapper of one request sees the same "now".
+ * Outside of a request every call reads the clock again.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestClock {
+    private static final String NOW_ATTRIBUTE = RequestClock.class.getName() + ".now";
+
+    private final Clock clock;
+
+    public LocalDateTime now() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+        if (attributes == null) {
+            return readClock();
+        }
+
+        LocalDateTime now = (LocalDateTime) attributes.getAttribute(NOW_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+
+        if (now == null) {
+            now = readClock();
+            attributes.setAttribute(NOW_ATTRIBUTE, now, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        return now;
+    }
+
+    private LocalDateTime readClock() {
+        return LocalDateTime.now(clock).truncatedTo(ChronoUnit.SECONDS);
+    }
+}
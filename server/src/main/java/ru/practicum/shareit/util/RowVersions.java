@@ -0,0 +1,18 @@
+package ru.practicum.shareit.util;
+
+/**
+ * Aggregate of the rows a response is built from: how many there are, the newest id
+ * and the sum of their versions. Ids only grow and versions only increase, so any insert,
+ * update or delete among the rows changes at least one of the three.
+ */
+public interface RowVersions {
+    Long getTotal();
+
+    Long getMaxId();
+
+    Long getVersionSum();
+
+    default String fingerprint() {
+        return getTotal() + ":" + getMaxId() + ":" + getVersionSum();
+    }
+}
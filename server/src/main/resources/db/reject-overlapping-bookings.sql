@@ -0,0 +1,28 @@
+-- One-off cleanup before the bookings_no_overlap constraint is added. It is not part of the startup scripts:
+-- review the overlapping bookings the startup error lists, then run it by hand, for example
+-- psql -d shareit -f reject-overlapping-bookings.sql
+-- It rejects the later of two overlapping approved bookings and every waiting booking that overlaps an approved
+-- or an earlier waiting one, bumping their versions so that cached views are revalidated.
+BEGIN;
+
+UPDATE bookings b
+SET status = 'REJECTED', version = b.version + 1
+WHERE b.status = 'APPROVED'
+  AND EXISTS (SELECT 1
+              FROM bookings o
+              WHERE o.item_id = b.item_id
+                AND o.id < b.id
+                AND o.status = 'APPROVED'
+                AND tsrange(o.start_date, o.end_date) && tsrange(b.start_date, b.end_date));
+
+UPDATE bookings b
+SET status = 'REJECTED', version = b.version + 1
+WHERE b.status = 'WAITING'
+  AND EXISTS (SELECT 1
+              FROM bookings o
+              WHERE o.item_id = b.item_id
+                AND o.id <> b.id
+                AND (o.status = 'APPROVED' OR (o.status = 'WAITING' AND o.id < b.id))
+                AND tsrange(o.start_date, o.end_date) && tsrange(b.start_date, b.end_date));
+
+COMMIT;
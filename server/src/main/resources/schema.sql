@@ -1,15 +1,21 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users
 (
-    id    BIGINT GENERATED BY DEFAULT AS IDENTITY,
-    email VARCHAR(255) NOT NULL,
-    name  VARCHAR(255) NOT NULL,
+    id      BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    version BIGINT       NOT NULL DEFAULT 0,
+    email   VARCHAR(255) NOT NULL,
+    name    VARCHAR(255) NOT NULL,
     CONSTRAINT pk_users PRIMARY KEY (id),
     CONSTRAINT email_unique UNIQUE (email)
 );
 
+CREATE SEQUENCE IF NOT EXISTS item_requests_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS item_requests
 (
-    id           BIGINT GENERATED ALWAYS AS IDENTITY,
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    version      BIGINT                      NOT NULL DEFAULT 0,
     requester_id BIGINT                      NOT NULL,
     description  varchar(255)                NOT NULL,
     created      TIMESTAMP WITHOUT TIME ZONE NOT NULL,
@@ -17,9 +23,12 @@ CREATE TABLE IF NOT EXISTS item_requests
     CONSTRAINT fk_item_requests_users FOREIGN KEY (requester_id) REFERENCES users (id) ON DELETE CASCADE
 );
 
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS items
 (
     id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    version     BIGINT       NOT NULL DEFAULT 0,
     available   BOOLEAN      NOT NULL,
     description VARCHAR(255) NOT NULL,
     name        VARCHAR(255) NOT NULL,
@@ -30,9 +39,12 @@ CREATE TABLE IF NOT EXISTS items
     CONSTRAINT fk_items_item_requests FOREIGN KEY (request_id) REFERENCES item_requests (id)
 );
 
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS bookings
 (
     id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    version    BIGINT                      NOT NULL DEFAULT 0,
     end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     status     VARCHAR(255)                NOT NULL,
@@ -43,9 +55,12 @@ CREATE TABLE IF NOT EXISTS bookings
     CONSTRAINT fk_booking_items FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE
 );
 
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS comments
 (
     id        BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    version   BIGINT                      NOT NULL DEFAULT 0,
     text      VARCHAR                     NOT NULL,
     item_id   BIGINT                      NOT NULL,
     author_id BIGINT                      NOT NULL,
@@ -55,3 +70,20 @@ CREATE TABLE IF NOT EXISTS comments
     CONSTRAINT fk_comments_items FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE
 );
 
+CREATE INDEX IF NOT EXISTS idx_item_requests_requester_id ON item_requests (requester_id, created DESC);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_item ON bookings (booker_id, item_id);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_id ON comments (item_id);
@@ -0,0 +1,240 @@
+package ru.practicum.shareit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares insert throughput of bookings and comments whose ids come from an IDENTITY column,
+ * which makes Hibernate run every INSERT on its own to read the key back, with the pooled-lo sequences
+ * the entities use now, which let the rows go out as JDBC batches.
+ * The IDENTITY side is mapped by entities local to this benchmark that write to the same tables.
+ * Run with {@code -Dshareit.benchmark=true}; the numbers are written to the log.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+@Slf4j
+class InsertThroughputBenchmarkTest {
+    private static final int ROWS = 5_000;
+    private static final int WARMUP_ROWS = 1_000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder().name("Benchmark").email("benchmark@email.ru").build());
+        item = itemRepository.save(Item.builder()
+                .name("Benchmark item")
+                .description("Benchmark item")
+                .available(true)
+                .ownerId(user.getId())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAllInBatch();
+        bookingRepository.deleteAllInBatch();
+        itemRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void bookings() {
+        compare("bookings", this::identityBooking, this::booking, bookingRepository);
+    }
+
+    @Test
+    void comments() {
+        compare("comments", this::identityComment, this::comment, commentRepository);
+    }
+
+    private void compare(String table, IntFunction<Object> identity, IntFunction<Object> sequence,
+                         JpaRepository<?, Long> repository) {
+        run(identity, WARMUP_ROWS, repository);
+        run(sequence, WARMUP_ROWS, repository);
+
+        double identityRate = run(identity, ROWS, repository);
+        double sequenceRate = run(sequence, ROWS, repository);
+
+        log.info("Inserted {} {} per id generator: IDENTITY {} rows/s, pooled-lo sequence {} rows/s ({}x)",
+                ROWS, table, Math.round(identityRate), Math.round(sequenceRate),
+                Math.round(sequenceRate / identityRate * 10) / 10.0);
+    }
+
+    /**
+     * Inserts the rows in one transaction and empties the table again: the identity column and the sequence
+     * both count from 1, so their ids would collide if the rows of one run stayed behind.
+     */
+    private double run(IntFunction<Object> factory, int rows, JpaRepository<?, Long> repository) {
+        List<Object> entities = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            entities.add(factory.apply(i));
+        }
+
+        long startedAt = System.nanoTime();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> insert(entities));
+        long elapsed = System.nanoTime() - startedAt;
+
+        assertEquals(rows, repository.count());
+        repository.deleteAllInBatch();
+
+        return rows / (elapsed / 1_000_000_000.0);
+    }
+
+    private void insert(List<Object> entities) {
+        for (Object entity : entities) {
+            entityManager.persist(entity);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private IdentityBooking identityBooking(int i) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).plusHours(i * 2L);
+
+        return new IdentityBooking(start, start.plusHours(1), BookingStatus.REJECTED, user.getId(), item.getId());
+    }
+
+    private IdentityComment identityComment(int i) {
+        return new IdentityComment("Comment " + i, item.getId(), user.getId(), LocalDateTime.now());
+    }
+
+    private Booking booking(int i) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).plusHours(i * 2L);
+
+        return Booking.builder()
+                .item(item)
+                .booker(user)
+                .start(start)
+                .end(start.plusHours(1))
+                .status(BookingStatus.REJECTED)
+                .build();
+    }
+
+    private Comment comment(int i) {
+        return Comment.builder()
+                .text("Comment " + i)
+                .item(item)
+                .author(user)
+                .created(LocalDateTime.now())
+                .build();
+    }
+
+    @Entity(name = "IdentityBooking")
+    @Table(name = "bookings")
+    static class IdentityBooking {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        private Long version = 0L;
+
+        @Column(name = "start_date")
+        private LocalDateTime start;
+
+        @Column(name = "end_date")
+        private LocalDateTime end;
+
+        @Enumerated(EnumType.STRING)
+        private BookingStatus status;
+
+        @Column(name = "booker_id")
+        private Long bookerId;
+
+        @Column(name = "item_id")
+        private Long itemId;
+
+        protected IdentityBooking() {
+        }
+
+        IdentityBooking(LocalDateTime start, LocalDateTime end, BookingStatus status, Long bookerId, Long itemId) {
+            this.start = start;
+            this.end = end;
+            this.status = status;
+            this.bookerId = bookerId;
+            this.itemId = itemId;
+        }
+    }
+
+    @Entity(name = "IdentityComment")
+    @Table(name = "comments")
+    static class IdentityComment {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        private Long version = 0L;
+
+        private String text;
+
+        @Column(name = "item_id")
+        private Long itemId;
+
+        @Column(name = "author_id")
+        private Long authorId;
+
+        private LocalDateTime created;
+
+        protected IdentityComment() {
+        }
+
+        IdentityComment(String text, Long itemId, Long authorId, LocalDateTime created) {
+            this.text = text;
+            this.itemId = itemId;
+            this.authorId = authorId;
+            this.created = created;
+        }
+    }
+}
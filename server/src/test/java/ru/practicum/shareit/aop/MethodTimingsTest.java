@@ -0,0 +1,51 @@
+package ru.practicum.shareit.aop;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MethodTimingsTest {
+    private final MethodTimings methodTimings = new MethodTimings();
+
+    @Test
+    void record_whenInvoked_thenCountCallsPerMethodInPowerOfTwoBuckets() throws NoSuchMethodException {
+        //given
+        Method method = MethodTimings.class.getMethod("reset");
+
+        //when
+        for (int i = 0; i < 99; i++) {
+            methodTimings.record(method, TimeUnit.MICROSECONDS.toNanos(3));
+        }
+        methodTimings.record(method, TimeUnit.MILLISECONDS.toNanos(5));
+
+        //then
+        List<MethodTimings.Timing> timings = methodTimings.snapshot();
+        assertEquals(1, timings.size());
+
+        MethodTimings.Timing timing = timings.get(0);
+        assertEquals("MethodTimings.reset", timing.getName());
+        assertEquals(100, timing.getCount());
+        assertEquals(4, timing.percentileMicros(50));
+        assertEquals(4, timing.percentileMicros(99));
+        assertEquals(8192, timing.percentileMicros(100));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(5), timing.getMaxNanos());
+        assertTrue(methodTimings.report()[0].startsWith("MethodTimings.reset count=100"));
+    }
+
+    @Test
+    void reset_whenInvoked_thenForgetAllMethods() throws NoSuchMethodException {
+        //given
+        methodTimings.record(MethodTimings.class.getMethod("reset"), 1000);
+
+        //when
+        methodTimings.reset();
+
+        //then
+        assertEquals(0, methodTimings.snapshot().size());
+    }
+}
@@ -11,10 +11,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
+import ru.practicum.shareit.booking.enums.BookingRole;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.enums.State;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -24,9 +29,11 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.ETags;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -34,6 +41,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -375,6 +384,94 @@ class BookingControllerTest {
         assertEquals(Sort.by(Sort.Direction.DESC, "start"), pageableCaptor.getValue().getSort());
     }
 
+    @SneakyThrows
+    @Test
+    public void getBookingsByBooker_whenCursorIsEmpty_thenReturnFirstPageWithNextCursor() {
+        //when
+        when(bookingService.getBookingsByBookerIdAndState(user.getId(), State.ALL, null, 1))
+                .thenReturn(List.of(bookingOutputDto));
+
+        mockMvc.perform(get("/bookings?size=1&after=")
+                        .header("X-Sharer-User-Id", user.getId())
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", BookingCursor.of(bookingOutputDto).encode()))
+                .andExpect(jsonPath("$[0].id").value(bookingOutputDto.getId()));
+
+        //then
+        verify(bookingService, never()).getBookingsByBookerIdAndState(any(), any(), any());
+    }
+
+    @SneakyThrows
+    @Test
+    public void getBookingsByBooker_whenLastPage_thenReturnWithoutNextCursor() {
+        //given
+        BookingCursor cursor = BookingCursor.of(bookingOutputDto);
+
+        //when
+        when(bookingService.getBookingsByBookerIdAndState(user.getId(), State.ALL, cursor, 10))
+                .thenReturn(List.of(bookingOutputDto));
+
+        mockMvc.perform(get("/bookings?size=10&after=" + cursor.encode())
+                        .header("X-Sharer-User-Id", user.getId())
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @SneakyThrows
+    @Test
+    public void getBookingsByBooker_whenIfNoneMatchMatchesPage_thenReturnNotModified() {
+        //given
+        String etag = ETags.of(BookingRole.BOOKER, user.getId(), List.of(bookingOutputDto));
+
+        //when
+        when(bookingService.getBookingsByBookerIdAndState(eq(user.getId()), eq(State.ALL), any(Pageable.class)))
+                .thenReturn(List.of(bookingOutputDto));
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @SneakyThrows
+    @Test
+    public void getBookingsByOwner_whenIfNoneMatchIsOutdated_thenReturnBookingsWithCurrentETag() {
+        //given
+        String etag = ETags.of(BookingRole.OWNER, user.getId(), List.of(bookingOutputDto));
+
+        //when
+        when(bookingService.getBookingsByOwnerIdAndState(eq(user.getId()), eq(State.ALL), any(Pageable.class)))
+                .thenReturn(List.of(bookingOutputDto));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(jsonPath("$[0].id").value(bookingOutputDto.getId()));
+    }
+
+    @SneakyThrows
+    @Test
+    public void getBookingsByOwner_whenCursorIsNotValid_thenReturnBadRequest() {
+        mockMvc.perform(get("/bookings/owner?after=broken")
+                        .header("X-Sharer-User-Id", user.getId())
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @SneakyThrows
     @Test
     public void getBookingsByBooker_whenParamSizeLessZero_thenReturnBadRequest() {
@@ -545,15 +642,50 @@ class BookingControllerTest {
     @SneakyThrows
     @Test
     public void approvedBooking_whenRequestIsValid_thenInvokeBookingService() {
+        //given
+        when(bookingService.changeStatus(1L, 1L, false)).thenReturn(bookingOutputDto);
+
         //when
         mockMvc.perform(patch("/bookings/1?approved=false")
                         .header("X-Sharer-User-Id", user.getId())
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Item-Id", String.valueOf(bookingOutputDto.getItem().getId())));
 
         //then
         verify(bookingService, times(1)).changeStatus(1L, 1L, false);
     }
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    public void changeStatuses_whenRequestIsValid_thenReturnResultForEveryChange() {
+        //given
+        List<BookingStatusChangeDto> changes = List.of(
+                new BookingStatusChangeDto(1L, true),
+                new BookingStatusChangeDto(2L, false)
+        );
+
+        when(bookingService.changeStatuses(user.getId(), changes)).thenReturn(List.of(
+                BookingStatusChangeResultDto.changed(1L, BookingStatus.APPROVED),
+                BookingStatusChangeResultDto.failed(2L, "Booking with id = 2 not found.")
+        ));
+
+        //when
+        mockMvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", user.getId())
+                        .content(objectMapper.writeValueAsString(changes))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingId").value(1))
+                .andExpect(jsonPath("$[0].status").value("APPROVED"))
+                .andExpect(jsonPath("$[1].bookingId").value(2))
+                .andExpect(jsonPath("$[1].error").value("Booking with id = 2 not found."));
+
+        //then
+        verify(bookingService, never()).changeStatus(anyLong(), anyLong(), any());
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.booking.dto;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.model.BadRequestException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingCursorTest {
+
+    @Test
+    public void decode_whenTokenWasEncoded_thenReturnSameCursor() {
+        //given
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2023, 5, 1, 10, 30), 42L);
+
+        //when
+        BookingCursor decodedCursor = BookingCursor.decode(cursor.encode());
+
+        //then
+        assertEquals(cursor, decodedCursor);
+    }
+
+    @Test
+    public void decode_whenTokenIsEmpty_thenReturnNull() {
+        //then
+        assertNull(BookingCursor.decode(""));
+    }
+
+    @Test
+    public void decode_whenTokenIsNotValid_thenThrowBadRequestException() {
+        //when
+        Exception exception = assertThrows(BadRequestException.class, () -> BookingCursor.decode("not-a-cursor"));
+
+        //then
+        assertEquals("Invalid cursor: not-a-cursor", exception.getMessage());
+    }
+}
@@ -37,6 +37,7 @@ class BookingMapperTest {
         //given
         Booking booking = new Booking(
                 1L,
+                0L,
                 new Item(),
                 new User(),
                 BookingStatus.WAITING,
@@ -59,6 +60,7 @@ class BookingMapperTest {
         //given
         Booking booking = new Booking(
                 1L,
+                0L,
                 new Item(),
                 new User(),
                 BookingStatus.WAITING,
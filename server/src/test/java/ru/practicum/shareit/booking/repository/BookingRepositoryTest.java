@@ -8,8 +8,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingVersions;
+import ru.practicum.shareit.booking.dto.ItemBookingDto;
+import ru.practicum.shareit.booking.enums.BookingRole;
 import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.enums.State;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.schedule.BookingSlot;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -17,6 +23,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -30,7 +39,7 @@ class BookingRepositoryTest {
     private TestEntityManager entityManager;
 
     @Test
-    void findByBookerIdAndEndIsBefore_whenInvoked_thenReturnOnlyPastBookingByBookerId() {
+    void findBookings_whenBookerAndStatePast_thenReturnOnlyPastBookingByBookerId() {
         //given
         LocalDateTime currentDateTime = LocalDateTime.now();
 
@@ -63,7 +72,8 @@ class BookingRepositoryTest {
         entityManager.persist(futureBooking2);
 
         //when
-        List<Booking> bookings = bookingRepository.findByBookerIdAndEndIsBefore(booker1.getId(), currentDateTime, pageable);
+        List<Booking> bookings = bookingRepository.findBookings(
+                filter(BookingRole.BOOKER, booker1.getId(), State.PAST, currentDateTime), pageable);
 
         //then
         assertEquals(1, bookings.size());
@@ -71,7 +81,7 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByBookerIdAndStartIsAfter_whenInvoked_thenReturnOnlyFutureBookingByBookerId() {
+    void findBookings_whenBookerAndStateFuture_thenReturnOnlyFutureBookingByBookerId() {
         //given
         LocalDateTime currentDateTime = LocalDateTime.now();
 
@@ -104,7 +114,8 @@ class BookingRepositoryTest {
         entityManager.persist(futureBooking2);
 
         //when
-        List<Booking> bookings = bookingRepository.findByBookerIdAndStartIsAfter(booker1.getId(), currentDateTime, pageable);
+        List<Booking> bookings = bookingRepository.findBookings(
+                filter(BookingRole.BOOKER, booker1.getId(), State.FUTURE, currentDateTime), pageable);
 
         //then
         assertEquals(1, bookings.size());
@@ -112,7 +123,7 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findCurrentBookingByBookerId_whenInvoked_thenReturnOnlyCurrentBookingByBookerId() {
+    void findBookings_whenBookerAndStateCurrent_thenReturnOnlyCurrentBookingByBookerId() {
         //given
         LocalDateTime currentDateTime = LocalDateTime.now();
 
@@ -145,7 +156,8 @@ class BookingRepositoryTest {
         entityManager.persist(futureBooking2);
 
         //when
-        List<Booking> bookings = bookingRepository.findCurrentBookingByBookerId(booker1.getId(), pageable);
+        List<Booking> bookings = bookingRepository.findBookings(
+                filter(BookingRole.BOOKER, booker1.getId(), State.CURRENT, currentDateTime), pageable);
 
         //then
         assertEquals(1, bookings.size());
@@ -153,7 +165,7 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByBookerId_whenInvoked_thenReturnAllBookingsByBookerId() {
+    void findBookings_whenBookerAndStateAll_thenReturnAllBookingsByBookerId() {
         //given
         LocalDateTime currentDateTime = LocalDateTime.now();
 
@@ -186,7 +198,8 @@ class BookingRepositoryTest {
         entityManager.persist(futureBooking2);
 
         //when
-        List<Booking> bookings = bookingRepository.findByBookerId(booker1.getId(), pageable);
+        List<Booking> bookings = bookingRepository.findBookings(
+                filter(BookingRole.BOOKER, booker1.getId(), State.ALL, currentDateTime), pageable);
 
         //then
         assertEquals(3, bookings.size());
@@ -196,7 +209,7 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByBookerIdAndStatus_whenInvokedWithStatusApproved_thenReturnOnlyApprovedBookingsByBookerId() {
+    void findBookings_whenBookerAndStateApproved_thenReturnOnlyApprovedBookingsByBookerId() {
         //given
         LocalDateTime currentDateTime = LocalDateTime.now();
 
@@ -231,7 +244,8 @@ class BookingRepositoryTest {
         entityManager.persist(futureBooking2);
 
         //when
-        List<Booking> bookings = bookingRepository.findByBookerIdAndStatus(booker1.getId(), BookingStatus.APPROVED, pageable);
+        List<Booking> bookings = bookingRepository.findBookings(
+                filter(BookingRole.BOOKER, booker1.getId(), State.APPROVED, currentDateTime), pageable);
 
         //then
         assertEquals(2, bookings.size());
@@ -240,7 +254,7 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByBookerIdAndStatus_whenInvokedWithStatusWaiting_thenReturnOnlyWaitingBookingsByBookerId() {
+    void findBookings_whenBookerAndStateWaiting_thenReturnOnlyWaitingBookingsByBookerId() {
         //given
         LocalDateTime currentDateTime = LocalDateTime.now();
 
@@ -275,7 +289,8 @@ class BookingRepositoryTest {
         entityManager.persist(futureBooking2);
 
         //when
-        List<Booking> bookings = bookingRepository.findByBookerIdAndStatus(booker1.getId(), BookingStatus.WAITING, pageable);
+        List<Booking> bookings = bookingRepository.findBookings(
+                filter(BookingRole.BOOKER, booker1.getId(), State.WAITING, currentDateTime), pageable);
 
         //then
         assertEquals(1, bookings.size());
@@ -283,7 +298,7 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByBookerIdAndStatus_whenInvokedWithStatusRejected_thenReturnOnlyRejectedBookingsByBookerId() {
+    void findBookings_whenBookerAndStateRejected_thenReturnOnlyRejectedBookingsByBookerId() {
         //given
         LocalDateTime currentDateTime = LocalDateTime.now();
 
@@ -318,7 +333,8 @@ class BookingRepositoryTest {
         entityManager.persist(futureBooking2);
 
         //when
-        List<Booking> bookings = bookingRepository.findByBookerIdAndStatus(booker1.getId(), BookingStatus.REJECTED, pageable);
+        List<Booking> bookings = bookingRepository.findBookings(
+                filter(BookingRole.BOOKER, booker1.getId(), State.REJECTED, currentDateTime), pageable);
 
         //then
         assertEquals(1, bookings.size());
@@ -326,7 +342,7 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByItemOwnerIdAndEndIsBefore_whenInvoked_thenReturnOnlyPastBookingsByItemOwnerId() {
+    void findBookings_whenOwnerAndStatePast_thenReturnOnlyPastBookingsByItemOwnerId() {
         //given
         LocalDateTime currentDateTime = LocalDateTime.now();
 
@@ -359,7 +375,8 @@ class BookingRepositoryTest {
         entityManager.persist(futureBooking2);
 
         //when
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndEndIsBefore(item1.getOwnerId(), currentDateTime, pageable);
+        List<Booking> bookings = bookingRepository.findBookings(
+                filter(BookingRole.OWNER, item1.getOwnerId(), State.PAST, currentDateTime), pageable);
 
         //then
         assertEquals(1, bookings.size());
@@ -367,7 +384,7 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByItemOwnerIdAndStartIsAfter_whenInvoked_thenReturnOnlyFutureBookingsByItemOwnerId() {
+    void findBookings_whenOwnerAndStateFuture_thenReturnOnlyFutureBookingsByItemOwnerId() {
         //given
         LocalDateTime currentDateTime = LocalDateTime.now();
 
@@ -400,7 +417,8 @@ class BookingRepositoryTest {
         entityManager.persist(futureBooking2);
 
         //when
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndStartIsAfter(item1.getOwnerId(), currentDateTime, pageable);
+        List<Booking> bookings = bookingRepository.findBookings(
+                filter(BookingRole.OWNER, item1.getOwnerId(), State.FUTURE, currentDateTime), pageable);
 
         //then
         assertEquals(1, bookings.size());
@@ -408,7 +426,7 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findCurrentBookingByOwnerId_whenInvoked_whenReturnOnlyCurrentBookingsByItemOwnerId() {
+    void findBookings_whenOwnerAndStateCurrent_thenReturnOnlyCurrentBookingsByItemOwnerId() {
         //given
         LocalDateTime currentDateTime = LocalDateTime.now();
 
@@ -441,7 +459,8 @@ class BookingRepositoryTest {
         entityManager.persist(futureBooking2);
 
         //when
-        List<Booking> bookings = bookingRepository.findCurrentBookingByItemOwnerId(item1.getOwnerId(), pageable);
+        List<Booking> bookings = bookingRepository.findBookings(
+                filter(BookingRole.OWNER, item1.getOwnerId(), State.CURRENT, currentDateTime), pageable);
 
         //then
         assertEquals(1, bookings.size());
@@ -491,7 +510,7 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByItemOwnerId_whenInvoker_thenReturnAllBookingsWithOnlyGivenItemOwnerId() {
+    void findBookings_whenOwnerAndStateAll_thenReturnAllBookingsWithOnlyGivenItemOwnerId() {
         //given
         LocalDateTime currentDateTime = LocalDateTime.now();
 
@@ -524,7 +543,8 @@ class BookingRepositoryTest {
         entityManager.persist(futureBooking2);
 
         //when
-        List<Booking> bookings = bookingRepository.findByItemOwnerId(item1.getOwnerId(), pageable);
+        List<Booking> bookings = bookingRepository.findBookings(
+                filter(BookingRole.OWNER, item1.getOwnerId(), State.ALL, currentDateTime), pageable);
 
         //then
         assertEquals(3, bookings.size());
@@ -534,7 +554,7 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByItemOwnerIdAndStatus_whenInvokedWithStatusApproved_thenReturnOnlyApprovedBookingsWithGivenItemOwnerId() {
+    void findBookings_whenOwnerAndStateApproved_thenReturnOnlyApprovedBookingsWithGivenItemOwnerId() {
         //given
         LocalDateTime currentDateTime = LocalDateTime.now();
 
@@ -569,7 +589,8 @@ class BookingRepositoryTest {
         entityManager.persist(futureBooking2);
 
         //when
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndStatus(item1.getOwnerId(), BookingStatus.APPROVED, pageable);
+        List<Booking> bookings = bookingRepository.findBookings(
+                filter(BookingRole.OWNER, item1.getOwnerId(), State.APPROVED, currentDateTime), pageable);
 
         //then
         assertEquals(2, bookings.size());
@@ -578,7 +599,7 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByItemOwnerIdAndStatus_whenInvokedWithStatusWaiting_thenReturnOnlyWaitingBookingsWithGivenItemOwnerId() {
+    void findBookings_whenOwnerAndStateWaiting_thenReturnOnlyWaitingBookingsWithGivenItemOwnerId() {
         //given
         LocalDateTime currentDateTime = LocalDateTime.now();
 
@@ -613,7 +634,8 @@ class BookingRepositoryTest {
         entityManager.persist(futureBooking2);
 
         //when
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndStatus(item1.getOwnerId(), BookingStatus.WAITING, pageable);
+        List<Booking> bookings = bookingRepository.findBookings(
+                filter(BookingRole.OWNER, item1.getOwnerId(), State.WAITING, currentDateTime), pageable);
 
         //then
         assertEquals(1, bookings.size());
@@ -621,7 +643,7 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByItemOwnerIdAndStatus_whenInvokedWithStatusRejected_thenReturnOnlyRejectedBookingsWithGivenItemOwnerId() {
+    void findBookings_whenOwnerAndStateRejected_thenReturnOnlyRejectedBookingsWithGivenItemOwnerId() {
         //given
         LocalDateTime currentDateTime = LocalDateTime.now();
 
@@ -656,13 +678,349 @@ class BookingRepositoryTest {
         entityManager.persist(futureBooking2);
 
         //when
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndStatus(item1.getOwnerId(), BookingStatus.REJECTED, pageable);
+        List<Booking> bookings = bookingRepository.findBookings(
+                filter(BookingRole.OWNER, item1.getOwnerId(), State.REJECTED, currentDateTime), pageable);
 
         //then
         assertEquals(1, bookings.size());
         assertTrue(bookings.contains(futureBooking1));
     }
 
+    @Test
+    void findLastBookingsByItemIds_whenInvoked_thenReturnLatestApprovedBookingStartedBeforeDate() {
+        //given
+        LocalDateTime currentDateTime = LocalDateTime.now();
+
+        User owner = createUser(1L);
+        User booker = createUser(2L);
+
+        Item item = createItem(1L, 1L);
+        Booking pastBooking = createBooking(booker, item, currentDateTime.minusDays(10), currentDateTime.minusDays(9));
+        Booking lastBooking = createBooking(booker, item, currentDateTime.minusDays(5), currentDateTime.minusDays(4));
+        Booking rejectedBooking = createBooking(booker, item, currentDateTime.minusDays(2), currentDateTime.minusDays(1));
+        Booking futureBooking = createBooking(booker, item, currentDateTime.plusDays(3), currentDateTime.plusDays(5));
+        rejectedBooking.setStatus(BookingStatus.REJECTED);
+
+        entityManager.persist(owner);
+        entityManager.persist(booker);
+        item.setOwnerId(owner.getId());
+        entityManager.persist(item);
+        entityManager.persist(pastBooking);
+        entityManager.persist(lastBooking);
+        entityManager.persist(rejectedBooking);
+        entityManager.persist(futureBooking);
+
+        //when
+        List<ItemBookingDto> bookings = bookingRepository.findLastBookingsByItemIds(List.of(item.getId()), currentDateTime);
+
+        //then
+        assertEquals(1, bookings.size());
+        assertEquals(item.getId(), bookings.get(0).getItemId());
+        assertEquals(lastBooking.getId(), bookings.get(0).getId());
+        assertEquals(booker.getId(), bookings.get(0).getBookerId());
+    }
+
+    @Test
+    void findNextBookingsByItemIds_whenInvoked_thenReturnEarliestApprovedBookingStartedAfterDate() {
+        //given
+        LocalDateTime currentDateTime = LocalDateTime.now();
+
+        User owner = createUser(1L);
+        User booker = createUser(2L);
+
+        Item item = createItem(1L, 1L);
+        Booking pastBooking = createBooking(booker, item, currentDateTime.minusDays(10), currentDateTime.minusDays(9));
+        Booking waitingBooking = createBooking(booker, item, currentDateTime.plusDays(1), currentDateTime.plusDays(2));
+        Booking nextBooking = createBooking(booker, item, currentDateTime.plusDays(3), currentDateTime.plusDays(4));
+        Booking futureBooking = createBooking(booker, item, currentDateTime.plusDays(6), currentDateTime.plusDays(7));
+        waitingBooking.setStatus(BookingStatus.WAITING);
+
+        entityManager.persist(owner);
+        entityManager.persist(booker);
+        item.setOwnerId(owner.getId());
+        entityManager.persist(item);
+        entityManager.persist(pastBooking);
+        entityManager.persist(waitingBooking);
+        entityManager.persist(nextBooking);
+        entityManager.persist(futureBooking);
+
+        //when
+        List<ItemBookingDto> bookings = bookingRepository.findNextBookingsByItemIds(List.of(item.getId()), currentDateTime);
+
+        //then
+        assertEquals(1, bookings.size());
+        assertEquals(item.getId(), bookings.get(0).getItemId());
+        assertEquals(nextBooking.getId(), bookings.get(0).getId());
+        assertEquals(booker.getId(), bookings.get(0).getBookerId());
+    }
+
+    @Test
+    void findBookings_whenCursorIsGiven_thenReturnBookingsOlderThanCursorInStartDescOrder() {
+        //given
+        LocalDateTime start = LocalDateTime.now().withNano(0);
+
+        User owner = createUser(1L);
+        User booker = createUser(2L);
+
+        Item item = createItem(1L, 1L);
+        Booking newestBooking = createBooking(booker, item, start.plusDays(1), start.plusDays(2));
+        Booking cursorBooking = createBooking(booker, item, start, start.plusDays(1));
+        Booking sameStartBooking = createBooking(booker, item, start, start.plusDays(2));
+        Booking oldestBooking = createBooking(booker, item, start.minusDays(1), start);
+
+        entityManager.persist(owner);
+        entityManager.persist(booker);
+        item.setOwnerId(owner.getId());
+        entityManager.persist(item);
+        entityManager.persist(newestBooking);
+        entityManager.persist(sameStartBooking);
+        entityManager.persist(cursorBooking);
+        entityManager.persist(oldestBooking);
+
+        //when
+        BookingCursor cursor = new BookingCursor(cursorBooking.getStart(), cursorBooking.getId());
+        List<Booking> bookings = bookingRepository.findBookings(
+                filter(BookingRole.BOOKER, booker.getId(), State.ALL, start), cursor, 10);
+
+        //then
+        assertEquals(List.of(sameStartBooking, oldestBooking), bookings);
+    }
+
+    @Test
+    void findBookings_whenItemAndStartRangeAreGiven_thenReturnOnlyMatchingBookings() {
+        //given
+        LocalDateTime currentDateTime = LocalDateTime.now();
+
+        User owner = createUser(1L);
+        User booker = createUser(2L);
+
+        Item item1 = createItem(1L, 1L);
+        Item item2 = createItem(2L, 1L);
+        Booking earlyBooking = createBooking(booker, item1, currentDateTime.minusDays(10), currentDateTime.minusDays(9));
+        Booking matchingBooking = createBooking(booker, item1, currentDateTime.minusDays(3), currentDateTime.minusDays(2));
+        Booking otherItemBooking = createBooking(booker, item2, currentDateTime.minusDays(3), currentDateTime.minusDays(2));
+        Booking lateBooking = createBooking(booker, item1, currentDateTime.plusDays(1), currentDateTime.plusDays(2));
+
+        entityManager.persist(owner);
+        entityManager.persist(booker);
+        item1.setOwnerId(owner.getId());
+        item2.setOwnerId(owner.getId());
+        entityManager.persist(item1);
+        entityManager.persist(item2);
+        entityManager.persist(earlyBooking);
+        entityManager.persist(matchingBooking);
+        entityManager.persist(otherItemBooking);
+        entityManager.persist(lateBooking);
+
+        BookingFilter filter = BookingFilter.builder()
+                .role(BookingRole.OWNER)
+                .userId(owner.getId())
+                .state(State.ALL)
+                .currentTime(currentDateTime)
+                .itemId(item1.getId())
+                .startFrom(currentDateTime.minusDays(5))
+                .startTo(currentDateTime)
+                .build();
+
+        //when
+        List<Booking> bookings = bookingRepository.findBookings(filter, PageRequest.of(0, 10));
+
+        //then
+        assertEquals(List.of(matchingBooking), bookings);
+    }
+
+    @Test
+    void findBookings_whenSortPropertyIsUnknown_thenThrowException() {
+        //given
+        BookingFilter filter = filter(BookingRole.BOOKER, 1L, State.ALL, LocalDateTime.now());
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("description"));
+
+        //when
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> bookingRepository.findBookings(filter, pageable));
+
+        //then
+        assertEquals("Unknown sort property: description", exception.getMessage());
+    }
+
+    @Test
+    void existsOverlapping_whenActiveBookingOverlaps_thenReturnTrue() {
+        //given
+        LocalDateTime start = LocalDateTime.now().withNano(0);
+
+        User owner = createUser(1L);
+        User booker = createUser(2L);
+
+        Item item = createItem(1L, 1L);
+        Booking approvedBooking = createBooking(booker, item, start, start.plusDays(2));
+        Booking rejectedBooking = createBooking(booker, item, start.plusDays(3), start.plusDays(5));
+        rejectedBooking.setStatus(BookingStatus.REJECTED);
+
+        entityManager.persist(owner);
+        entityManager.persist(booker);
+        item.setOwnerId(owner.getId());
+        entityManager.persist(item);
+        entityManager.persist(approvedBooking);
+        entityManager.persist(rejectedBooking);
+
+        //when
+        boolean overlapsApproved = bookingRepository.existsOverlapping(
+                item.getId(), 0L, start.plusDays(1), start.plusDays(3));
+        boolean overlapsRejected = bookingRepository.existsOverlapping(
+                item.getId(), 0L, start.plusDays(3), start.plusDays(4));
+        boolean overlapsItself = bookingRepository.existsOverlapping(
+                item.getId(), approvedBooking.getId(), start, start.plusDays(2));
+        boolean touchesApproved = bookingRepository.existsOverlapping(
+                item.getId(), 0L, start.plusDays(2), start.plusDays(3));
+
+        //then
+        assertTrue(overlapsApproved);
+        assertFalse(overlapsRejected);
+        assertFalse(overlapsItself);
+        assertFalse(touchesApproved);
+    }
+
+    @Test
+    void findActiveSlotsEndingAfter_whenInvoked_thenReturnNotFinishedWaitingAndApprovedBookings() {
+        //given
+        LocalDateTime currentDateTime = LocalDateTime.now().withNano(0);
+
+        User owner = createUser(1L);
+        User booker = createUser(2L);
+
+        Item item = createItem(1L, 1L);
+        Booking pastBooking = createBooking(booker, item, currentDateTime.minusDays(3), currentDateTime.minusDays(2));
+        Booking futureBooking = createBooking(booker, item, currentDateTime.plusDays(1), currentDateTime.plusDays(2));
+        Booking rejectedBooking = createBooking(booker, item, currentDateTime.plusDays(3), currentDateTime.plusDays(4));
+        rejectedBooking.setStatus(BookingStatus.REJECTED);
+
+        entityManager.persist(owner);
+        entityManager.persist(booker);
+        item.setOwnerId(owner.getId());
+        entityManager.persist(item);
+        entityManager.persist(pastBooking);
+        entityManager.persist(futureBooking);
+        entityManager.persist(rejectedBooking);
+
+        //when
+        List<BookingSlot> slots = bookingRepository.findActiveSlotsEndingAfter(currentDateTime);
+
+        //then
+        assertEquals(List.of(new BookingSlot(item.getId(), futureBooking.getId(),
+                futureBooking.getStart(), futureBooking.getEnd())), slots);
+    }
+
+    @Test
+    void findAllForUpdateByIdIn_whenInvoked_thenReturnRequestedBookingsInIdOrder() {
+        //given
+        LocalDateTime start = LocalDateTime.now().withNano(0);
+
+        User owner = createUser(1L);
+        User booker = createUser(2L);
+
+        Item item = createItem(1L, 1L);
+        Booking booking1 = createBooking(booker, item, start, start.plusDays(1));
+        Booking booking2 = createBooking(booker, item, start.plusDays(2), start.plusDays(3));
+        Booking booking3 = createBooking(booker, item, start.plusDays(4), start.plusDays(5));
+
+        entityManager.persist(owner);
+        entityManager.persist(booker);
+        item.setOwnerId(owner.getId());
+        entityManager.persist(item);
+        entityManager.persist(booking1);
+        entityManager.persist(booking2);
+        entityManager.persist(booking3);
+
+        //when
+        List<Booking> bookings = bookingRepository.findAllForUpdateByIdIn(
+                List.of(booking3.getId(), booking1.getId(), Long.MAX_VALUE));
+
+        //then
+        assertEquals(List.of(booking1, booking3), bookings);
+        assertEquals(owner.getId(), bookings.get(0).getItem().getOwnerId());
+    }
+
+    @Test
+    void updateStatusIfWaiting_whenUserIsNotOwnerOrBookingIsNotWaiting_thenUpdateNothing() {
+        //given
+        LocalDateTime currentDateTime = LocalDateTime.now();
+
+        User owner = createUser(1L);
+        User booker = createUser(2L);
+
+        Item item = createItem(1L, 1L);
+        Booking booking = createBooking(booker, item, currentDateTime.plusDays(1), currentDateTime.plusDays(2));
+        booking.setStatus(BookingStatus.WAITING);
+
+        entityManager.persist(owner);
+        entityManager.persist(booker);
+        item.setOwnerId(owner.getId());
+        entityManager.persist(item);
+        entityManager.persist(booking);
+        entityManager.flush();
+
+        //when
+        int byBooker = bookingRepository.updateStatusIfWaiting(booking.getId(), booker.getId(), BookingStatus.APPROVED);
+        int byOwner = bookingRepository.updateStatusIfWaiting(booking.getId(), owner.getId(), BookingStatus.APPROVED);
+        int again = bookingRepository.updateStatusIfWaiting(booking.getId(), owner.getId(), BookingStatus.REJECTED);
+
+        //then
+        assertEquals(0, byBooker);
+        assertEquals(1, byOwner);
+        assertEquals(0, again);
+        assertEquals(BookingStatus.APPROVED, entityManager.find(Booking.class, booking.getId()).getStatus());
+    }
+
+    @Test
+    void findVersionsByItemOwnerId_whenBookingStartsOrStatusChanges_thenFingerprintChanges() {
+        //given
+        LocalDateTime currentDateTime = LocalDateTime.now();
+
+        User owner = createUser(1L);
+        User booker = createUser(2L);
+
+        Item item = createItem(1L, 1L);
+        Booking pastBooking = createBooking(booker, item, currentDateTime.minusDays(3), currentDateTime.minusDays(2));
+        Booking futureBooking = createBooking(booker, item, currentDateTime.plusDays(1), currentDateTime.plusDays(2));
+        futureBooking.setStatus(BookingStatus.WAITING);
+
+        entityManager.persist(owner);
+        entityManager.persist(booker);
+        item.setOwnerId(owner.getId());
+        entityManager.persist(item);
+        entityManager.persist(pastBooking);
+        entityManager.persist(futureBooking);
+        entityManager.flush();
+
+        BookingVersions now = bookingRepository.findVersionsByItemOwnerId(owner.getId(), currentDateTime);
+
+        //when
+        BookingVersions tomorrow = bookingRepository.findVersionsByItemOwnerId(owner.getId(),
+                currentDateTime.plusDays(1).plusHours(1));
+        bookingRepository.updateStatusIfWaiting(futureBooking.getId(), owner.getId(), BookingStatus.APPROVED);
+        BookingVersions approved = bookingRepository.findVersionsByItemOwnerId(owner.getId(), currentDateTime);
+
+        //then
+        assertEquals(2L, now.getTotal());
+        assertEquals(1L, now.getStartedBefore());
+        assertEquals(1L, now.getStartingAfter());
+        assertEquals(2L, tomorrow.getStartedBefore());
+        assertNotEquals(now.fingerprint(), tomorrow.fingerprint());
+        assertEquals(1L, approved.getVersionSum());
+        assertNotEquals(now.fingerprint(), approved.fingerprint());
+        assertEquals(0L, bookingRepository.findVersionsByItemOwnerId(booker.getId(), currentDateTime).getTotal());
+    }
+
+    private BookingFilter filter(BookingRole role, Long userId, State state, LocalDateTime currentTime) {
+        return BookingFilter.builder()
+                .role(role)
+                .userId(userId)
+                .state(state)
+                .currentTime(currentTime)
+                .build();
+    }
+
     private User createUser(Long userId) {
         return User.builder()
                 .name("User " + userId)
@@ -0,0 +1,221 @@
+package ru.practicum.shareit.booking.schedule;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @BeforeEach
+    public void before() {
+        bookingIntervalIndex = new BookingIntervalIndex(bookingRepository, Clock.systemDefaultZone(), true,
+                Duration.ofHours(1));
+    }
+
+    @Test
+    public void tryReserve_whenIndexIsNotReady_thenCheckInDatabase() {
+        //given
+        BookingSlot slot = new BookingSlot(1L, 1L, START, START.plusDays(1));
+
+        //when
+        when(bookingRepository.existsOverlapping(1L, 1L, slot.getStart(), slot.getEnd())).thenReturn(true);
+        boolean reserved = bookingIntervalIndex.tryReserve(slot);
+
+        //then
+        assertFalse(reserved);
+    }
+
+    @Test
+    public void tryReserve_whenWindowIsFree_thenReserveWithoutDatabase() {
+        //given
+        when(bookingRepository.findActiveSlotsEndingAfter(any())).thenReturn(List.of(
+                new BookingSlot(1L, 1L, START, START.plusDays(1)),
+                new BookingSlot(1L, 2L, START.plusDays(3), START.plusDays(4)),
+                new BookingSlot(2L, 3L, START.plusDays(1), START.plusDays(3))
+        ));
+        bookingIntervalIndex.rebuild();
+
+        //when
+        boolean reserved = bookingIntervalIndex.tryReserve(new BookingSlot(1L, 4L, START.plusDays(1), START.plusDays(3)));
+
+        //then
+        assertTrue(reserved);
+        verify(bookingRepository, never()).existsOverlapping(any(), any(), any(), any());
+    }
+
+    @Test
+    public void tryReserve_whenWindowOverlapsLongBooking_thenReject() {
+        //given
+        when(bookingRepository.findActiveSlotsEndingAfter(any())).thenReturn(List.of(
+                new BookingSlot(1L, 1L, START, START.plusDays(10)),
+                new BookingSlot(1L, 2L, START.plusDays(11), START.plusDays(12))
+        ));
+        when(bookingRepository.existsOverlapping(any(), any(), any(), any())).thenReturn(true);
+        bookingIntervalIndex.rebuild();
+
+        //when
+        boolean reserved = bookingIntervalIndex.tryReserve(new BookingSlot(1L, 3L, START.plusDays(5), START.plusDays(6)));
+
+        //then
+        assertFalse(reserved);
+        verify(bookingRepository).existsOverlapping(1L, 3L, START.plusDays(5), START.plusDays(6));
+    }
+
+    @Test
+    public void tryReserve_whenConflictIsNotInDatabase_thenReserveAndKeepConflict() {
+        //given
+        BookingSlot conflict = new BookingSlot(1L, 1L, START, START.plusDays(1));
+        when(bookingRepository.findActiveSlotsEndingAfter(any())).thenReturn(List.of(conflict));
+        when(bookingRepository.existsOverlapping(any(), any(), any(), any())).thenReturn(false);
+        bookingIntervalIndex.rebuild();
+
+        //when
+        BookingSlot first = new BookingSlot(1L, 2L, START, START.plusDays(1));
+        BookingSlot second = new BookingSlot(1L, 3L, START, START.plusDays(1));
+        boolean firstReserved = bookingIntervalIndex.tryReserve(first);
+        boolean secondReserved = bookingIntervalIndex.tryReserve(second);
+
+        //then
+        assertTrue(firstReserved);
+        assertTrue(secondReserved);
+        assertEquals(List.of(conflict, first, second),
+                bookingIntervalIndex.findActiveSlots(1L, START, START.plusDays(1)));
+        verify(bookingRepository, times(2)).existsOverlapping(any(), any(), any(), any());
+    }
+
+    @Test
+    public void tryReserve_whenSameBookingIsReservedAgain_thenDoNotConflictWithItself() {
+        //given
+        when(bookingRepository.findActiveSlotsEndingAfter(any())).thenReturn(List.of(
+                new BookingSlot(1L, 1L, START, START.plusDays(1))
+        ));
+        bookingIntervalIndex.rebuild();
+
+        //when
+        boolean reserved = bookingIntervalIndex.tryReserve(new BookingSlot(1L, 1L, START, START.plusDays(1)));
+
+        //then
+        assertTrue(reserved);
+        verify(bookingRepository, never()).existsOverlapping(any(), any(), any(), any());
+    }
+
+    @Test
+    public void release_whenInvokedOutsideTransaction_thenFreeWindow() {
+        //given
+        when(bookingRepository.findActiveSlotsEndingAfter(any())).thenReturn(List.of(
+                new BookingSlot(1L, 1L, START, START.plusDays(1))
+        ));
+        bookingIntervalIndex.rebuild();
+
+        //when
+        bookingIntervalIndex.release(1L, 1L);
+        boolean reserved = bookingIntervalIndex.tryReserve(new BookingSlot(1L, 2L, START, START.plusDays(1)));
+
+        //then
+        assertTrue(reserved);
+        verify(bookingRepository, never()).existsOverlapping(any(), any(), any(), any());
+    }
+
+    @Test
+    public void tryReserve_whenSweepIsDue_thenDropEndedSlots() {
+        //given
+        bookingIntervalIndex = new BookingIntervalIndex(bookingRepository, Clock.systemDefaultZone(), true,
+                Duration.ZERO);
+        LocalDateTime now = LocalDateTime.now();
+        when(bookingRepository.findActiveSlotsEndingAfter(any())).thenReturn(List.of(
+                new BookingSlot(1L, 1L, now.minusDays(30), now.minusDays(1)),
+                new BookingSlot(2L, 2L, now.minusDays(2), now.minusDays(1)),
+                new BookingSlot(1L, 3L, START, START.plusDays(1))
+        ));
+        bookingIntervalIndex.rebuild();
+
+        //when
+        boolean reserved = bookingIntervalIndex.tryReserve(new BookingSlot(1L, 4L, START.plusDays(2), START.plusDays(3)));
+
+        //then
+        assertTrue(reserved);
+        assertEquals(2, bookingIntervalIndex.getSlotCount());
+        verify(bookingRepository, never()).existsOverlapping(any(), any(), any(), any());
+    }
+
+    @Test
+    public void removeItem_whenInTransaction_thenSlotsAreDroppedOnlyAfterCommit() {
+        //given
+        when(bookingRepository.findActiveSlotsEndingAfter(any())).thenReturn(List.of(
+                new BookingSlot(1L, 1L, START, START.plusDays(1))
+        ));
+        bookingIntervalIndex.rebuild();
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            //when
+            bookingIntervalIndex.removeItem(1L);
+            int beforeCommit = bookingIntervalIndex.getSlotCount();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            //then
+            assertEquals(1, beforeCommit);
+            assertEquals(0, bookingIntervalIndex.getSlotCount());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void findActiveSlots_whenWindowIsAfterIndexHorizon_thenReturnOverlappingSlotsFromMemory() {
+        //given
+        BookingSlot first = new BookingSlot(1L, 1L, START, START.plusDays(1));
+        BookingSlot second = new BookingSlot(1L, 2L, START.plusDays(2), START.plusDays(3));
+        when(bookingRepository.findActiveSlotsEndingAfter(any())).thenReturn(List.of(
+                second,
+                first,
+                new BookingSlot(1L, 3L, START.plusDays(5), START.plusDays(6))
+        ));
+        bookingIntervalIndex.rebuild();
+
+        //when
+        List<BookingSlot> slots = bookingIntervalIndex.findActiveSlots(1L, START.plusHours(12), START.plusDays(4));
+
+        //then
+        assertEquals(List.of(first, second), slots);
+        verify(bookingRepository, never()).findActiveSlotsByItemId(any(), any(), any());
+    }
+
+    @Test
+    public void findActiveSlots_whenWindowStartsBeforeIndexHorizon_thenReadFromDatabase() {
+        //given
+        LocalDateTime from = LocalDateTime.now().minusDays(1);
+        LocalDateTime to = from.plusDays(2);
+        when(bookingRepository.findActiveSlotsEndingAfter(any())).thenReturn(List.of());
+        bookingIntervalIndex.rebuild();
+
+        //when
+        bookingIntervalIndex.findActiveSlots(1L, from, to);
+
+        //then
+        verify(bookingRepository).findActiveSlotsByItemId(1L, from, to);
+    }
+}
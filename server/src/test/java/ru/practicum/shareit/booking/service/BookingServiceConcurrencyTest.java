@@ -0,0 +1,165 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingIntervalIndex;
+import ru.practicum.shareit.exception.model.BadRequestException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookingServiceConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("Owner").email("owner@email.ru").build());
+        booker = userRepository.save(User.builder().name("Booker").email("booker@email.ru").build());
+        item = itemRepository.save(Item.builder()
+                .name("Item")
+                .description("Item description")
+                .available(true)
+                .ownerId(owner.getId())
+                .build());
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        userCache.clear();
+        bookingIntervalIndex.rebuild();
+    }
+
+    @Test
+    void createBooking_whenOverlappingBookingsAreCreatedConcurrently_thenOnlyOneIsCreated() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            CountDownLatch startSignal = new CountDownLatch(1);
+            List<Future<BookingOutputDto>> results = new ArrayList<>();
+
+            for (int i = 0; i < THREADS; i++) {
+                LocalDateTime bookingStart = start.plusDays(round).plusMinutes(10L * i);
+                BookingInputDto bookingInputDto = new BookingInputDto(
+                        item.getId(), bookingStart, bookingStart.plusHours(2));
+                results.add(executor.submit(() -> {
+                    startSignal.await();
+                    return bookingService.createBooking(bookingInputDto, booker.getId());
+                }));
+            }
+
+            startSignal.countDown();
+
+            int created = 0;
+            for (Future<BookingOutputDto> result : results) {
+                try {
+                    result.get(10, TimeUnit.SECONDS);
+                    created++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(BadRequestException.class, e.getCause());
+                }
+            }
+
+            assertEquals(1, created);
+        }
+
+        assertEquals(ROUNDS, bookingRepository.count());
+    }
+
+    @Test
+    void changeStatus_whenCalledConcurrently_thenOnlyOneRequestChangesStatus() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            Booking booking = bookingRepository.save(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .start(start.plusDays(round))
+                    .end(start.plusDays(round).plusHours(1))
+                    .status(BookingStatus.WAITING)
+                    .build());
+
+            CountDownLatch startSignal = new CountDownLatch(1);
+            List<Future<BookingOutputDto>> results = new ArrayList<>();
+
+            for (int i = 0; i < THREADS; i++) {
+                boolean approved = i % 2 == 0;
+                results.add(executor.submit(() -> {
+                    startSignal.await();
+                    return bookingService.changeStatus(owner.getId(), booking.getId(), approved);
+                }));
+            }
+
+            startSignal.countDown();
+
+            List<BookingOutputDto> winners = new ArrayList<>();
+            for (Future<BookingOutputDto> result : results) {
+                try {
+                    winners.add(result.get(10, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    assertInstanceOf(BadRequestException.class, e.getCause());
+                }
+            }
+
+            assertEquals(1, winners.size());
+
+            BookingStatus actualStatus = bookingRepository.findById(booking.getId()).orElseThrow().getStatus();
+            assertEquals(winners.get(0).getStatus(), actualStatus);
+            assertTrue(actualStatus == BookingStatus.APPROVED || actualStatus == BookingStatus.REJECTED);
+        }
+    }
+}
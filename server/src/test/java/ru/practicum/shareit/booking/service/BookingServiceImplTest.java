@@ -6,34 +6,44 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
+import ru.practicum.shareit.booking.enums.BookingRole;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.enums.State;
-import ru.practicum.shareit.booking.finder.booker.*;
-import ru.practicum.shareit.booking.finder.owner.*;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingFilter;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingIntervalIndex;
+import ru.practicum.shareit.booking.schedule.BookingSlot;
 import ru.practicum.shareit.exception.model.BadRequestException;
 import ru.practicum.shareit.exception.model.NotFountException;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.RequestClock;
 
-import java.lang.reflect.Field;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.time.ZoneOffset;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -42,56 +52,38 @@ import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class BookingServiceImplTest {
+    private static final Instant NOW = Instant.parse("2023-03-01T10:15:30Z");
+
     @Mock
     private BookingRepository bookingRepository;
     @Mock
+    private UserCache userCache;
+    @Mock
     private UserRepository userRepository;
     @Mock
     private ItemRepository itemRepository;
     @Mock
-    private List<BookingFinderByBooker> bookingFinderByBooker;
+    private CommentRepository commentRepository;
     @Mock
-    private List<BookingFinderByOwner> bookingFinderByOwner;
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Spy
+    private RequestClock requestClock = new RequestClock(Clock.fixed(NOW, ZoneOffset.UTC));
     @InjectMocks
     private BookingServiceImpl bookingService;
 
     @Captor
     private ArgumentCaptor<Booking> bookingArgumentCaptor;
 
-    private Map<State, BookingFinderByBooker> fillBookingFinderMap() {
-        try {
-            Field field = bookingService.getClass().getDeclaredField("bookingFinderByBooker");
-            field.setAccessible(true);
-            Map<State, BookingFinderByBooker> findersByBooker = (HashMap<State, BookingFinderByBooker>) field.get(bookingService);
-            findersByBooker.put(State.ALL, new AllBookingFinderByBooker(bookingRepository));
-            findersByBooker.put(State.WAITING, new WaitingBookingFinderByBooker(bookingRepository));
-            findersByBooker.put(State.APPROVED, new ApprovedBookingFinderByBooker(bookingRepository));
-            findersByBooker.put(State.REJECTED, new RejectedBookingFinderByBooker(bookingRepository));
-            findersByBooker.put(State.PAST, new PastBookingFinderByBooker(bookingRepository));
-            findersByBooker.put(State.CURRENT, new CurrentBookingFinderByBooker(bookingRepository));
-            findersByBooker.put(State.FUTURE, new FutureBookingFinderByBooker(bookingRepository));
-            return findersByBooker;
-        } catch (NoSuchFieldException | IllegalAccessException ex) {
-            throw new RuntimeException(ex.getMessage());
-        }
-    }
+    @Captor
+    private ArgumentCaptor<BookingFilter> bookingFilterArgumentCaptor;
+
+    private void assertFilter(BookingRole role, Long userId, State state) {
+        BookingFilter filter = bookingFilterArgumentCaptor.getValue();
 
-    private Map<State, BookingFinderByOwner> fillBookingOwnerMap() {
-        try {
-            Field field = bookingService.getClass().getDeclaredField("bookingFinderByOwner");
-            field.setAccessible(true);
-            Map<State, BookingFinderByOwner> findersByOwner = (HashMap<State, BookingFinderByOwner>) field.get(bookingService);
-            findersByOwner.put(State.ALL, new AllBookingFinderByOwner(bookingRepository));
-            findersByOwner.put(State.WAITING, new WaitingBookingFinderByOwner(bookingRepository));
-            findersByOwner.put(State.APPROVED, new ApprovedBookingFinderByOwner(bookingRepository));
-            findersByOwner.put(State.REJECTED, new RejectedBookingFinderByOwner(bookingRepository));
-            findersByOwner.put(State.PAST, new PastBookingFinderByOwner(bookingRepository));
-            findersByOwner.put(State.CURRENT, new CurrentBookingFinderByOwner(bookingRepository));
-            findersByOwner.put(State.FUTURE, new FutureBookingFinderByOwner(bookingRepository));
-            return findersByOwner;
-        } catch (NoSuchFieldException | IllegalAccessException ex) {
-            throw new RuntimeException(ex.getMessage());
-        }
+        assertEquals(role, filter.getRole());
+        assertEquals(userId, filter.getUserId());
+        assertEquals(state, filter.getState());
+        assertEquals(LocalDateTime.ofInstant(NOW, ZoneOffset.UTC), filter.getCurrentTime());
     }
 
     @Test
@@ -106,7 +98,7 @@ class BookingServiceImplTest {
         Long userId = 1L;
 
         //when
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userCache.findById(userId)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(
                 NotFountException.class,
@@ -135,8 +127,8 @@ class BookingServiceImplTest {
         Long userId = user.getId();
 
         //when
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(bookingInputDto.getItemId())).thenReturn(Optional.empty());
+        when(userCache.findById(userId)).thenReturn(Optional.of(UserMapper.toUserDto(user)));
+        when(itemRepository.findForUpdateById(bookingInputDto.getItemId())).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(
                 NotFountException.class,
@@ -172,8 +164,8 @@ class BookingServiceImplTest {
         Long userId = user.getId();
 
         //when
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(bookingInputDto.getItemId())).thenReturn(Optional.of(item));
+        when(userCache.findById(userId)).thenReturn(Optional.of(UserMapper.toUserDto(user)));
+        when(itemRepository.findForUpdateById(bookingInputDto.getItemId())).thenReturn(Optional.of(item));
 
         Exception exception = assertThrows(
                 BadRequestException.class,
@@ -209,8 +201,8 @@ class BookingServiceImplTest {
         Long userId = user.getId();
 
         //when
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(bookingInputDto.getItemId())).thenReturn(Optional.of(item));
+        when(userCache.findById(userId)).thenReturn(Optional.of(UserMapper.toUserDto(user)));
+        when(itemRepository.findForUpdateById(bookingInputDto.getItemId())).thenReturn(Optional.of(item));
 
         Exception exception = assertThrows(
                 RuntimeException.class,
@@ -253,13 +245,16 @@ class BookingServiceImplTest {
                 .start(bookingInputDto.getStart()).build();
 
         //when
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(bookingInputDto.getItemId())).thenReturn(Optional.of(item));
+        when(userCache.findById(userId)).thenReturn(Optional.of(UserMapper.toUserDto(user)));
+        when(itemRepository.findForUpdateById(bookingInputDto.getItemId())).thenReturn(Optional.of(item));
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
+        when(bookingIntervalIndex.tryReserve(any())).thenReturn(true);
 
-        bookingService.createBooking(bookingInputDto, userId);
+        BookingOutputDto actualBooking = bookingService.createBooking(bookingInputDto, userId);
 
         //then
         verify(bookingRepository, times(1)).save(booking);
+        assertEquals(List.of(), actualBooking.getItem().getComments());
     }
 
     @Test
@@ -287,8 +282,10 @@ class BookingServiceImplTest {
         Long userId = user.getId();
 
         //when
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(bookingInputDto.getItemId())).thenReturn(Optional.of(item));
+        when(userCache.findById(userId)).thenReturn(Optional.of(UserMapper.toUserDto(user)));
+        when(itemRepository.findForUpdateById(bookingInputDto.getItemId())).thenReturn(Optional.of(item));
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
+        when(bookingIntervalIndex.tryReserve(any())).thenReturn(true);
 
         bookingService.createBooking(bookingInputDto, userId);
 
@@ -324,8 +321,10 @@ class BookingServiceImplTest {
         Long userId = user.getId();
 
         //when
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(bookingInputDto.getItemId())).thenReturn(Optional.of(item));
+        when(userCache.findById(userId)).thenReturn(Optional.of(UserMapper.toUserDto(user)));
+        when(itemRepository.findForUpdateById(bookingInputDto.getItemId())).thenReturn(Optional.of(item));
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
+        when(bookingIntervalIndex.tryReserve(any())).thenReturn(true);
 
         bookingService.createBooking(bookingInputDto, userId);
 
@@ -335,6 +334,46 @@ class BookingServiceImplTest {
         assertEquals(BookingStatus.WAITING, actualBooking.getStatus());
     }
 
+    @Test
+    void createBooking_whenWindowIsAlreadyBooked_thenThrowException() {
+        //given
+        Item item = Item.builder()
+                .id(1L)
+                .description("new item")
+                .ownerId(2L)
+                .available(true)
+                .build();
+
+        BookingInputDto bookingInputDto = new BookingInputDto(
+                1L,
+                LocalDateTime.now(),
+                LocalDateTime.now().plusDays(2)
+        );
+
+        User user = User.builder()
+                .id(1L)
+                .name("New user")
+                .email("newUser@email.ru")
+                .build();
+
+        Long userId = user.getId();
+
+        //when
+        when(userCache.findById(userId)).thenReturn(Optional.of(UserMapper.toUserDto(user)));
+        when(itemRepository.findForUpdateById(bookingInputDto.getItemId())).thenReturn(Optional.of(item));
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
+        when(bookingIntervalIndex.tryReserve(any())).thenReturn(false);
+
+        Exception exception = assertThrows(
+                BadRequestException.class,
+                () -> bookingService.createBooking(bookingInputDto, userId));
+
+        //then
+        assertEquals("Item with id = " + item.getId() + " is already booked for this time.", exception.getMessage());
+        verify(bookingIntervalIndex).tryReserve(new BookingSlot(
+                item.getId(), null, bookingInputDto.getStart(), bookingInputDto.getEnd()));
+    }
+
     @Test
     public void getBooking_whenBookingIsNotExists_thenThrowException() {
         //given
@@ -367,7 +406,7 @@ class BookingServiceImplTest {
 
         //when
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userCache.existsById(userId)).thenReturn(false);
 
         Exception exception = assertThrows(
                 NotFountException.class,
@@ -408,7 +447,7 @@ class BookingServiceImplTest {
 
         //when
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userCache.existsById(userId)).thenReturn(true);
 
         Exception exception = assertThrows(
                 RuntimeException.class,
@@ -468,7 +507,7 @@ class BookingServiceImplTest {
 
         //when
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userCache.existsById(userId)).thenReturn(true);
 
         BookingOutputDto actualBookingOutputDto = bookingService.getBooking(bookingId, userId);
 
@@ -515,7 +554,7 @@ class BookingServiceImplTest {
 
         //when
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userCache.existsById(userId)).thenReturn(true);
 
         BookingOutputDto actualBookingOutputDto = bookingService.getBooking(bookingId, userId);
 
@@ -531,7 +570,7 @@ class BookingServiceImplTest {
         Pageable pageable = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(bookerId)).thenReturn(false);
+        when(userCache.existsById(bookerId)).thenReturn(false);
 
         Exception exception = assertThrows(NotFountException.class,
                 () -> bookingService.getBookingsByBookerIdAndState(bookerId, state, pageable));
@@ -540,123 +579,173 @@ class BookingServiceImplTest {
         assertEquals("User with id = " + bookerId + " not found.", exception.getMessage());
     }
 
+    @Test
+    public void getBookingsByBookerIdAndState_whenCursorIsNull_thenReturnFirstPageSortedByStartAndId() {
+        //given
+        Long bookerId = 1L;
+        State state = State.WAITING;
+
+        //when
+        when(userCache.existsById(bookerId)).thenReturn(true);
+        bookingService.getBookingsByBookerIdAndState(bookerId, state, null, 10);
+
+        //then
+        verify(bookingRepository, times(1))
+                .findBookings(bookingFilterArgumentCaptor.capture(), isNull(), eq(10));
+        assertFilter(BookingRole.BOOKER, bookerId, state);
+    }
+
+    @Test
+    public void getBookingsByBookerIdAndState_whenCursorIsGiven_thenSeekAfterCursor() {
+        //given
+        Long bookerId = 1L;
+        State state = State.WAITING;
+        BookingCursor cursor = new BookingCursor(LocalDateTime.now(), 5L);
+
+        //when
+        when(userCache.existsById(bookerId)).thenReturn(true);
+        bookingService.getBookingsByBookerIdAndState(bookerId, state, cursor, 10);
+
+        //then
+        verify(bookingRepository, times(1))
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(cursor), eq(10));
+        assertFilter(BookingRole.BOOKER, bookerId, state);
+    }
+
+    @Test
+    public void getBookingsByOwnerIdAndState_whenCursorIsGiven_thenSeekAfterCursor() {
+        //given
+        Long ownerId = 1L;
+        State state = State.ALL;
+        BookingCursor cursor = new BookingCursor(LocalDateTime.now(), 5L);
+
+        //when
+        when(userCache.existsById(ownerId)).thenReturn(true);
+        bookingService.getBookingsByOwnerIdAndState(ownerId, state, cursor, 10);
+
+        //then
+        verify(bookingRepository, times(1))
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(cursor), eq(10));
+        assertFilter(BookingRole.OWNER, ownerId, state);
+    }
+
     @Test
     public void getBookingsByBookerIdAndState_whenStateWaiting_thenInvokeBookingRepository() {
         //given
-        fillBookingFinderMap();
         Long bookerId = 1L;
         State state = State.WAITING;
         Pageable pageable = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(bookerId)).thenReturn(true);
+        when(userCache.existsById(bookerId)).thenReturn(true);
         bookingService.getBookingsByBookerIdAndState(bookerId, state, pageable);
 
         //then
         verify(bookingRepository, times(1))
-                .findByBookerIdAndStatus(bookerId, BookingStatus.WAITING, pageable);
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(pageable));
+        assertFilter(BookingRole.BOOKER, bookerId, state);
     }
 
     @Test
     public void getBookingsByBookerIdAndState_whenStateRejected_thenInvokeBookingRepository() {
         //given
-        fillBookingFinderMap();
         Long bookerId = 1L;
         State state = State.REJECTED;
         Pageable pageable = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(bookerId)).thenReturn(true);
+        when(userCache.existsById(bookerId)).thenReturn(true);
         bookingService.getBookingsByBookerIdAndState(bookerId, state, pageable);
 
         //then
         verify(bookingRepository, times(1))
-                .findByBookerIdAndStatus(bookerId, BookingStatus.REJECTED, pageable);
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(pageable));
+        assertFilter(BookingRole.BOOKER, bookerId, state);
     }
 
     @Test
     public void getBookingsByBookerIdAndState_whenStateApproved_thenInvokeBookingRepository() {
         //given
-        fillBookingFinderMap();
         Long bookerId = 1L;
         State state = State.APPROVED;
         Pageable pageable = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(bookerId)).thenReturn(true);
+        when(userCache.existsById(bookerId)).thenReturn(true);
         bookingService.getBookingsByBookerIdAndState(bookerId, state, pageable);
 
         //then
         verify(bookingRepository, times(1))
-                .findByBookerIdAndStatus(bookerId, BookingStatus.APPROVED, pageable);
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(pageable));
+        assertFilter(BookingRole.BOOKER, bookerId, state);
     }
 
     @Test
     public void getBookingsByBookerIdAndState_whenStateAll_thenInvokeBookingRepository() {
         //given
-        fillBookingFinderMap();
         Long bookerId = 1L;
         State state = State.ALL;
         Pageable pageable = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(bookerId)).thenReturn(true);
+        when(userCache.existsById(bookerId)).thenReturn(true);
         bookingService.getBookingsByBookerIdAndState(bookerId, state, pageable);
 
         //then
         verify(bookingRepository, times(1))
-                .findByBookerId(bookerId, pageable);
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(pageable));
+        assertFilter(BookingRole.BOOKER, bookerId, state);
     }
 
     @Test
     public void getBookingsByBookerIdAndState_whenStateCurren_thenInvokeBookingRepository() {
         //given
-        fillBookingFinderMap();
         Long bookerId = 1L;
         State state = State.CURRENT;
         Pageable pageable = PageRequest.of(1, 1, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(bookerId)).thenReturn(true);
+        when(userCache.existsById(bookerId)).thenReturn(true);
         bookingService.getBookingsByBookerIdAndState(bookerId, state, pageable);
 
         //then
         verify(bookingRepository, times(1))
-                .findCurrentBookingByBookerId(bookerId, pageable);
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(pageable));
+        assertFilter(BookingRole.BOOKER, bookerId, state);
     }
 
     @Test
     public void getBookingsByBookerIdAndState_whenStatePast_thenInvokeBookingRepository() {
         //given
-        fillBookingFinderMap();
         Long bookerId = 1L;
         State state = State.PAST;
         Pageable pageable = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(bookerId)).thenReturn(true);
+        when(userCache.existsById(bookerId)).thenReturn(true);
         bookingService.getBookingsByBookerIdAndState(bookerId, state, pageable);
 
         //then
         verify(bookingRepository, times(1))
-                .findByBookerIdAndEndIsBefore(eq(bookerId), any(), eq(pageable));
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(pageable));
+        assertFilter(BookingRole.BOOKER, bookerId, state);
     }
 
     @Test
     public void getBookingsByBookerIdAndState_whenStateFuture_thenInvokeBookingRepository() {
         //given
-        fillBookingFinderMap();
         Long bookerId = 1L;
         State state = State.FUTURE;
         Pageable pageable = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(bookerId)).thenReturn(true);
+        when(userCache.existsById(bookerId)).thenReturn(true);
         bookingService.getBookingsByBookerIdAndState(bookerId, state, pageable);
 
         //then
         verify(bookingRepository, times(1))
-                .findByBookerIdAndStartIsAfter(eq(bookerId), any(), eq(pageable));
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(pageable));
+        assertFilter(BookingRole.BOOKER, bookerId, state);
     }
 
     @Test
@@ -667,7 +756,7 @@ class BookingServiceImplTest {
         Pageable pageable = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(ownerId)).thenReturn(false);
+        when(userCache.existsById(ownerId)).thenReturn(false);
 
         Exception exception = assertThrows(NotFountException.class,
                 () -> bookingService.getBookingsByOwnerIdAndState(ownerId, state, pageable));
@@ -679,120 +768,120 @@ class BookingServiceImplTest {
     @Test
     public void getBookingsByOwnerIdAndState_whenStateWaiting_thenInvokeBookingRepository() {
         //given
-        fillBookingOwnerMap();
         Long ownerId = 1L;
         State state = State.WAITING;
         Pageable pageable = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(ownerId)).thenReturn(true);
+        when(userCache.existsById(ownerId)).thenReturn(true);
         bookingService.getBookingsByOwnerIdAndState(ownerId, state, pageable);
 
         //then
         verify(bookingRepository, times(1))
-                .findByItemOwnerIdAndStatus(ownerId, BookingStatus.WAITING, pageable);
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(pageable));
+        assertFilter(BookingRole.OWNER, ownerId, state);
     }
 
     @Test
     public void getBookingsByOwnerIdAndState_whenStateRejected_thenInvokeBookingRepository() {
         //given
-        fillBookingOwnerMap();
         Long ownerId = 1L;
         State state = State.REJECTED;
         Pageable pageable = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(ownerId)).thenReturn(true);
+        when(userCache.existsById(ownerId)).thenReturn(true);
         bookingService.getBookingsByOwnerIdAndState(ownerId, state, pageable);
 
         //then
         verify(bookingRepository, times(1))
-                .findByItemOwnerIdAndStatus(ownerId, BookingStatus.REJECTED, pageable);
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(pageable));
+        assertFilter(BookingRole.OWNER, ownerId, state);
     }
 
     @Test
     public void getBookingsByOwnerIdAndState_whenStateApproved_thenInvokeBookingRepository() {
         //given
-        fillBookingOwnerMap();
         Long ownerId = 1L;
         State state = State.APPROVED;
         Pageable pageable = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(ownerId)).thenReturn(true);
+        when(userCache.existsById(ownerId)).thenReturn(true);
         bookingService.getBookingsByOwnerIdAndState(ownerId, state, pageable);
 
         //then
         verify(bookingRepository, times(1))
-                .findByItemOwnerIdAndStatus(ownerId, BookingStatus.APPROVED, pageable);
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(pageable));
+        assertFilter(BookingRole.OWNER, ownerId, state);
     }
 
     @Test
     public void getBookingsByOwnerIdAndState_whenStateAll_thenInvokeBookingRepository() {
         //given
-        fillBookingOwnerMap();
         Long ownerId = 1L;
         State state = State.ALL;
         Pageable pageable = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(ownerId)).thenReturn(true);
+        when(userCache.existsById(ownerId)).thenReturn(true);
         bookingService.getBookingsByOwnerIdAndState(ownerId, state, pageable);
 
         //then
         verify(bookingRepository, times(1))
-                .findByItemOwnerId(ownerId, pageable);
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(pageable));
+        assertFilter(BookingRole.OWNER, ownerId, state);
     }
 
     @Test
     public void getBookingsByOwnerIdAndState_whenStateCurren_thenInvokeBookingRepository() {
         //given
-        fillBookingOwnerMap();
         Long ownerId = 1L;
         State state = State.CURRENT;
         Pageable pageable = PageRequest.of(1, 1, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(ownerId)).thenReturn(true);
+        when(userCache.existsById(ownerId)).thenReturn(true);
         bookingService.getBookingsByOwnerIdAndState(ownerId, state, pageable);
 
         //then
         verify(bookingRepository, times(1))
-                .findCurrentBookingByItemOwnerId(ownerId, pageable);
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(pageable));
+        assertFilter(BookingRole.OWNER, ownerId, state);
     }
 
     @Test
     public void getBookingsByOwnerIdAndState_whenStatePast_thenInvokeBookingRepository() {
         //given
-        fillBookingOwnerMap();
         Long ownerId = 1L;
         State state = State.PAST;
         Pageable pageable = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(ownerId)).thenReturn(true);
+        when(userCache.existsById(ownerId)).thenReturn(true);
         bookingService.getBookingsByOwnerIdAndState(ownerId, state, pageable);
 
         //then
         verify(bookingRepository, times(1))
-                .findByItemOwnerIdAndEndIsBefore(eq(ownerId), any(), eq(pageable));
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(pageable));
+        assertFilter(BookingRole.OWNER, ownerId, state);
     }
 
     @Test
     public void getBookingsByOwnerIdAndState_whenStateFuture_thenInvokeBookingRepository() {
         //given
-        fillBookingOwnerMap();
         Long ownerId = 1L;
         State state = State.FUTURE;
         Pageable pageable = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "start"));
 
         //when
-        when(userRepository.existsById(ownerId)).thenReturn(true);
+        when(userCache.existsById(ownerId)).thenReturn(true);
         bookingService.getBookingsByOwnerIdAndState(ownerId, state, pageable);
 
         //then
         verify(bookingRepository, times(1))
-                .findByItemOwnerIdAndStartIsAfter(eq(ownerId), any(), eq(pageable));
+                .findBookings(bookingFilterArgumentCaptor.capture(), eq(pageable));
+        assertFilter(BookingRole.OWNER, ownerId, state);
     }
 
     @Test
@@ -803,7 +892,7 @@ class BookingServiceImplTest {
         Boolean approved = false;
 
         //when
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userCache.existsById(userId)).thenReturn(false);
         Exception exception = assertThrows(NotFountException.class,
                 () -> bookingService.changeStatus(userId, bookingId, approved));
 
@@ -818,14 +907,9 @@ class BookingServiceImplTest {
         Long bookingId = 1L;
         Boolean approved = false;
 
-        User user = User.builder()
-                .id(1L)
-                .name("New user")
-                .email("newUser@email.ru")
-                .build();
-
         //when
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userCache.existsById(userId)).thenReturn(true);
+        when(bookingRepository.updateStatusIfWaiting(bookingId, userId, BookingStatus.REJECTED)).thenReturn(0);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.empty());
         Exception exception = assertThrows(NotFountException.class,
                 () -> bookingService.changeStatus(userId, bookingId, approved));
@@ -864,7 +948,8 @@ class BookingServiceImplTest {
                 .build();
 
         //given
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userCache.existsById(userId)).thenReturn(true);
+        when(bookingRepository.updateStatusIfWaiting(bookingId, userId, BookingStatus.REJECTED)).thenReturn(0);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
         Exception exception = assertThrows(BadRequestException.class,
                 () -> bookingService.changeStatus(userId, bookingId, approved));
@@ -903,7 +988,8 @@ class BookingServiceImplTest {
                 .build();
 
         //given
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userCache.existsById(userId)).thenReturn(true);
+        when(bookingRepository.updateStatusIfWaiting(bookingId, userId, BookingStatus.REJECTED)).thenReturn(0);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
         Exception exception = assertThrows(BadRequestException.class,
                 () -> bookingService.changeStatus(userId, bookingId, approved));
@@ -942,7 +1028,8 @@ class BookingServiceImplTest {
                 .build();
 
         //given
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userCache.existsById(userId)).thenReturn(true);
+        when(bookingRepository.updateStatusIfWaiting(bookingId, userId, BookingStatus.REJECTED)).thenReturn(0);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
         Exception exception = assertThrows(NotFountException.class,
                 () -> bookingService.changeStatus(userId, bookingId, approved));
@@ -977,18 +1064,19 @@ class BookingServiceImplTest {
                 .item(item)
                 .start(LocalDateTime.now())
                 .end(LocalDateTime.now().plusDays(2))
-                .status(BookingStatus.WAITING)
+                .status(BookingStatus.REJECTED)
                 .build();
 
         //given
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userCache.existsById(userId)).thenReturn(true);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        bookingService.changeStatus(userId, bookingId, approved);
+        when(bookingRepository.updateStatusIfWaiting(bookingId, userId, BookingStatus.REJECTED)).thenReturn(1);
+        BookingOutputDto actualBookingOutputDto = bookingService.changeStatus(userId, bookingId, approved);
 
         //then
-        verify(bookingRepository).save(bookingArgumentCaptor.capture());
-        Booking actualBooking = bookingArgumentCaptor.getValue();
-        assertEquals(BookingStatus.REJECTED, actualBooking.getStatus());
+        assertEquals(BookingStatus.REJECTED, actualBookingOutputDto.getStatus());
+        verify(bookingRepository, never()).save(any());
+        verify(bookingIntervalIndex).release(item.getId(), bookingId);
     }
 
     @Test
@@ -1017,18 +1105,19 @@ class BookingServiceImplTest {
                 .item(item)
                 .start(LocalDateTime.now())
                 .end(LocalDateTime.now().plusDays(2))
-                .status(BookingStatus.WAITING)
+                .status(BookingStatus.APPROVED)
                 .build();
 
         //given
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userCache.existsById(userId)).thenReturn(true);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        bookingService.changeStatus(userId, bookingId, approved);
+        when(bookingRepository.updateStatusIfWaiting(bookingId, userId, BookingStatus.APPROVED)).thenReturn(1);
+        when(bookingIntervalIndex.tryReserve(any())).thenReturn(true);
+        BookingOutputDto actualBookingOutputDto = bookingService.changeStatus(userId, bookingId, approved);
 
         //then
-        verify(bookingRepository).save(bookingArgumentCaptor.capture());
-        Booking actualBooking = bookingArgumentCaptor.getValue();
-        assertEquals(BookingStatus.APPROVED, actualBooking.getStatus());
+        assertEquals(BookingStatus.APPROVED, actualBookingOutputDto.getStatus());
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
@@ -1057,7 +1146,7 @@ class BookingServiceImplTest {
                 .item(item)
                 .start(LocalDateTime.now())
                 .end(LocalDateTime.now().plusDays(2))
-                .status(BookingStatus.WAITING)
+                .status(BookingStatus.APPROVED)
                 .build();
 
         BookingOutputDto expectedBookingOutputDto = new BookingOutputDto(
@@ -1070,11 +1159,182 @@ class BookingServiceImplTest {
         );
 
         //given
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userCache.existsById(userId)).thenReturn(true);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatusIfWaiting(bookingId, userId, BookingStatus.APPROVED)).thenReturn(1);
+        when(bookingIntervalIndex.tryReserve(any())).thenReturn(true);
         BookingOutputDto actualBookingOutputDto = bookingService.changeStatus(userId, bookingId, approved);
 
         //then
         assertEquals(expectedBookingOutputDto, actualBookingOutputDto);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void changeStatus_whenStatusChangedConcurrently_thenThrowException() {
+        //given
+        Long userId = 1L;
+        Long bookingId = 1L;
+        Boolean approved = true;
+
+        User user = User.builder()
+                .id(1L)
+                .name("New user")
+                .email("newUser@email.ru")
+                .build();
+
+        Item item = Item.builder()
+                .id(1L)
+                .description("new item")
+                .ownerId(1L)
+                .available(true)
+                .build();
+
+        Booking booking = Booking.builder()
+                .id(1L)
+                .booker(user)
+                .item(item)
+                .start(LocalDateTime.now())
+                .end(LocalDateTime.now().plusDays(2))
+                .status(BookingStatus.WAITING)
+                .build();
+
+        when(userCache.existsById(userId)).thenReturn(true);
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatusIfWaiting(bookingId, userId, BookingStatus.APPROVED)).thenReturn(0);
+
+        //when
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> bookingService.changeStatus(userId, bookingId, approved));
+
+        //then
+        assertEquals("Booking status can only be changed from waiting status.", exception.getMessage());
+        verify(bookingIntervalIndex, never()).tryReserve(any());
+    }
+
+    @Test
+    public void changeStatuses_whenUserIsNotExists_thenThrowException() {
+        //given
+        Long userId = 1L;
+        when(userCache.existsById(userId)).thenReturn(false);
+
+        //when
+        NotFountException exception = assertThrows(NotFountException.class,
+                () -> bookingService.changeStatuses(userId, List.of(new BookingStatusChangeDto(1L, true))));
+
+        //then
+        assertEquals("User with id = " + userId + " not found.", exception.getMessage());
+        verify(bookingRepository, never()).findAllForUpdateByIdIn(any());
+    }
+
+    @Test
+    public void changeStatuses_whenBatchIsMixed_thenReturnResultForEveryChange() {
+        //given
+        Long ownerId = 1L;
+
+        User owner = User.builder()
+                .id(ownerId)
+                .name("Owner")
+                .email("owner@email.ru")
+                .build();
+
+        User booker = User.builder()
+                .id(2L)
+                .name("Booker")
+                .email("booker@email.ru")
+                .build();
+
+        Item ownItem = Item.builder()
+                .id(1L)
+                .description("own item")
+                .ownerId(ownerId)
+                .available(true)
+                .build();
+
+        Item foreignItem = Item.builder()
+                .id(2L)
+                .description("foreign item")
+                .ownerId(3L)
+                .available(true)
+                .build();
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking toApprove = Booking.builder().id(1L).booker(booker).item(ownItem)
+                .start(start).end(start.plusDays(1)).status(BookingStatus.WAITING).build();
+        Booking toReject = Booking.builder().id(2L).booker(booker).item(ownItem)
+                .start(start.plusDays(2)).end(start.plusDays(3)).status(BookingStatus.WAITING).build();
+        Booking alreadyApproved = Booking.builder().id(3L).booker(booker).item(ownItem)
+                .start(start.plusDays(4)).end(start.plusDays(5)).status(BookingStatus.APPROVED).build();
+        Booking notOwned = Booking.builder().id(4L).booker(owner).item(foreignItem)
+                .start(start).end(start.plusDays(1)).status(BookingStatus.WAITING).build();
+
+        List<BookingStatusChangeDto> changes = List.of(
+                new BookingStatusChangeDto(1L, true),
+                new BookingStatusChangeDto(2L, false),
+                new BookingStatusChangeDto(3L, false),
+                new BookingStatusChangeDto(4L, true),
+                new BookingStatusChangeDto(5L, true),
+                new BookingStatusChangeDto(1L, false)
+        );
+
+        when(userCache.existsById(ownerId)).thenReturn(true);
+        when(bookingRepository.findAllForUpdateByIdIn(Set.of(1L, 2L, 3L, 4L, 5L)))
+                .thenReturn(List.of(toApprove, toReject, alreadyApproved, notOwned));
+        when(bookingIntervalIndex.tryReserve(any())).thenReturn(true);
+
+        //when
+        List<BookingStatusChangeResultDto> results = bookingService.changeStatuses(ownerId, changes);
+
+        //then
+        assertEquals(List.of(
+                BookingStatusChangeResultDto.changed(1L, BookingStatus.APPROVED),
+                BookingStatusChangeResultDto.changed(2L, BookingStatus.REJECTED),
+                BookingStatusChangeResultDto.failed(3L, "Booking status can only be changed from waiting status."),
+                BookingStatusChangeResultDto.failed(4L, "Booking status can only be changed by item's owner."),
+                BookingStatusChangeResultDto.failed(5L, "Booking with id = 5 not found."),
+                BookingStatusChangeResultDto.failed(1L, "Booking with id = 1 is repeated in the request.")
+        ), results);
+        assertEquals(BookingStatus.APPROVED, toApprove.getStatus());
+        assertEquals(BookingStatus.REJECTED, toReject.getStatus());
+        assertEquals(BookingStatus.APPROVED, alreadyApproved.getStatus());
+        assertEquals(BookingStatus.WAITING, notOwned.getStatus());
+        verify(bookingIntervalIndex).tryReserve(new BookingSlot(1L, 1L, toApprove.getStart(), toApprove.getEnd()));
+        verify(bookingIntervalIndex).release(1L, 2L);
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    public void changeStatuses_whenSlotIsTaken_thenLeaveBookingWaiting() {
+        //given
+        Long ownerId = 1L;
+
+        User booker = User.builder()
+                .id(2L)
+                .name("Booker")
+                .email("booker@email.ru")
+                .build();
+
+        Item item = Item.builder()
+                .id(1L)
+                .description("item")
+                .ownerId(ownerId)
+                .available(true)
+                .build();
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking booking = Booking.builder().id(1L).booker(booker).item(item)
+                .start(start).end(start.plusDays(1)).status(BookingStatus.WAITING).build();
+
+        when(userCache.existsById(ownerId)).thenReturn(true);
+        when(bookingRepository.findAllForUpdateByIdIn(Set.of(1L))).thenReturn(List.of(booking));
+        when(bookingIntervalIndex.tryReserve(any())).thenReturn(false);
+
+        //when
+        List<BookingStatusChangeResultDto> results = bookingService.changeStatuses(
+                ownerId, List.of(new BookingStatusChangeDto(1L, true)));
+
+        //then
+        assertEquals(List.of(BookingStatusChangeResultDto.failed(1L,
+                "Item with id = 1 is already booked for this time.")), results);
+        assertEquals(BookingStatus.WAITING, booking.getStatus());
+    }
+}
@@ -0,0 +1,281 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.enums.State;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingIntervalIndex;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.metrics.StatementRecorder;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.practicum.shareit.metrics.StatementRecorder.assertSameStatementCount;
+import static ru.practicum.shareit.metrics.StatementRecorder.record;
+
+/**
+ * Pins the number of SQL statements of every {@link BookingService} method: a call has to prepare as many
+ * statements after more bookings, items and comments were added as before.
+ */
+@SpringBootTest(properties = StatementRecorder.PROPERTY)
+class BookingServiceQueryCountTest {
+    private static final Pageable PAGEABLE = PageRequest.of(0, 100, Sort.by(Sort.Direction.DESC, "start"));
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private User owner;
+    private User booker;
+    private Item item;
+    private int slot;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("Owner").email("owner@email.ru").build());
+        booker = userRepository.save(User.builder().name("Booker").email("booker@email.ru").build());
+        item = createItem();
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        userCache.clear();
+        bookingIntervalIndex.rebuild();
+    }
+
+    @Test
+    void createBooking_whenMoreBookingsExist_thenStatementCountStaysTheSame() {
+        //given
+        bookingService.createBooking(nextBookingInput(), booker.getId());
+
+        //when
+        List<String> before = record(() -> bookingService.createBooking(nextBookingInput(), booker.getId()));
+        addBookedItems(5);
+        List<String> after = record(() -> bookingService.createBooking(nextBookingInput(), booker.getId()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void getBooking_whenItemHasMoreComments_thenStatementCountStaysTheSame() {
+        //given
+        Booking booking = createBooking(item, BookingStatus.APPROVED);
+        createComment(item);
+
+        //when
+        List<String> before = recordTwice(() -> bookingService.getBooking(booking.getId(), booker.getId()));
+        for (int i = 0; i < 5; i++) {
+            createComment(item);
+        }
+        List<String> after = recordTwice(() -> bookingService.getBooking(booking.getId(), booker.getId()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void getBookingsByBookerIdAndState_whenMoreItemsAreBooked_thenStatementCountStaysTheSame() {
+        //given
+        addBookedItems(2);
+
+        //when
+        List<String> before = recordTwice(() -> bookingService.getBookingsByBookerIdAndState(
+                booker.getId(), State.ALL, PAGEABLE));
+        addBookedItems(5);
+        List<String> after = recordTwice(() -> assertEquals(7, bookingService.getBookingsByBookerIdAndState(
+                booker.getId(), State.ALL, PAGEABLE).size()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void getBookingsByBookerIdAndStateWithCursor_whenMoreItemsAreBooked_thenStatementCountStaysTheSame() {
+        //given
+        addBookedItems(2);
+
+        //when
+        List<String> before = recordTwice(() -> bookingService.getBookingsByBookerIdAndState(
+                booker.getId(), State.ALL, null, 100));
+        addBookedItems(5);
+        List<String> after = recordTwice(() -> assertEquals(7, bookingService.getBookingsByBookerIdAndState(
+                booker.getId(), State.ALL, null, 100).size()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void getBookingsByOwnerIdAndState_whenMoreItemsAreBooked_thenStatementCountStaysTheSame() {
+        //given
+        addBookedItems(2);
+
+        //when
+        List<String> before = recordTwice(() -> bookingService.getBookingsByOwnerIdAndState(
+                owner.getId(), State.ALL, PAGEABLE));
+        addBookedItems(5);
+        List<String> after = recordTwice(() -> assertEquals(7, bookingService.getBookingsByOwnerIdAndState(
+                owner.getId(), State.ALL, PAGEABLE).size()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void getBookingsByOwnerIdAndStateWithCursor_whenMoreItemsAreBooked_thenStatementCountStaysTheSame() {
+        //given
+        addBookedItems(2);
+
+        //when
+        List<String> before = recordTwice(() -> bookingService.getBookingsByOwnerIdAndState(
+                owner.getId(), State.ALL, null, 100));
+        addBookedItems(5);
+        List<String> after = recordTwice(() -> assertEquals(7, bookingService.getBookingsByOwnerIdAndState(
+                owner.getId(), State.ALL, null, 100).size()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void changeStatus_whenMoreBookingsExist_thenStatementCountStaysTheSame() {
+        //given
+        List<Booking> waiting = createWaitingBookings(3);
+        bookingService.changeStatus(owner.getId(), waiting.get(0).getId(), true);
+
+        //when
+        List<String> before = record(() -> bookingService.changeStatus(owner.getId(), waiting.get(1).getId(), true));
+        addBookedItems(5);
+        createComment(item);
+        List<String> after = record(() -> bookingService.changeStatus(owner.getId(), waiting.get(2).getId(), true));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void changeStatuses_whenMoreBookingsAreChanged_thenStatementCountStaysTheSame() {
+        //given
+        List<Booking> waiting = createWaitingBookings(9);
+        bookingService.changeStatuses(owner.getId(), changes(waiting.subList(0, 1)));
+
+        //when
+        List<String> before = record(() -> bookingService.changeStatuses(
+                owner.getId(), changes(waiting.subList(1, 3))));
+        List<String> after = record(() -> bookingService.changeStatuses(
+                owner.getId(), changes(waiting.subList(3, 9))));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    /**
+     * Records the second of two identical calls, so user cache misses of the first one are not counted.
+     */
+    private List<String> recordTwice(Runnable call) {
+        call.run();
+        return record(call);
+    }
+
+    private void addBookedItems(int count) {
+        for (int i = 0; i < count; i++) {
+            Item bookedItem = createItem();
+            createBooking(bookedItem, BookingStatus.APPROVED);
+            createComment(bookedItem);
+        }
+    }
+
+    private List<Booking> createWaitingBookings(int count) {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            bookings.add(createBooking(item, BookingStatus.WAITING));
+        }
+        bookingIntervalIndex.rebuild();
+        return bookings;
+    }
+
+    private List<BookingStatusChangeDto> changes(List<Booking> bookings) {
+        List<BookingStatusChangeDto> changes = new ArrayList<>();
+        for (Booking booking : bookings) {
+            changes.add(new BookingStatusChangeDto(booking.getId(), true));
+        }
+        return changes;
+    }
+
+    private BookingInputDto nextBookingInput() {
+        slot++;
+        return new BookingInputDto(item.getId(), now.plusDays(slot), now.plusDays(slot).plusHours(1));
+    }
+
+    private Item createItem() {
+        return itemRepository.save(Item.builder()
+                .name("Item")
+                .description("Item description")
+                .available(true)
+                .ownerId(owner.getId())
+                .build());
+    }
+
+    private Booking createBooking(Item bookedItem, BookingStatus status) {
+        slot++;
+        return bookingRepository.save(Booking.builder()
+                .item(bookedItem)
+                .booker(booker)
+                .start(now.plusDays(slot))
+                .end(now.plusDays(slot).plusHours(1))
+                .status(status)
+                .build());
+    }
+
+    private void createComment(Item commentedItem) {
+        commentRepository.save(Comment.builder()
+                .text("Comment")
+                .item(commentedItem)
+                .author(booker)
+                .created(now)
+                .build());
+    }
+}
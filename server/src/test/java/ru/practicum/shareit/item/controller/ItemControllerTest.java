@@ -11,15 +11,21 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.exception.model.BadRequestException;
 import ru.practicum.shareit.exception.model.ForbiddenException;
 import ru.practicum.shareit.exception.model.NotFountException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.TimeIntervalDto;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -30,6 +36,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ItemController.class)
@@ -38,6 +45,9 @@ class ItemControllerTest {
     @MockBean
     public ItemService itemService;
 
+    @MockBean
+    public ItemImportService itemImportService;
+
     @Autowired
     private final ObjectMapper objectMapper = new ObjectMapper()
             .registerModule(new JavaTimeModule());
@@ -65,6 +75,33 @@ class ItemControllerTest {
     }
 
 
+    @Test
+    @SneakyThrows
+    public void importItems_whenBodyIsNdjson_thenInvokeItemImportService() {
+        //given
+        String body = "{\"name\":\"Drill\",\"description\":\"Drill\",\"available\":true}\n";
+        ItemImportResultDto result = new ItemImportResultDto(1, List.of());
+        ArgumentCaptor<InputStream> bodyCaptor = ArgumentCaptor.forClass(InputStream.class);
+
+        when(itemImportService.importItems(eq(userId), any())).thenReturn(result);
+
+        //when
+        String response = mockMvc.perform(post("/items/bulk")
+                        .header("X-Sharer-User-Id", userId)
+                        .content(body)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        //then
+        verify(itemImportService).importItems(eq(userId), bodyCaptor.capture());
+        assertEquals(objectMapper.writeValueAsString(result), response);
+    }
+
     @Test
     @SneakyThrows
     public void createItem_whenItemDtoIsValid_thenInvokeItemServiceAndReturnHttpStatusCode201() {
@@ -377,6 +414,66 @@ class ItemControllerTest {
         assertEquals(itemId, itemIdCaptor.getValue());
     }
 
+    @Test
+    @SneakyThrows
+    void getItemById_whenIfNoneMatchIsCurrent_thenReturnNotModifiedWithoutLoadingItem() {
+        //given
+        String etag = "\"1f3870be274f6c49b3e31a0c6728957f\"";
+
+        //when
+        when(itemService.getItemByIdETag(userId, 10L)).thenReturn(etag);
+
+        mockMvc.perform(get("/items/10")
+                        .header("X-Sharer-User-Id", userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        //then
+        verify(itemService, never()).getItemById(any(), any());
+    }
+
+    @Test
+    @SneakyThrows
+    void getItemById_whenIfNoneMatchIsOutdated_thenReturnItemWithCurrentETag() {
+        //given
+        String etag = "\"1f3870be274f6c49b3e31a0c6728957f\"";
+
+        //when
+        when(itemService.getItemByIdETag(userId, 10L)).thenReturn(etag);
+        when(itemService.getItemById(userId, 10L)).thenReturn(itemDto);
+
+        mockMvc.perform(get("/items/10")
+                        .header("X-Sharer-User-Id", userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        //then
+        verify(itemService).getItemById(userId, 10L);
+    }
+
+    @Test
+    @SneakyThrows
+    void getItemsByUserId_whenIfNoneMatchIsCurrent_thenReturnNotModifiedWithoutLoadingItems() {
+        //given
+        String etag = "\"1f3870be274f6c49b3e31a0c6728957f\"";
+
+        //when
+        when(itemService.getItemsByOwnerIdETag(userId)).thenReturn(etag);
+
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+
+        //then
+        verify(itemService, never()).getItemsByOwnerId(any(), any());
+    }
+
     @Test
     @SneakyThrows
     void getItemsByKeyword_whenParameterIsNotProvided_thenUseDefaultValues() {
@@ -513,4 +610,28 @@ class ItemControllerTest {
         //then
         verify(itemService, times(1)).deleteItemById(any(), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    @SneakyThrows
+    void getItemAvailability_whenInvoked_thenInvokeItemServiceWithParsedWindow() {
+        //given
+        long itemId = 10L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 2, 10, 0);
+
+        //when
+        when(itemService.getItemAvailability(any(), any(), any(), any()))
+                .thenReturn(new ItemAvailabilityDto(itemId, true, from, to, List.of(),
+                        List.of(new TimeIntervalDto(from, to))));
+
+        mockMvc.perform(get("/items/" + itemId + "/availability")
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-02T10:00:00")
+                        .header("X-Sharer-User-Id", userId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        //then
+        verify(itemService, times(1)).getItemAvailability(userId, itemId, from, to);
+    }
+}
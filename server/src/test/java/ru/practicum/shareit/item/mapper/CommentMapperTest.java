@@ -24,6 +24,7 @@ class CommentMapperTest {
 
         Comment expectedComment = new Comment(
                 1L,
+                0L,
                 "Good item",
                 null,
                 null,
@@ -44,9 +45,10 @@ class CommentMapperTest {
 
         Comment comment = new Comment(
                 1L,
+                0L,
                 "Good item",
                 null,
-                new User(1L, "user", "user@email.ru"),
+                new User(1L, 0L, "user", "user@email.ru"),
                 currentTime
         );
 
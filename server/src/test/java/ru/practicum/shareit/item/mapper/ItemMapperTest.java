@@ -31,6 +31,7 @@ class ItemMapperTest {
 
         Item expectedItem = new Item(
                 itemDto.getId(),
+                0L,
                 itemDto.getName(),
                 itemDto.getDescription(),
                 itemDto.getAvailable(),
@@ -52,10 +53,11 @@ class ItemMapperTest {
         //given
         LocalDateTime currentTime = LocalDateTime.now().withNano(0);
 
-        User user = new User(1L, "new user", "user@email.ru");
+        User user = new User(1L, 0L, "new user", "user@email.ru");
 
         Item item = new Item(
                 1L,
+                0L,
                 "new item",
                 "new item...",
                 true,
@@ -68,6 +70,7 @@ class ItemMapperTest {
         List<Booking> bookings = List.of(
                 new Booking(
                         1L,
+                        0L,
                         item,
                         user,
                         BookingStatus.APPROVED,
@@ -76,6 +79,7 @@ class ItemMapperTest {
                 ),
                 new Booking(
                         2L,
+                        0L,
                         item,
                         user,
                         BookingStatus.APPROVED,
@@ -109,10 +113,9 @@ class ItemMapperTest {
         //given
         LocalDateTime currentTime = LocalDateTime.now().withNano(0);
 
-        User user = new User(1L, "new user", "user@email.ru");
-
         Item item = new Item(
                 1L,
+                0L,
                 "new item",
                 "new item...",
                 true,
@@ -122,26 +125,8 @@ class ItemMapperTest {
                 null
         );
 
-        List<Booking> bookings = List.of(
-                new Booking(
-                        1L,
-                        item,
-                        user,
-                        BookingStatus.APPROVED,
-                        currentTime.minusDays(2),
-                        currentTime.minusDays(1)
-                ),
-                new Booking(
-                        2L,
-                        item,
-                        user,
-                        BookingStatus.APPROVED,
-                        currentTime.plusDays(2),
-                        currentTime.plusDays(3)
-                )
-        );
-
-        item.setBookings(bookings);
+        BookingInnerDto lastBooking = new BookingInnerDto(1L, 1L, currentTime.minusDays(2), currentTime.minusDays(1));
+        BookingInnerDto nextBooking = new BookingInnerDto(2L, 1L, currentTime.plusDays(2), currentTime.plusDays(3));
 
         ItemDto expectedItemDto = new ItemDto(
                 item.getId(),
@@ -149,13 +134,13 @@ class ItemMapperTest {
                 item.getDescription(),
                 item.getAvailable(),
                 item.getRequestId(),
-                new BookingInnerDto(1L, 1L, currentTime.minusDays(2), currentTime.minusDays(1)),
-                new BookingInnerDto(2L, 1L, currentTime.plusDays(2), currentTime.plusDays(3)),
-                null
+                lastBooking,
+                nextBooking,
+                List.of()
         );
 
         //when
-        ItemDto returnredItemDto = ItemMapper.toItemDtoForOwner(item);
+        ItemDto returnredItemDto = ItemMapper.toItemDtoForOwner(item, lastBooking, nextBooking, List.of());
 
         //then
         assertEquals(expectedItemDto, returnredItemDto);
@@ -8,12 +8,17 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.dto.BookableItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemDatabaseSearch;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.RowVersions;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -31,12 +36,14 @@ class ItemRepositoryTest {
         //given
         User owner = new User(
                 null,
+                0L,
                 "new user",
                 "user@emal.com"
         );
 
         Item item1 = new Item(
                 null,
+                0L,
                 "new item 1",
                 "item 1",
                 true,
@@ -48,6 +55,7 @@ class ItemRepositoryTest {
 
         Item item2 = new Item(
                 null,
+                0L,
                 "item 2",
                 "New item 2",
                 true,
@@ -59,6 +67,7 @@ class ItemRepositoryTest {
 
         Item item3 = new Item(
                 null,
+                0L,
                 "old item 2",
                 "old item 2",
                 true,
@@ -84,23 +93,52 @@ class ItemRepositoryTest {
         assertTrue(items.contains(item2));
     }
 
+    @Test
+    void findByTextRegexp_whenSearchedByWordPrefix_thenSkipWordsThatOnlyContainKeyword() {
+        //given
+        User owner = new User(null, 0L, "new user", "user@emal.com");
+        entityManager.persist(owner);
+
+        Item prefixInName = new Item(null, 0L, "New drill", "power tool", true, owner.getId(), null, null, null);
+        Item prefixInDescription = new Item(null, 0L, "Drill", "brand-new", true, owner.getId(), null, null, null);
+        Item insideWord = new Item(null, 0L, "Renewed drill", "power tool", true, owner.getId(), null, null, null);
+        Item unavailable = new Item(null, 0L, "New drill", "power tool", false, owner.getId(), null, null, null);
+
+        entityManager.persist(prefixInName);
+        entityManager.persist(prefixInDescription);
+        entityManager.persist(insideWord);
+        entityManager.persist(unavailable);
+
+        ItemDatabaseSearch itemDatabaseSearch = new ItemDatabaseSearch(itemRepository, "org.hibernate.dialect.H2Dialect");
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
+
+        //when
+        List<Item> items = itemDatabaseSearch.searchByWordPrefix("NE dr", pageable);
+
+        //then
+        assertEquals(List.of(prefixInName, prefixInDescription), items);
+    }
+
     @Test
     void findByOwnerId_whenInvoked_thenReturnOnlyItemsWithGivenOwnerId() {
         //given
         User owner1 = new User(
                 null,
+                0L,
                 "new user",
                 "user@emal.com"
         );
 
         User owner2 = new User(
                 null,
+                0L,
                 "old user",
                 "old@emal.com"
         );
 
         Item item1 = new Item(
                 null,
+                0L,
                 "new item 1",
                 "item 1",
                 true,
@@ -112,6 +150,7 @@ class ItemRepositoryTest {
 
         Item item2 = new Item(
                 null,
+                0L,
                 "item 2",
                 "New item 2",
                 true,
@@ -123,6 +162,7 @@ class ItemRepositoryTest {
 
         Item item3 = new Item(
                 null,
+                0L,
                 "old item 2",
                 "old item 2",
                 true,
@@ -148,4 +188,148 @@ class ItemRepositoryTest {
         assertTrue(items.contains(item1));
         assertTrue(items.contains(item2));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findByIdInAndAvailableTrue_whenInvoked_thenReturnOnlyAvailableItemsWithGivenIds() {
+        //given
+        User owner = new User(
+                null,
+                0L,
+                "new user",
+                "user@emal.com"
+        );
+
+        Item item1 = new Item(
+                null,
+                0L,
+                "new item 1",
+                "item 1",
+                true,
+                1L,
+                null,
+                null,
+                null
+        );
+
+        Item item2 = new Item(
+                null,
+                0L,
+                "new item 2",
+                "item 2",
+                false,
+                1L,
+                null,
+                null,
+                null
+        );
+
+        Item item3 = new Item(
+                null,
+                0L,
+                "new item 3",
+                "item 3",
+                true,
+                1L,
+                null,
+                null,
+                null
+        );
+
+        Pageable pageable = PageRequest.of(0, 100, Sort.by(Sort.Direction.ASC, "id"));
+
+        entityManager.persist(owner);
+        entityManager.persist(item1);
+        entityManager.persist(item2);
+        entityManager.persist(item3);
+
+        //when
+        List<Item> items = itemRepository.findByIdInAndAvailableTrue(List.of(item1.getId(), item2.getId()), pageable);
+
+        //then
+        assertEquals(1, items.size());
+        assertTrue(items.contains(item1));
+    }
+
+    @Test
+    void findBookableItemById_whenInvoked_thenReturnItemColumnsWithoutAssociations() {
+        //given
+        User owner = new User(
+                null,
+                0L,
+                "new user",
+                "user@emal.com"
+        );
+
+        entityManager.persist(owner);
+
+        Item item = new Item(
+                null,
+                0L,
+                "new item",
+                "item",
+                true,
+                owner.getId(),
+                null,
+                null,
+                null
+        );
+
+        entityManager.persist(item);
+
+        //when
+        Optional<BookableItemDto> bookableItem = itemRepository.findBookableItemById(item.getId());
+
+        //then
+        assertEquals(Optional.of(new BookableItemDto(item.getId(), "new item", "item", true, owner.getId(), null)),
+                bookableItem);
+        assertTrue(itemRepository.findBookableItemById(item.getId() + 1).isEmpty());
+    }
+
+    @Test
+    void findVersionsByOwnerId_whenItemIsUpdatedOrAdded_thenFingerprintChanges() {
+        //given
+        User owner = new User(
+                null,
+                0L,
+                "new user",
+                "user@emal.com"
+        );
+
+        entityManager.persist(owner);
+
+        Item item = new Item(
+                null,
+                0L,
+                "new item",
+                "item",
+                true,
+                owner.getId(),
+                null,
+                null,
+                null
+        );
+
+        entityManager.persist(item);
+        entityManager.flush();
+
+        RowVersions created = itemRepository.findVersionsByOwnerId(owner.getId());
+
+        //when
+        item.setName("updated item");
+        entityManager.flush();
+        RowVersions updated = itemRepository.findVersionsByOwnerId(owner.getId());
+
+        entityManager.persist(new Item(null, 0L, "second item", "item", true, owner.getId(), null, null, null));
+        entityManager.flush();
+        RowVersions added = itemRepository.findVersionsByOwnerId(owner.getId());
+
+        //then
+        assertEquals(1L, created.getTotal());
+        assertEquals(0L, created.getVersionSum());
+        assertEquals(1L, updated.getVersionSum());
+        assertEquals(2L, added.getTotal());
+        assertNotEquals(created.fingerprint(), updated.fingerprint());
+        assertNotEquals(updated.fingerprint(), added.fingerprint());
+        assertEquals(0L, itemRepository.findVersionsByOwnerId(owner.getId() + 1).getTotal());
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemDatabaseSearchTest {
+    @Mock
+    private ItemRepository itemRepository;
+
+    private final Pageable pageable = PageRequest.of(0, 10);
+
+    @Test
+    public void search_whenDialectIsPostgreSql_thenUseTrigramQuery() {
+        //given
+        ItemDatabaseSearch itemDatabaseSearch =
+                new ItemDatabaseSearch(itemRepository, "org.hibernate.dialect.PostgreSQL10Dialect");
+
+        //when
+        itemDatabaseSearch.search("drill", pageable);
+
+        //then
+        verify(itemRepository, times(1)).findByTextTrigram("drill", pageable);
+        verify(itemRepository, never()).findByNameAndDescription(any(), any(), any());
+    }
+
+    @Test
+    public void search_whenDialectIsH2_thenUseJpqlQuery() {
+        //given
+        ItemDatabaseSearch itemDatabaseSearch =
+                new ItemDatabaseSearch(itemRepository, "org.hibernate.dialect.H2Dialect");
+
+        //when
+        itemDatabaseSearch.search("drill", pageable);
+
+        //then
+        verify(itemRepository, times(1)).findByNameAndDescription("drill", "drill", pageable);
+        verify(itemRepository, never()).findByTextTrigram(any(), any());
+    }
+
+    @Test
+    public void searchByWordPrefix_whenDialectIsPostgreSql_thenUsePosixPattern() {
+        //given
+        ItemDatabaseSearch itemDatabaseSearch =
+                new ItemDatabaseSearch(itemRepository, "org.hibernate.dialect.PostgreSQL10Dialect");
+
+        //when
+        itemDatabaseSearch.searchByWordPrefix("Power dri", pageable);
+
+        //then
+        verify(itemRepository, times(1))
+                .findByTextPattern("^(?=.*(^|[^[:alnum:]])dri)(?=.*(^|[^[:alnum:]])power)", pageable);
+        verify(itemRepository, never()).findByTextRegexp(any(), any());
+    }
+
+    @Test
+    public void searchByWordPrefix_whenDialectIsH2_thenUseJavaPattern() {
+        //given
+        ItemDatabaseSearch itemDatabaseSearch =
+                new ItemDatabaseSearch(itemRepository, "org.hibernate.dialect.H2Dialect");
+
+        //when
+        itemDatabaseSearch.searchByWordPrefix("Power dri", pageable);
+
+        //then
+        verify(itemRepository, times(1)).findByTextRegexp(
+                "(?siu)^(?=.*(^|[^\\p{L}\\p{Nd}])dri)(?=.*(^|[^\\p{L}\\p{Nd}])power)", pageable);
+        verify(itemRepository, never()).findByTextPattern(any(), any());
+    }
+}
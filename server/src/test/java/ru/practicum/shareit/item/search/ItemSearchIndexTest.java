@@ -0,0 +1,141 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemSearchIndex itemSearchIndex;
+
+    @BeforeEach
+    public void buildIndex() {
+        itemSearchIndex = new ItemSearchIndex(itemRepository, true, 1000);
+
+        when(itemRepository.findAll()).thenReturn(List.of(
+                createItem(1L, "Дрель", "Аккумуляторная дрель", true),
+                createItem(2L, "Отвертка", "Аккумуляторная отвертка", true),
+                createItem(3L, "Клей Момент", "Тюбик суперклея", false)
+        ));
+
+        itemSearchIndex.rebuild();
+    }
+
+    @Test
+    public void rebuild_whenInvoked_thenIndexIsReady() {
+        //then
+        assertTrue(itemSearchIndex.isReady());
+    }
+
+    @Test
+    public void search_whenKeywordInDifferentCase_thenReturnMatchingItems() {
+        //when
+        Set<Long> itemIds = itemSearchIndex.search("дРелЬ");
+
+        //then
+        assertEquals(Set.of(1L), itemIds);
+    }
+
+    @Test
+    public void search_whenKeywordIsPrefix_thenReturnItemsWithTokenStartingWithKeyword() {
+        //when
+        Set<Long> itemIds = itemSearchIndex.search("аккУМУлятор");
+
+        //then
+        assertEquals(Set.of(1L, 2L), itemIds);
+    }
+
+    @Test
+    public void search_whenSeveralKeywords_thenReturnItemsMatchingAllOfThem() {
+        //when
+        Set<Long> itemIds = itemSearchIndex.search("аккумуляторная отвертка");
+
+        //then
+        assertEquals(Set.of(2L), itemIds);
+    }
+
+    @Test
+    public void search_whenItemIsNotAvailable_thenItemIsNotIndexed() {
+        //when
+        Set<Long> itemIds = itemSearchIndex.search("клей");
+
+        //then
+        assertTrue(itemIds.isEmpty());
+    }
+
+    @Test
+    public void index_whenItemUpdated_thenOldTokensAreRemoved() {
+        //when
+        itemSearchIndex.index(createItem(1L, "Перфоратор", "Мощный перфоратор", true));
+
+        //then
+        assertTrue(itemSearchIndex.search("дрель").isEmpty());
+        assertEquals(Set.of(1L), itemSearchIndex.search("перфоратор"));
+    }
+
+    @Test
+    public void remove_whenInvoked_thenItemIsNotFound() {
+        //when
+        itemSearchIndex.remove(2L);
+
+        //then
+        assertEquals(Set.of(1L), itemSearchIndex.search("аккумуляторная"));
+    }
+
+    @Test
+    public void index_whenInTransaction_thenItemIsIndexedOnlyAfterCommit() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            //when
+            itemSearchIndex.index(createItem(4L, "Пила", "Ручная пила", true));
+            Set<Long> beforeCommit = itemSearchIndex.search("пила");
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            //then
+            assertTrue(beforeCommit.isEmpty());
+            assertEquals(Set.of(4L), itemSearchIndex.search("пила"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void remove_whenTransactionRollsBack_thenItemIsStillFound() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            //when
+            itemSearchIndex.remove(2L);
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            //then
+            assertEquals(Set.of(1L, 2L), itemSearchIndex.search("аккумуляторная"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Item createItem(Long id, String name, String description, Boolean available) {
+        return new Item(id, 0L, name, description, available, 1L, null, null, null);
+    }
+}
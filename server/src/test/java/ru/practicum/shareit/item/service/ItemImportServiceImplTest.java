@@ -0,0 +1,187 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.exception.model.NotFountException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemImportServiceImplTest {
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private ItemService itemService;
+
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+
+    @Mock
+    private UserCache userCache;
+
+    private ItemImportServiceImpl itemImportService;
+
+    @BeforeEach
+    public void before() {
+        itemImportService = new ItemImportServiceImpl(
+                itemService, itemRequestRepository, userCache, new ObjectMapper(), 2);
+    }
+
+    @Test
+    public void importItems_whenUserIsNotExists_thenThrowException() {
+        //given
+        when(userCache.existsById(USER_ID)).thenReturn(false);
+
+        //when
+        NotFountException exception = assertThrows(NotFountException.class,
+                () -> itemImportService.importItems(USER_ID, body("")));
+
+        //then
+        assertEquals("User with id = " + USER_ID + " not found.", exception.getMessage());
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    public void importItems_whenBodyIsNdjson_thenSaveInBatchesAndReportInvalidRecords() {
+        //given
+        String body = item("Drill") + "\n" +
+                "{\"name\":\"\",\"description\":\"No name\",\"available\":true}\n" +
+                item("Saw") + "\n" +
+                "{\"name\":\"Hammer\",\"description\":\"Hammer\",\"available\":\"maybe\"}\n" +
+                item("Ladder") + "\n";
+
+        when(userCache.existsById(USER_ID)).thenReturn(true);
+
+        //when
+        ItemImportResultDto result = itemImportService.importItems(USER_ID, body(body));
+
+        //then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ItemDto>> batchCaptor = ArgumentCaptor.forClass(List.class);
+        verify(itemService, times(2)).createItems(batchCaptor.capture(), eq(USER_ID));
+        assertEquals(2, batchCaptor.getAllValues().get(0).size());
+        assertEquals("Ladder", batchCaptor.getAllValues().get(1).get(0).getName());
+        assertEquals(3, result.getCreated());
+        assertEquals(2, result.getErrors().size());
+        assertEquals(new ItemImportErrorDto(2, "name: must not be blank"), result.getErrors().get(0));
+        assertEquals(4, result.getErrors().get(1).getRecord());
+    }
+
+    @Test
+    public void importItems_whenBodyIsJsonArray_thenImportEveryElement() {
+        //given
+        String body = "[" + item("Drill") + "," + item("Saw") + "," + item("Ladder") + "]";
+
+        when(userCache.existsById(USER_ID)).thenReturn(true);
+
+        //when
+        ItemImportResultDto result = itemImportService.importItems(USER_ID, body(body));
+
+        //then
+        verify(itemService, times(2)).createItems(any(), eq(USER_ID));
+        assertEquals(3, result.getCreated());
+        assertEquals(List.of(), result.getErrors());
+    }
+
+    @Test
+    public void importItems_whenRequestIsNotExists_thenReportRecordAndSaveTheRest() {
+        //given
+        String body = item("Drill") + "\n" +
+                "{\"name\":\"Saw\",\"description\":\"Saw\",\"available\":true,\"requestId\":99}\n";
+
+        when(userCache.existsById(USER_ID)).thenReturn(true);
+        when(itemRequestRepository.findExistingIds(Set.of(99L))).thenReturn(Set.of());
+
+        //when
+        ItemImportResultDto result = itemImportService.importItems(USER_ID, body(body));
+
+        //then
+        assertEquals(1, result.getCreated());
+        assertEquals(List.of(new ItemImportErrorDto(2, "Request with id = 99 not found.")), result.getErrors());
+    }
+
+    @Test
+    public void importItems_whenTextIsTooLong_thenReportRecordAndSaveTheRest() {
+        //given
+        String longText = "x".repeat(256);
+        String body = item("Drill") + "\n" +
+                "{\"name\":\"" + longText + "\",\"description\":\"Saw\",\"available\":true}\n" +
+                "{\"name\":\"Saw\",\"description\":\"" + longText + "\",\"available\":true}\n" +
+                item("Ladder") + "\n";
+
+        when(userCache.existsById(USER_ID)).thenReturn(true);
+
+        //when
+        ItemImportResultDto result = itemImportService.importItems(USER_ID, body(body));
+
+        //then
+        verify(itemService, times(1)).createItems(any(), eq(USER_ID));
+        assertEquals(2, result.getCreated());
+        assertEquals(List.of(
+                new ItemImportErrorDto(2, "name: size must be between 1 and 255"),
+                new ItemImportErrorDto(3, "description: size must be between 1 and 255")
+        ), result.getErrors());
+    }
+
+    @Test
+    public void importItems_whenBatchFails_thenReportItsRecordsAndContinue() {
+        //given
+        String body = item("Drill") + "\n" + item("Saw") + "\n" + item("Ladder") + "\n";
+
+        when(userCache.existsById(USER_ID)).thenReturn(true);
+        when(itemService.createItems(any(), eq(USER_ID)))
+                .thenThrow(new DataIntegrityViolationException("constraint"))
+                .thenReturn(List.of());
+
+        //when
+        ItemImportResultDto result = itemImportService.importItems(USER_ID, body(body));
+
+        //then
+        assertEquals(1, result.getCreated());
+        assertEquals(List.of(1L, 2L), List.of(result.getErrors().get(0).getRecord(), result.getErrors().get(1).getRecord()));
+    }
+
+    @Test
+    public void importItems_whenBodyIsMalformed_thenKeepImportedRecordsAndReportError() {
+        //given
+        String body = item("Drill") + "\n" + item("Saw") + "\n" + "{\"name\": ";
+
+        when(userCache.existsById(USER_ID)).thenReturn(true);
+
+        //when
+        ItemImportResultDto result = itemImportService.importItems(USER_ID, body(body));
+
+        //then
+        verify(itemService, times(1)).createItems(any(), eq(USER_ID));
+        assertEquals(2, result.getCreated());
+        assertEquals(3, result.getErrors().get(result.getErrors().size() - 1).getRecord());
+    }
+
+    private static String item(String name) {
+        return "{\"name\":\"" + name + "\",\"description\":\"" + name + "\",\"available\":true}";
+    }
+
+    private static InputStream body(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -6,31 +6,48 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.ItemBookingDto;
 import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingIntervalIndex;
+import ru.practicum.shareit.booking.schedule.BookingSlot;
 import ru.practicum.shareit.exception.model.BadRequestException;
 import ru.practicum.shareit.exception.model.ForbiddenException;
 import ru.practicum.shareit.exception.model.NotFountException;
+import ru.practicum.shareit.item.dto.BookableItemDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.TimeIntervalDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemDatabaseSearch;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.RequestClock;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,12 +58,27 @@ class ItemServiceImplTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private UserCache userCache;
+
     @Mock
     private UserRepository userRepository;
 
     @Mock
     private CommentRepository commentRepository;
 
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private ItemDatabaseSearch itemDatabaseSearch;
+
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Spy
+    private RequestClock requestClock = new RequestClock(Clock.systemDefaultZone());
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -73,7 +105,7 @@ class ItemServiceImplTest {
     @Test
     public void createItem_whenUserIsNotExists_thenTrowNotFoundException() {
         //when
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userCache.existsById(userId)).thenReturn(false);
         Exception exception = assertThrows(NotFountException.class, () -> itemService.createItem(itemDto, userId));
 
         //then
@@ -87,7 +119,7 @@ class ItemServiceImplTest {
         ArgumentCaptor<Item> itemCaptor = ArgumentCaptor.forClass(Item.class);
 
         //when
-        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userCache.existsById(userId)).thenReturn(true);
         when(itemRepository.save(any())).thenReturn(new Item());
 
         itemService.createItem(itemDto, userId);
@@ -97,11 +129,38 @@ class ItemServiceImplTest {
         assertEquals(userId, itemCaptor.getValue().getOwnerId());
     }
 
+    @Test
+    public void createItems_whenInvoked_thenSaveAllWithOwnerIdAndWithoutClientIds() {
+        //given
+        ItemDto secondItemDto = new ItemDto(7L, "Second item", "Second item", false, null, null, null, null);
+        Item savedItem = new Item(1L, 0L, "New item", "New item", true, userId, null, null, null);
+        Item savedSecondItem = new Item(2L, 0L, "Second item", "Second item", false, userId, null, null, null);
+
+        when(userCache.existsById(userId)).thenReturn(true);
+        when(itemRepository.saveAll(anyList())).thenReturn(List.of(savedItem, savedSecondItem));
+
+        //when
+        List<ItemDto> itemDtos = itemService.createItems(List.of(itemDto, secondItemDto), userId);
+
+        //then
+        ArgumentCaptor<List<Item>> itemsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(itemRepository).saveAll(itemsCaptor.capture());
+        assertEquals(2, itemsCaptor.getValue().size());
+        itemsCaptor.getValue().forEach(item -> {
+            assertNull(item.getId());
+            assertEquals(userId, item.getOwnerId());
+        });
+        verify(itemSearchIndex).index(savedItem);
+        verify(itemSearchIndex).index(savedSecondItem);
+        assertEquals(List.of(1L, 2L), List.of(itemDtos.get(0).getId(), itemDtos.get(1).getId()));
+    }
+
     @Test
     public void createItem_whenSaved_thenReturnItemDto() {
         //given
         Item newItem = new Item(
                 1L,
+                0L,
                 "New item",
                 "New item",
                 true,
@@ -111,13 +170,14 @@ class ItemServiceImplTest {
                 null
         );
         //when
-        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userCache.existsById(userId)).thenReturn(true);
         when(itemRepository.save(any())).thenReturn(newItem);
 
         ItemDto returnedItemDto = itemService.createItem(itemDto, userId);
 
         //then
         verify(itemRepository, times(1)).save(any());
+        verify(itemSearchIndex, times(1)).index(newItem);
         assertEquals(newItem.getId(), returnedItemDto.getId());
         assertEquals(newItem.getName(), returnedItemDto.getName());
         assertEquals(newItem.getDescription(), returnedItemDto.getDescription());
@@ -140,6 +200,7 @@ class ItemServiceImplTest {
         //given
         Booking lastBooking = new Booking(
                 1L,
+                0L,
                 null,
                 null,
                 BookingStatus.APPROVED,
@@ -148,6 +209,7 @@ class ItemServiceImplTest {
 
         Booking nextBooking = new Booking(
                 2L,
+                0L,
                 null,
                 null,
                 BookingStatus.APPROVED,
@@ -156,6 +218,7 @@ class ItemServiceImplTest {
 
         Item item = new Item(
                 1L,
+                0L,
                 "New item 1",
                 "New item 1",
                 true,
@@ -172,20 +235,15 @@ class ItemServiceImplTest {
         //then
         assertNull(itemDto.getLastBooking());
         assertNull(itemDto.getNextBooking());
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
     public void getItemById_whenUserIsOwner_thenReturnItemDtoWithBookings() {
         //given
-
-        User booker = new User(
-                1L,
-                "new User",
-                "user@email.ru"
-        );
-
         Item item = new Item(
                 1L,
+                0L,
                 "New item 1",
                 "New item 1",
                 true,
@@ -195,36 +253,31 @@ class ItemServiceImplTest {
                 null
         );
 
-        Booking lastBooking = new Booking(
+        ItemBookingDto lastBooking = new ItemBookingDto(
+                item.getId(),
+                1L,
                 1L,
-                item,
-                booker,
-                BookingStatus.APPROVED,
                 LocalDateTime.now().minusDays(5),
                 LocalDateTime.now().minusDays(4));
 
-        Booking nextBooking = new Booking(1L,
-                item,
-                booker,
-                BookingStatus.APPROVED,
+        ItemBookingDto nextBooking = new ItemBookingDto(
+                item.getId(),
+                2L,
+                1L,
                 LocalDateTime.now().plusDays(1),
                 LocalDateTime.now().plusDays(3));
 
-        item.setBookings(List.of(lastBooking, nextBooking));
-
         userId = 3L;
 
         //when
         when(itemRepository.findById(itemDto.getId())).thenReturn(Optional.of(item));
+        when(bookingRepository.findLastBookingsByItemIds(eq(Set.of(item.getId())), any())).thenReturn(List.of(lastBooking));
+        when(bookingRepository.findNextBookingsByItemIds(eq(Set.of(item.getId())), any())).thenReturn(List.of(nextBooking));
         itemDto = itemService.getItemById(userId, itemDto.getId());
 
         //then
-        assertEquals(lastBooking.getId(), itemDto.getLastBooking().getId());
-        assertEquals(lastBooking.getStart(), itemDto.getLastBooking().getStart());
-        assertEquals(lastBooking.getEnd(), itemDto.getLastBooking().getEnd());
-        assertEquals(nextBooking.getId(), itemDto.getNextBooking().getId());
-        assertEquals(nextBooking.getStart(), itemDto.getNextBooking().getStart());
-        assertEquals(nextBooking.getEnd(), itemDto.getNextBooking().getEnd());
+        assertEquals(BookingMapper.toBookingInnerDto(lastBooking), itemDto.getLastBooking());
+        assertEquals(BookingMapper.toBookingInnerDto(nextBooking), itemDto.getNextBooking());
     }
 
     @Test
@@ -235,6 +288,7 @@ class ItemServiceImplTest {
         List<Item> items = List.of(
                 new Item(
                         1L,
+                        0L,
                         "New item 1",
                         "New item 1",
                         true,
@@ -245,6 +299,7 @@ class ItemServiceImplTest {
                 ),
                 new Item(
                         2L,
+                        0L,
                         "New item 2",
                         "New item 2",
                         true,
@@ -255,6 +310,7 @@ class ItemServiceImplTest {
                 ),
                 new Item(
                         3L,
+                        0L,
                         "New item 3",
                         "New item 3",
                         true,
@@ -265,13 +321,23 @@ class ItemServiceImplTest {
                 )
         );
 
+        User author = new User(2L, 0L, "author", "author@email.ru");
+        Comment comment = new Comment(1L, 0L, "text", items.get(0), author, LocalDateTime.now());
+
         //when
         when(itemRepository.findByOwnerId(userId, pageable)).thenReturn(items);
+        when(commentRepository.findByItemIdIn(Set.of(1L, 2L, 3L))).thenReturn(List.of(comment));
 
         List<ItemDto> itemDtos = itemService.getItemsByOwnerId(userId, pageable);
 
         //then
         verify(itemRepository, times(1)).findByOwnerId(userId, pageable);
+        verify(bookingRepository, times(1)).findLastBookingsByItemIds(eq(Set.of(1L, 2L, 3L)), any());
+        verify(bookingRepository, times(1)).findNextBookingsByItemIds(eq(Set.of(1L, 2L, 3L)), any());
+        verify(commentRepository, times(1)).findByItemIdIn(Set.of(1L, 2L, 3L));
+        assertEquals(1, itemDtos.get(0).getComments().size());
+        assertEquals(author.getName(), itemDtos.get(0).getComments().get(0).getAuthorName());
+        assertTrue(itemDtos.get(1).getComments().isEmpty());
         assertEquals(items.size(), itemDtos.size());
         assertEquals(items.get(0).getId(), itemDtos.get(0).getId());
         assertEquals(items.get(0).getName(), itemDtos.get(0).getName());
@@ -321,6 +387,7 @@ class ItemServiceImplTest {
         List<Item> items = List.of(
                 new Item(
                         1L,
+                        0L,
                         "New item 1",
                         "New item 1",
                         true,
@@ -331,6 +398,7 @@ class ItemServiceImplTest {
                 ),
                 new Item(
                         2L,
+                        0L,
                         "New item 2",
                         "New item 2",
                         true,
@@ -341,6 +409,7 @@ class ItemServiceImplTest {
                 ),
                 new Item(
                         3L,
+                        0L,
                         "New item 3",
                         "New item 3",
                         true,
@@ -352,11 +421,13 @@ class ItemServiceImplTest {
         );
 
         //when
-        when(itemRepository.findByNameAndDescription(keyword, keyword, pageable)).thenReturn(items);
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search(keyword)).thenReturn(Set.of(1L, 2L, 3L));
+        when(itemRepository.findByIdInAndAvailableTrue(List.of(1L, 2L, 3L), pageable.getSort())).thenReturn(items);
         List<ItemDto> itemDtos = itemService.getItemsByText(keyword, pageable);
 
         //then
-        verify(itemRepository, times(1)).findByNameAndDescription(keyword, keyword, pageable);
+        verify(itemRepository, times(1)).findByIdInAndAvailableTrue(List.of(1L, 2L, 3L), pageable.getSort());
         assertEquals(items.size(), itemDtos.size());
         assertEquals(items.get(0).getId(), itemDtos.get(0).getId());
         assertEquals(items.get(0).getName(), itemDtos.get(0).getName());
@@ -372,6 +443,123 @@ class ItemServiceImplTest {
         assertEquals(items.get(2).getAvailable(), itemDtos.get(2).getAvailable());
     }
 
+    @Test
+    public void getItemsByKeyword_whenOrderedById_thenQueryOnlyIdsOfRequestedPage() {
+        //given
+        String keyword = "new";
+        Pageable pageable = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "id"));
+        Item item = new Item(3L, 0L, "New item 3", "New item 3", true, null, null, null, null);
+
+        //when
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search(keyword)).thenReturn(Set.of(1L, 2L, 3L, 4L, 5L));
+        when(itemRepository.findByIdInAndAvailableTrue(List.of(3L, 2L), pageable.getSort())).thenReturn(List.of(item));
+        List<ItemDto> itemDtos = itemService.getItemsByText(keyword, pageable);
+
+        //then
+        assertEquals(1, itemDtos.size());
+        assertEquals(item.getId(), itemDtos.get(0).getId());
+    }
+
+    @Test
+    public void getItemsByKeyword_whenPageIsBeyondMatches_thenReturnEmptyListWithoutQuery() {
+        //given
+        String keyword = "new";
+        Pageable pageable = PageRequest.of(5, 10, Sort.by(Sort.Direction.ASC, "id"));
+
+        //when
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search(keyword)).thenReturn(Set.of(1L, 2L, 3L));
+        List<ItemDto> itemDtos = itemService.getItemsByText(keyword, pageable);
+
+        //then
+        assertTrue(itemDtos.isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void getItemsByKeyword_whenOrderedByNameAndMatchesAreFew_thenQueryMatchedIds() {
+        //given
+        String keyword = "new";
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "name"));
+        Item item = new Item(1L, 0L, "New item 1", "New item 1", true, null, null, null, null);
+
+        //when
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search(keyword)).thenReturn(Set.of(1L, 2L));
+        when(itemSearchIndex.getMaxCandidates()).thenReturn(2);
+        when(itemRepository.findByIdInAndAvailableTrue(Set.of(1L, 2L), pageable)).thenReturn(List.of(item));
+        List<ItemDto> itemDtos = itemService.getItemsByText(keyword, pageable);
+
+        //then
+        assertEquals(1, itemDtos.size());
+        verifyNoInteractions(itemDatabaseSearch);
+    }
+
+    @Test
+    public void getItemsByKeyword_whenOrderedByNameAndMatchesExceedCap_thenSearchWordPrefixesInDatabase() {
+        //given
+        String keyword = "n";
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "name"));
+        Item item = new Item(1L, 0L, "New item 1", "New item 1", true, null, null, null, null);
+
+        //when
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search(keyword)).thenReturn(Set.of(1L, 2L, 3L));
+        when(itemSearchIndex.getMaxCandidates()).thenReturn(2);
+        when(itemDatabaseSearch.searchByWordPrefix(keyword, pageable)).thenReturn(List.of(item));
+        List<ItemDto> itemDtos = itemService.getItemsByText(keyword, pageable);
+
+        //then
+        assertEquals(1, itemDtos.size());
+        verify(itemRepository, never()).findByIdInAndAvailableTrue(anyCollection(), any(Pageable.class));
+    }
+
+    @Test
+    public void getItemsByKeyword_whenIndexHasNoMatches_thenReturnEmptyListWithoutQuery() {
+        //given
+        String keyword = "new";
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
+
+        //when
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search(keyword)).thenReturn(Set.of());
+        List<ItemDto> itemDtos = itemService.getItemsByText(keyword, pageable);
+
+        //then
+        assertTrue(itemDtos.isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void getItemsByKeyword_whenIndexIsNotReady_thenSearchInDatabase() {
+        //given
+        String keyword = "new";
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
+
+        Item item = new Item(
+                1L,
+                0L,
+                "New item 1",
+                "New item 1",
+                true,
+                null,
+                null,
+                null,
+                null
+        );
+
+        //when
+        when(itemSearchIndex.isReady()).thenReturn(false);
+        when(itemDatabaseSearch.search(keyword, pageable)).thenReturn(List.of(item));
+        List<ItemDto> itemDtos = itemService.getItemsByText(keyword, pageable);
+
+        //then
+        verify(itemSearchIndex, never()).search(any());
+        assertEquals(1, itemDtos.size());
+        assertEquals(item.getId(), itemDtos.get(0).getId());
+    }
+
     @Test
     public void updateItemById_whenItemNotExists_thenThrowNotFoundException() {
         //when
@@ -387,7 +575,7 @@ class ItemServiceImplTest {
     public void updateItemById_whenUserNotExists_thenThrowNotFoundException() {
         //when
         when(itemRepository.findById(itemDto.getId())).thenReturn(Optional.of(new Item()));
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userCache.existsById(userId)).thenReturn(false);
         String expectedMessage = "User with id = " + userId + " not found.";
         Exception exception = assertThrows(NotFountException.class, () -> itemService.updateItemById(itemDto.getId(), itemDto, userId));
 
@@ -400,6 +588,7 @@ class ItemServiceImplTest {
         //given
         Item item = new Item(
                 1L,
+                0L,
                 "New item 1",
                 "New item 1",
                 true,
@@ -411,7 +600,7 @@ class ItemServiceImplTest {
 
         //when
         when(itemRepository.findById(itemDto.getId())).thenReturn(Optional.of(item));
-        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userCache.existsById(userId)).thenReturn(true);
         String expectedMessage = "Access denied. User with id = " + userId + " does not have permission to change this item.";
         Exception exception = assertThrows(ForbiddenException.class, () -> itemService.updateItemById(itemDto.getId(), itemDto, userId));
 
@@ -437,6 +626,7 @@ class ItemServiceImplTest {
 
         Item savedItem = new Item(
                 1L,
+                0L,
                 "New item 1",
                 "New item 1",
                 true,
@@ -448,6 +638,7 @@ class ItemServiceImplTest {
 
         Item updatedItem = new Item(
                 1L,
+                0L,
                 "Updated item 1",
                 "Updated item 1",
                 true,
@@ -459,7 +650,7 @@ class ItemServiceImplTest {
 
         //when
         when(itemRepository.findById(itemDto.getId())).thenReturn(Optional.of(savedItem));
-        when(userRepository.existsById(ownerId)).thenReturn(true);
+        when(userCache.existsById(ownerId)).thenReturn(true);
 
         ItemDto returnedItemDto = itemService.updateItemById(savedItem.getId(), updatedItemDto, ownerId);
 
@@ -485,7 +676,7 @@ class ItemServiceImplTest {
     public void deleteItemById_whenUserNotExists_thenThrowNotFoundException() {
         //when
         when(itemRepository.findById(itemDto.getId())).thenReturn(Optional.of(new Item()));
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userCache.existsById(userId)).thenReturn(false);
         String expectedMessage = "User with id = " + userId + " not found.";
         Exception exception = assertThrows(NotFountException.class, () -> itemService.deleteItemById(itemDto.getId(), userId));
 
@@ -498,6 +689,7 @@ class ItemServiceImplTest {
         //given
         Item item = new Item(
                 1L,
+                0L,
                 "New item 1",
                 "New item 1",
                 true,
@@ -509,7 +701,7 @@ class ItemServiceImplTest {
 
         //when
         when(itemRepository.findById(itemDto.getId())).thenReturn(Optional.of(item));
-        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userCache.existsById(userId)).thenReturn(true);
         String expectedMessage = "Access denied. User with id = " + userId + " does not have permission to change this item.";
         Exception exception = assertThrows(ForbiddenException.class, () -> itemService.deleteItemById(itemDto.getId(), userId));
 
@@ -522,6 +714,7 @@ class ItemServiceImplTest {
         //given
         Item item = new Item(
                 1L,
+                0L,
                 "New item 1",
                 "New item 1",
                 true,
@@ -533,11 +726,12 @@ class ItemServiceImplTest {
 
         //when
         when(itemRepository.findById(itemDto.getId())).thenReturn(Optional.of(item));
-        when(userRepository.existsById(item.getOwnerId())).thenReturn(true);
+        when(userCache.existsById(item.getOwnerId())).thenReturn(true);
         itemService.deleteItemById(itemDto.getId(), item.getOwnerId());
 
         //then
         verify(itemRepository, times(1)).deleteById(itemDto.getId());
+        verify(itemSearchIndex, times(1)).remove(itemDto.getId());
     }
 
     @Test
@@ -551,7 +745,7 @@ class ItemServiceImplTest {
         );
 
         //when
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
+        when(userCache.findById(userId)).thenReturn(Optional.of(new UserDto(userId, "new user", "user@email.ru")));
         when(itemRepository.findById(itemDto.getId())).thenReturn(Optional.empty());
         String expectedMessage = "Item with id = " + itemDto.getId() + " not found.";
         Exception exception = assertThrows(NotFountException.class, () -> itemService.createComment(commentDto, itemDto.getId(), userId));
@@ -571,7 +765,7 @@ class ItemServiceImplTest {
         );
 
         //when
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userCache.findById(userId)).thenReturn(Optional.empty());
         String expectedMessage = "User with id = " + userId + " not found.";
         Exception exception = assertThrows(NotFountException.class, () -> itemService.createComment(commentDto, itemDto.getId(), userId));
 
@@ -590,7 +784,7 @@ class ItemServiceImplTest {
         );
 
         //when
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
+        when(userCache.findById(userId)).thenReturn(Optional.of(new UserDto(userId, "new user", "user@email.ru")));
         when(itemRepository.findById(itemDto.getId())).thenReturn(Optional.of(new Item()));
         when(bookingRepository.findByBookerIdAndItemId(userId, itemDto.getId())).thenReturn(List.of());
         String expectedMessage = "User with id = " + userId + " did not rent this item.";
@@ -606,6 +800,7 @@ class ItemServiceImplTest {
         //given
         Item item = new Item(
                 1L,
+                0L,
                 "New item 1",
                 "New item 1",
                 true,
@@ -617,12 +812,14 @@ class ItemServiceImplTest {
 
         User user = new User(
                 1L,
+                0L,
                 "new user",
                 "user@email.ru"
         );
 
         Booking booking = new Booking(
                 1L,
+                0L,
                 item,
                 user,
                 BookingStatus.APPROVED,
@@ -640,10 +837,11 @@ class ItemServiceImplTest {
         ArgumentCaptor<Comment> commentCaptor = ArgumentCaptor.forClass(Comment.class);
 
         //when
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userCache.findById(userId)).thenReturn(Optional.of(UserMapper.toUserDto(user)));
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
         when(itemRepository.findById(itemDto.getId())).thenReturn(Optional.of(item));
         when(bookingRepository.findByBookerIdAndItemId(userId, itemDto.getId())).thenReturn(List.of(booking));
-        when(commentRepository.save(any())).thenReturn(new Comment(1L, "text", item, user, LocalDateTime.now()));
+        when(commentRepository.save(any())).thenReturn(new Comment(1L, 0L, "text", item, user, LocalDateTime.now()));
         itemService.createComment(commentDto, itemDto.getId(), userId);
 
         //then
@@ -652,4 +850,52 @@ class ItemServiceImplTest {
         assertEquals(user, commentCaptor.getValue().getAuthor());
         assertEquals(item, commentCaptor.getValue().getItem());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getItemAvailability_whenSlotsOverlap_thenReturnMergedBusyAndFreeIntervals() {
+        //given
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        Long itemId = 1L;
+
+        List<BookingSlot> slots = List.of(
+                new BookingSlot(itemId, 1L, from.minusDays(1), from.plusDays(1)),
+                new BookingSlot(itemId, 2L, from.plusDays(3), from.plusDays(5)),
+                new BookingSlot(itemId, 3L, from.plusDays(4), from.plusDays(6)),
+                new BookingSlot(itemId, 4L, from.plusDays(6), from.plusDays(7)),
+                new BookingSlot(itemId, 5L, from.plusDays(9), from.plusDays(12))
+        );
+
+        //when
+        when(userCache.existsById(userId)).thenReturn(true);
+        when(itemRepository.findBookableItemById(itemId)).thenReturn(Optional.of(
+                new BookableItemDto(itemId, "item", "item", true, 2L, null)));
+        when(bookingIntervalIndex.findActiveSlots(itemId, from, to)).thenReturn(slots);
+        ItemAvailabilityDto availability = itemService.getItemAvailability(userId, itemId, from, to);
+
+        //then
+        assertEquals(List.of(
+                new TimeIntervalDto(from, from.plusDays(1)),
+                new TimeIntervalDto(from.plusDays(3), from.plusDays(7)),
+                new TimeIntervalDto(from.plusDays(9), to)
+        ), availability.getBusy());
+        assertEquals(List.of(
+                new TimeIntervalDto(from.plusDays(1), from.plusDays(3)),
+                new TimeIntervalDto(from.plusDays(7), from.plusDays(9))
+        ), availability.getFree());
+    }
+
+    @Test
+    public void getItemAvailability_whenFromIsNotBeforeTo_thenThrowBadRequestException() {
+        //given
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        //when
+        Exception exception = assertThrows(BadRequestException.class,
+                () -> itemService.getItemAvailability(userId, 1L, from, from));
+
+        //then
+        assertEquals("Parameter from must be before to.", exception.getMessage());
+        verify(bookingIntervalIndex, never()).findActiveSlots(any(), any(), any());
+    }
+}
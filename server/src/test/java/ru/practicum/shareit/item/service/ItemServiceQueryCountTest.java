@@ -0,0 +1,321 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingIntervalIndex;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.metrics.StatementRecorder;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.practicum.shareit.metrics.StatementRecorder.assertSameStatementCount;
+import static ru.practicum.shareit.metrics.StatementRecorder.record;
+
+/**
+ * Pins the number of SQL statements of every {@link ItemService} method: a call has to prepare as many
+ * statements after more items, bookings and comments were added as before.
+ */
+@SpringBootTest(properties = StatementRecorder.PROPERTY)
+class ItemServiceQueryCountTest {
+    private static final Pageable PAGEABLE = PageRequest.of(0, 100);
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private User owner;
+    private User booker;
+    private Item item;
+    private int slot;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("Owner").email("owner@email.ru").build());
+        booker = userRepository.save(User.builder().name("Booker").email("booker@email.ru").build());
+        item = createItem("Drill");
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        userCache.clear();
+        itemSearchIndex.rebuild();
+        bookingIntervalIndex.rebuild();
+    }
+
+    @Test
+    void createItem_whenOwnerHasMoreItems_thenStatementCountStaysTheSame() {
+        //given
+        itemService.createItem(itemDto("Saw"), owner.getId());
+
+        //when
+        List<String> before = record(() -> itemService.createItem(itemDto("Saw"), owner.getId()));
+        addBookedItems("Hammer", 5);
+        List<String> after = record(() -> itemService.createItem(itemDto("Saw"), owner.getId()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void createItems_whenMoreItemsAreCreated_thenStatementCountStaysTheSame() {
+        //given
+        itemService.createItems(itemDtos(1), owner.getId());
+
+        //when
+        List<String> before = record(() -> itemService.createItems(itemDtos(2), owner.getId()));
+        List<String> after = record(() -> itemService.createItems(itemDtos(10), owner.getId()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void getItemById_whenItemHasMoreBookingsAndComments_thenStatementCountStaysTheSame() {
+        //given
+        addBookingsAndComments(item, 1);
+
+        //when
+        List<String> ownerBefore = recordTwice(() -> itemService.getItemById(owner.getId(), item.getId()));
+        List<String> otherBefore = recordTwice(() -> itemService.getItemById(booker.getId(), item.getId()));
+        addBookingsAndComments(item, 5);
+        List<String> ownerAfter = recordTwice(() -> itemService.getItemById(owner.getId(), item.getId()));
+        List<String> otherAfter = recordTwice(() -> itemService.getItemById(booker.getId(), item.getId()));
+
+        //then
+        assertSameStatementCount(ownerBefore, ownerAfter);
+        assertSameStatementCount(otherBefore, otherAfter);
+    }
+
+    @Test
+    void getItemsByOwnerId_whenOwnerHasMoreItems_thenStatementCountStaysTheSame() {
+        //given
+        addBookedItems("Hammer", 2);
+
+        //when
+        List<String> before = recordTwice(() -> itemService.getItemsByOwnerId(owner.getId(), PAGEABLE));
+        addBookedItems("Hammer", 5);
+        List<String> after = recordTwice(() -> assertEquals(8,
+                itemService.getItemsByOwnerId(owner.getId(), PAGEABLE).size()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void getItemsETags_whenOwnerHasMoreItems_thenStatementCountStaysTheSame() {
+        //given
+        addBookedItems("Hammer", 2);
+
+        //when
+        List<String> itemBefore = recordTwice(() -> itemService.getItemByIdETag(owner.getId(), item.getId()));
+        List<String> ownerBefore = recordTwice(() -> itemService.getItemsByOwnerIdETag(owner.getId()));
+        addBookedItems("Hammer", 5);
+        addBookingsAndComments(item, 5);
+        List<String> itemAfter = recordTwice(() -> itemService.getItemByIdETag(owner.getId(), item.getId()));
+        List<String> ownerAfter = recordTwice(() -> itemService.getItemsByOwnerIdETag(owner.getId()));
+
+        //then
+        assertSameStatementCount(itemBefore, itemAfter);
+        assertSameStatementCount(ownerBefore, ownerAfter);
+    }
+
+    @Test
+    void getItemsByText_whenMoreItemsMatch_thenStatementCountStaysTheSame() {
+        //given
+        addBookedItems("Hammer", 2);
+        itemSearchIndex.rebuild();
+
+        //when
+        List<String> before = recordTwice(() -> itemService.getItemsByText("hammer", PAGEABLE));
+        addBookedItems("Hammer", 5);
+        itemSearchIndex.rebuild();
+        List<String> after = recordTwice(() -> assertEquals(7,
+                itemService.getItemsByText("hammer", PAGEABLE).size()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void updateItemById_whenItemHasMoreBookingsAndComments_thenStatementCountStaysTheSame() {
+        //given
+        addBookingsAndComments(item, 1);
+        itemService.updateItemById(item.getId(), itemDto("Drill 1"), owner.getId());
+
+        //when
+        List<String> before = record(() -> itemService.updateItemById(item.getId(), itemDto("Drill 2"),
+                owner.getId()));
+        addBookingsAndComments(item, 5);
+        List<String> after = record(() -> itemService.updateItemById(item.getId(), itemDto("Drill 3"),
+                owner.getId()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void deleteItemById_whenOwnerHasMoreItems_thenStatementCountStaysTheSame() {
+        //given
+        Item first = createItem("Saw");
+        Item second = createItem("Saw");
+        Item third = createItem("Saw");
+        itemService.deleteItemById(first.getId(), owner.getId());
+
+        //when
+        List<String> before = record(() -> itemService.deleteItemById(second.getId(), owner.getId()));
+        addBookedItems("Hammer", 5);
+        List<String> after = record(() -> itemService.deleteItemById(third.getId(), owner.getId()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void createComment_whenAuthorHasMoreBookingsOfItem_thenStatementCountStaysTheSame() {
+        //given
+        addBookingsAndComments(item, 1);
+        itemService.createComment(comment(), item.getId(), booker.getId());
+
+        //when
+        List<String> before = record(() -> itemService.createComment(comment(), item.getId(), booker.getId()));
+        addBookingsAndComments(item, 5);
+        List<String> after = record(() -> itemService.createComment(comment(), item.getId(), booker.getId()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void getItemAvailability_whenItemHasMoreBookings_thenStatementCountStaysTheSame() {
+        //given
+        LocalDateTime from = now.plusHours(1);
+        LocalDateTime to = now.plusDays(30);
+        createBooking(item, now.plusDays(2), BookingStatus.APPROVED);
+        bookingIntervalIndex.rebuild();
+
+        //when
+        List<String> before = recordTwice(() -> itemService.getItemAvailability(booker.getId(), item.getId(),
+                from, to));
+        for (int day = 3; day < 8; day++) {
+            createBooking(item, now.plusDays(day), BookingStatus.APPROVED);
+        }
+        bookingIntervalIndex.rebuild();
+        List<String> after = recordTwice(() -> itemService.getItemAvailability(booker.getId(), item.getId(),
+                from, to));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    /**
+     * Records the second of two identical calls, so user cache misses of the first one are not counted.
+     */
+    private List<String> recordTwice(Runnable call) {
+        call.run();
+        return record(call);
+    }
+
+    private void addBookedItems(String name, int count) {
+        for (int i = 0; i < count; i++) {
+            addBookingsAndComments(createItem(name), 1);
+        }
+    }
+
+    /**
+     * Adds a finished and a future booking of the item by the booker and a comment of the booker for each.
+     */
+    private void addBookingsAndComments(Item bookedItem, int count) {
+        for (int i = 0; i < count; i++) {
+            slot++;
+            createBooking(bookedItem, now.minusDays(slot), BookingStatus.APPROVED);
+            createBooking(bookedItem, now.plusDays(slot), BookingStatus.APPROVED);
+            commentRepository.save(Comment.builder()
+                    .text("Comment")
+                    .item(bookedItem)
+                    .author(booker)
+                    .created(now)
+                    .build());
+        }
+    }
+
+    private Booking createBooking(Item bookedItem, LocalDateTime start, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .item(bookedItem)
+                .booker(booker)
+                .start(start)
+                .end(start.plusHours(1))
+                .status(status)
+                .build());
+    }
+
+    private Item createItem(String name) {
+        return itemRepository.save(Item.builder()
+                .name(name)
+                .description(name + " description")
+                .available(true)
+                .ownerId(owner.getId())
+                .build());
+    }
+
+    private ItemDto itemDto(String name) {
+        return new ItemDto(null, name, name + " description", true, null, null, null, null);
+    }
+
+    private List<ItemDto> itemDtos(int count) {
+        List<ItemDto> itemDtos = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            itemDtos.add(itemDto("Saw " + i));
+        }
+        return itemDtos;
+    }
+
+    private CommentDto comment() {
+        return new CommentDto(null, "Comment", null, null);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StatementCountInterceptorTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StatementCountInterceptor interceptor = new StatementCountInterceptor(meterRegistry);
+    private final StatementCounter statementCounter = new StatementCounter();
+
+    @Test
+    void afterCompletion_whenStatementsWereRun_thenRecordTheirCountPerHandler() throws NoSuchMethodException {
+        //given
+        HandlerMethod handler = new HandlerMethod(this, getClass().getDeclaredMethod("handle"));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        statementCounter.inspect("select 1");
+
+        //when
+        interceptor.preHandle(request, response, handler);
+        statementCounter.inspect("select 2");
+        statementCounter.inspect("select 3");
+        interceptor.afterCompletion(request, response, handler, null);
+
+        //then
+        DistributionSummary summary = meterRegistry.get(StatementCountInterceptor.METRIC_NAME)
+                .tag("handler", "StatementCountInterceptorTest.handle")
+                .summary();
+        assertEquals(1, summary.count());
+        assertEquals(2, summary.totalAmount());
+    }
+
+    void handle() {
+    }
+}
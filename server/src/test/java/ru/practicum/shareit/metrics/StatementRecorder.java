@@ -0,0 +1,62 @@
+package ru.practicum.shareit.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Statement inspector for query count tests. Counts statements like {@link StatementCounter} and, inside
+ * {@link #record(Runnable)}, also keeps their SQL. Tests switch it on with {@link #PROPERTY}.
+ */
+public class StatementRecorder extends StatementCounter {
+    public static final String PROPERTY =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                    "ru.practicum.shareit.metrics.StatementRecorder";
+
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return super.inspect(sql);
+    }
+
+    /**
+     * Runs the call and returns the statements it prepared on this thread. Id sequence calls are left out:
+     * they come once per allocation block, depending on how many ids were handed out before.
+     */
+    public static List<String> record(Runnable call) {
+        List<String> statements = new ArrayList<>();
+        STATEMENTS.set(statements);
+
+        try {
+            call.run();
+        } finally {
+            STATEMENTS.remove();
+        }
+
+        return statements.stream()
+                .filter(sql -> !isSequenceCall(sql))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Fails unless the call prepared the same number of statements on the larger dataset,
+     * which is what loading rows one by one breaks.
+     */
+    public static void assertSameStatementCount(List<String> smallDataset, List<String> largeDataset) {
+        assertEquals(smallDataset.size(), largeDataset.size(), () -> "Statements grew with the data.\nBefore:\n"
+                + String.join("\n", smallDataset) + "\nAfter:\n" + String.join("\n", largeDataset));
+    }
+
+    private static boolean isSequenceCall(String sql) {
+        String statement = sql.toLowerCase(Locale.ROOT);
+        return statement.contains("next value for") || statement.contains("nextval");
+    }
+}
@@ -21,6 +21,7 @@ class ItemRequestMapperTest {
         List<Item> items = List.of(
                 new Item(
                         1L,
+                        0L,
                         "item 1",
                         "item 1...",
                         true,
@@ -31,6 +32,7 @@ class ItemRequestMapperTest {
                 ),
                 new Item(
                         2L,
+                        0L,
                         "item 2",
                         "item 2...",
                         true,
@@ -66,6 +68,7 @@ class ItemRequestMapperTest {
 
         ItemRequest itemRequest = new ItemRequest(
                 1L,
+                0L,
                 3L,
                 "i need item",
                 currentTime,
@@ -95,20 +98,23 @@ class ItemRequestMapperTest {
                 "I need item"
         );
 
+        LocalDateTime created = LocalDateTime.now().withNano(0);
+
         ItemRequest expectedItemRequest = new ItemRequest(
                 null,
+                0L,
                 10L,
                 "I need item",
-                LocalDateTime.now().withNano(0),
+                created,
                 null
         );
 
         //when
-        ItemRequest returnedItemRequest = ItemRequestMapper.toItemRequest(itemRequestInputDto, requesterId);
+        ItemRequest returnedItemRequest = ItemRequestMapper.toItemRequest(itemRequestInputDto, requesterId, created);
 
         //then
         assertEquals(expectedItemRequest.getRequesterId(), returnedItemRequest.getRequesterId());
         assertEquals(expectedItemRequest.getDescription(), returnedItemRequest.getDescription());
-        assertEquals(expectedItemRequest.getCreated(), returnedItemRequest.getCreated().withNano(0));
+        assertEquals(expectedItemRequest.getCreated(), returnedItemRequest.getCreated());
     }
 }
\ No newline at end of file
@@ -31,18 +31,21 @@ class ItemRequestRepositoryTest {
         //given
         User owner = new User(
                 null,
+                0L,
                 "new user",
                 "user@emal.com"
         );
 
         User user = new User(
                 null,
+                0L,
                 "old user",
                 "old@emal.com"
         );
 
         Item item1 = new Item(
                 null,
+                0L,
                 "new item 1",
                 "item 1",
                 true,
@@ -54,6 +57,7 @@ class ItemRequestRepositoryTest {
 
         Item item2 = new Item(
                 null,
+                0L,
                 "item 2",
                 "New item 2",
                 true,
@@ -65,6 +69,7 @@ class ItemRequestRepositoryTest {
 
         ItemRequest itemRequest1 = new ItemRequest(
                 null,
+                0L,
                 2L,
                 "I need items",
                 LocalDateTime.now().minusDays(3),
@@ -72,6 +77,7 @@ class ItemRequestRepositoryTest {
         );
         ItemRequest itemRequest2 = new ItemRequest(
                 null,
+                0L,
                 2L,
                 "I need items",
                 LocalDateTime.now().minusDays(1),
@@ -101,24 +107,28 @@ class ItemRequestRepositoryTest {
         //given
         User owner = new User(
                 null,
+                0L,
                 "new user",
                 "user@emal.com"
         );
 
         User user1 = new User(
                 null,
+                0L,
                 "old user",
                 "old@emal.com"
         );
 
         User user2 = new User(
                 null,
+                0L,
                 "new old user",
                 "newold@emal.com"
         );
 
         Item item1 = new Item(
                 null,
+                0L,
                 "new item 1",
                 "item 1",
                 true,
@@ -130,6 +140,7 @@ class ItemRequestRepositoryTest {
 
         Item item2 = new Item(
                 null,
+                0L,
                 "item 2",
                 "New item 2",
                 true,
@@ -141,6 +152,7 @@ class ItemRequestRepositoryTest {
 
         ItemRequest itemRequest1 = new ItemRequest(
                 null,
+                0L,
                 2L,
                 "I need items",
                 LocalDateTime.now().minusDays(3),
@@ -149,6 +161,7 @@ class ItemRequestRepositoryTest {
 
         ItemRequest itemRequest2 = new ItemRequest(
                 null,
+                0L,
                 3L,
                 "I need items",
                 LocalDateTime.now().minusDays(1),
@@ -157,6 +170,7 @@ class ItemRequestRepositoryTest {
 
         ItemRequest itemRequest3 = new ItemRequest(
                 null,
+                0L,
                 3L,
                 "I need items",
                 LocalDateTime.now().plusDays(1),
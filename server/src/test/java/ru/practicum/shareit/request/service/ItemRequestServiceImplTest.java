@@ -5,15 +5,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.exception.model.NotFountException;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestInputDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.util.RequestClock;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -28,7 +33,16 @@ class ItemRequestServiceImplTest {
     private ItemRequestRepository itemRequestRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private UserCache userCache;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Spy
+    private RequestClock requestClock = new RequestClock(Clock.systemDefaultZone());
 
     @InjectMocks
     private ItemRequestServiceImpl itemRequestService;
@@ -49,7 +63,7 @@ class ItemRequestServiceImplTest {
     @Test
     public void createRequest_whenUserNotExists_thenThrowNotFoundException() {
         //when
-        when(userRepository.existsById(requesterId)).thenReturn(false);
+        when(userCache.existsById(requesterId)).thenReturn(false);
 
         Exception exception = assertThrows(NotFountException.class,
                 () -> itemRequestService.createRequest(itemRequestInputDto, requesterId));
@@ -64,6 +78,7 @@ class ItemRequestServiceImplTest {
         //given
         ItemRequest itemRequest = new ItemRequest(
                 1L,
+                0L,
                 requesterId,
                 "text",
                 LocalDateTime.now(),
@@ -71,7 +86,7 @@ class ItemRequestServiceImplTest {
         );
 
         //when
-        when(userRepository.existsById(requesterId)).thenReturn(true);
+        when(userCache.existsById(requesterId)).thenReturn(true);
         when(itemRequestRepository.save(any())).thenReturn(itemRequest);
         itemRequestService.createRequest(itemRequestInputDto, requesterId);
 
@@ -82,7 +97,7 @@ class ItemRequestServiceImplTest {
     @Test
     public void getRequestsByRequesterId_whenUserIsNotExists_thenThrowNotFoundException() {
         //when
-        when(userRepository.existsById(requesterId)).thenReturn(false);
+        when(userCache.existsById(requesterId)).thenReturn(false);
 
         Exception exception = assertThrows(NotFountException.class,
                 () -> itemRequestService.getRequestsByRequesterId(requesterId, "id", Sort.Direction.DESC));
@@ -98,6 +113,7 @@ class ItemRequestServiceImplTest {
         List<ItemRequest> itemRequests = List.of(
                 new ItemRequest(
                         1L,
+                        0L,
                         requesterId,
                         "text",
                         LocalDateTime.now(),
@@ -105,6 +121,7 @@ class ItemRequestServiceImplTest {
                 ),
                 new ItemRequest(
                         2L,
+                        0L,
                         requesterId,
                         "text",
                         LocalDateTime.now(),
@@ -113,7 +130,7 @@ class ItemRequestServiceImplTest {
         );
 
         //when
-        when(userRepository.existsById(requesterId)).thenReturn(true);
+        when(userCache.existsById(requesterId)).thenReturn(true);
         when(itemRequestRepository.findByRequesterId(requesterId, Sort.by(Sort.Direction.DESC, "id"))).thenReturn(itemRequests);
         itemRequestService.getRequestsByRequesterId(requesterId, "id", Sort.Direction.DESC);
 
@@ -124,7 +141,7 @@ class ItemRequestServiceImplTest {
     @Test
     public void getOtherRequests_whenUserIsNotExists_thenThrowNotFoundException() {
         //when
-        when(userRepository.existsById(requesterId)).thenReturn(false);
+        when(userCache.existsById(requesterId)).thenReturn(false);
 
         Exception exception = assertThrows(NotFountException.class,
                 () -> itemRequestService.getOtherRequests(requesterId, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "created"))));
@@ -140,6 +157,7 @@ class ItemRequestServiceImplTest {
         List<ItemRequest> itemRequests = List.of(
                 new ItemRequest(
                         1L,
+                        0L,
                         requesterId,
                         "text",
                         LocalDateTime.now(),
@@ -147,6 +165,7 @@ class ItemRequestServiceImplTest {
                 ),
                 new ItemRequest(
                         2L,
+                        0L,
                         requesterId,
                         "text",
                         LocalDateTime.now(),
@@ -155,7 +174,7 @@ class ItemRequestServiceImplTest {
         );
 
         //when
-        when(userRepository.existsById(requesterId)).thenReturn(true);
+        when(userCache.existsById(requesterId)).thenReturn(true);
         when(itemRequestRepository.findByRequesterIdNot(requesterId, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "created")))).thenReturn(itemRequests);
         itemRequestService.getOtherRequests(requesterId, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "created")));
 
@@ -169,7 +188,7 @@ class ItemRequestServiceImplTest {
         Long userId = 1L;
 
         //when
-        when(userRepository.existsById(requesterId)).thenReturn(false);
+        when(userCache.existsById(requesterId)).thenReturn(false);
 
         Exception exception = assertThrows(NotFountException.class,
                 () -> itemRequestService.getRequestById(requesterId, userId));
@@ -185,7 +204,7 @@ class ItemRequestServiceImplTest {
         Long requestId = 1L;
 
         //when
-        when(userRepository.existsById(requesterId)).thenReturn(true);
+        when(userCache.existsById(requesterId)).thenReturn(true);
         when(itemRequestRepository.findById(any())).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(NotFountException.class,
@@ -202,6 +221,7 @@ class ItemRequestServiceImplTest {
         Long requestId = 1L;
         ItemRequest itemRequest = new ItemRequest(
                 2L,
+                0L,
                 requesterId,
                 "text",
                 LocalDateTime.now(),
@@ -209,7 +229,7 @@ class ItemRequestServiceImplTest {
         );
 
         //when
-        when(userRepository.existsById(requesterId)).thenReturn(true);
+        when(userCache.existsById(requesterId)).thenReturn(true);
         when(itemRequestRepository.findById(any())).thenReturn(Optional.of(itemRequest));
         itemRequestService.getRequestById(requestId, requesterId);
 
@@ -0,0 +1,206 @@
+package ru.practicum.shareit.request.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.metrics.StatementRecorder;
+import ru.practicum.shareit.request.dto.ItemRequestInputDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.practicum.shareit.metrics.StatementRecorder.assertSameStatementCount;
+import static ru.practicum.shareit.metrics.StatementRecorder.record;
+
+/**
+ * Pins the number of SQL statements of every {@link ItemRequestService} method: a call has to prepare as many
+ * statements after more requests, answering items and comments were added as before.
+ */
+@SpringBootTest(properties = StatementRecorder.PROPERTY)
+class ItemRequestServiceQueryCountTest {
+    private static final Pageable PAGEABLE = PageRequest.of(0, 100, Sort.by(Sort.Direction.DESC, "created"));
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private User requester;
+    private User owner;
+    private User other;
+
+    @BeforeEach
+    void setUp() {
+        requester = userRepository.save(User.builder().name("Requester").email("requester@email.ru").build());
+        owner = userRepository.save(User.builder().name("Owner").email("owner@email.ru").build());
+        other = userRepository.save(User.builder().name("Other").email("other@email.ru").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+        userCache.clear();
+    }
+
+    @Test
+    void createRequest_whenMoreRequestsExist_thenStatementCountStaysTheSame() {
+        //given
+        itemRequestService.createRequest(new ItemRequestInputDto("Need a drill"), requester.getId());
+
+        //when
+        List<String> before = record(() -> itemRequestService.createRequest(
+                new ItemRequestInputDto("Need a drill"), requester.getId()));
+        addAnsweredRequests(5);
+        List<String> after = record(() -> itemRequestService.createRequest(
+                new ItemRequestInputDto("Need a drill"), requester.getId()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void getRequestsByRequesterId_whenMoreRequestsAreAnswered_thenStatementCountStaysTheSame() {
+        //given
+        addAnsweredRequests(2);
+
+        //when
+        List<String> before = recordTwice(() -> itemRequestService.getRequestsByRequesterId(
+                requester.getId(), "created", Sort.Direction.DESC));
+        addAnsweredRequests(5);
+        List<String> after = recordTwice(() -> assertEquals(7, itemRequestService.getRequestsByRequesterId(
+                requester.getId(), "created", Sort.Direction.DESC).size()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void getOtherRequests_whenMoreRequestsAreAnswered_thenStatementCountStaysTheSame() {
+        //given
+        addAnsweredRequests(2);
+
+        //when
+        List<String> before = recordTwice(() -> itemRequestService.getOtherRequests(other.getId(), PAGEABLE));
+        addAnsweredRequests(5);
+        List<String> after = recordTwice(() -> itemRequestService.getOtherRequests(other.getId(), PAGEABLE));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void getRequestById_whenRequestHasMoreItems_thenStatementCountStaysTheSame() {
+        //given
+        ItemRequest request = createRequest();
+        answer(request, 1);
+
+        //when
+        List<String> before = recordTwice(() -> itemRequestService.getRequestById(request.getId(), other.getId()));
+        answer(request, 5);
+        List<String> after = recordTwice(() -> assertEquals(6, itemRequestService.getRequestById(
+                request.getId(), other.getId()).getItems().size()));
+
+        //then
+        assertSameStatementCount(before, after);
+    }
+
+    @Test
+    void getRequestsETags_whenMoreRequestsAreAnswered_thenStatementCountStaysTheSame() {
+        //given
+        ItemRequest request = createRequest();
+        answer(request, 1);
+
+        //when
+        List<String> requesterBefore = recordTwice(() -> itemRequestService.getRequestsByRequesterIdETag(
+                requester.getId()));
+        List<String> requestBefore = recordTwice(() -> itemRequestService.getRequestByIdETag(
+                request.getId(), other.getId()));
+        addAnsweredRequests(5);
+        answer(request, 5);
+        List<String> requesterAfter = recordTwice(() -> itemRequestService.getRequestsByRequesterIdETag(
+                requester.getId()));
+        List<String> requestAfter = recordTwice(() -> itemRequestService.getRequestByIdETag(
+                request.getId(), other.getId()));
+
+        //then
+        assertSameStatementCount(requesterBefore, requesterAfter);
+        assertSameStatementCount(requestBefore, requestAfter);
+    }
+
+    /**
+     * Records the second of two identical calls, so user cache misses of the first one are not counted.
+     */
+    private List<String> recordTwice(Runnable call) {
+        call.run();
+        return record(call);
+    }
+
+    private void addAnsweredRequests(int count) {
+        for (int i = 0; i < count; i++) {
+            answer(createRequest(), 2);
+        }
+    }
+
+    private ItemRequest createRequest() {
+        return itemRequestRepository.save(ItemRequest.builder()
+                .requesterId(requester.getId())
+                .description("Need a drill")
+                .created(now)
+                .build());
+    }
+
+    /**
+     * Adds items answering the request, each with a comment.
+     */
+    private void answer(ItemRequest request, int items) {
+        for (int i = 0; i < items; i++) {
+            Item item = itemRepository.save(Item.builder()
+                    .name("Drill")
+                    .description("Drill description")
+                    .available(true)
+                    .ownerId(owner.getId())
+                    .requestId(request.getId())
+                    .build());
+
+            commentRepository.save(Comment.builder()
+                    .text("Comment")
+                    .item(item)
+                    .author(requester)
+                    .created(now)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.user.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+    private static final Instant NOW = Instant.parse("2023-03-01T10:15:30Z");
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private Clock clock;
+
+    private UserCache userCache;
+
+    private User user;
+
+    @BeforeEach
+    public void before() {
+        userCache = new UserCache(userRepository, clock, 2, Duration.ofMinutes(5), Duration.ofSeconds(30));
+        user = new User(1L, 0L, "user", "user@email.ru");
+        when(clock.instant()).thenReturn(NOW);
+    }
+
+    @Test
+    public void findById_whenInvokedTwice_thenLoadUserOnce() {
+        //when
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        Optional<UserDto> first = userCache.findById(1L);
+        Optional<UserDto> second = userCache.findById(1L);
+
+        //then
+        verify(userRepository, times(1)).findById(1L);
+        assertEquals(Optional.of(new UserDto(1L, "user", "user@email.ru")), first);
+        assertEquals(first, second);
+        assertEquals(1, userCache.getHitCount());
+        assertEquals(1, userCache.getMissCount());
+    }
+
+    @Test
+    public void findById_whenLoadedEntityChangesLater_thenCachedUserStaysTheSame() {
+        //when
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        userCache.findById(1L);
+        user.setName("changed in another session");
+        Optional<UserDto> cached = userCache.findById(1L);
+
+        //then
+        assertEquals("user", cached.orElseThrow().getName());
+    }
+
+    @Test
+    public void existsById_whenUserIsUnknown_thenCacheAbsence() {
+        //when
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        boolean first = userCache.existsById(2L);
+        boolean second = userCache.existsById(2L);
+
+        //then
+        verify(userRepository, times(1)).findById(2L);
+        assertFalse(first);
+        assertFalse(second);
+    }
+
+    @Test
+    public void findById_whenEntryIsExpired_thenReloadUser() {
+        //when
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        userCache.findById(1L);
+        when(clock.instant()).thenReturn(NOW.plus(Duration.ofMinutes(5)));
+        userCache.findById(1L);
+
+        //then
+        verify(userRepository, times(2)).findById(1L);
+        assertEquals(1, userCache.getEvictionCount());
+    }
+
+    @Test
+    public void findById_whenSizeIsExceeded_thenEvictLeastRecentlyUsed() {
+        //when
+        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        userCache.findById(1L);
+        userCache.findById(2L);
+        userCache.findById(1L);
+        userCache.findById(3L);
+        userCache.findById(1L);
+        userCache.findById(2L);
+
+        //then
+        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(2)).findById(2L);
+        assertEquals(2, userCache.getSize());
+    }
+
+    @Test
+    public void bindTo_whenUsersAreLoaded_thenMetersFollowCounters() {
+        //given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        userCache.bindTo(registry);
+
+        //when
+        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        userCache.findById(1L);
+        userCache.findById(1L);
+        userCache.findById(2L);
+        userCache.findById(3L);
+
+        //then
+        assertEquals(1, registry.get("users.cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(3, registry.get("users.cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("users.cache.evictions").functionCounter().count());
+        assertEquals(2, registry.get("users.cache.size").gauge().value());
+    }
+
+    @Test
+    public void evict_whenInvoked_thenReloadUser() {
+        //when
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        userCache.findById(1L);
+        userCache.evict(1L);
+        userCache.findById(1L);
+
+        //then
+        verify(userRepository, times(2)).findById(1L);
+    }
+}
@@ -19,6 +19,7 @@ class UserMapperTest {
 
         User expectedUser = new User(
                 1L,
+                0L,
                 "new user",
                 "user@email.ru"
         );
@@ -35,6 +36,7 @@ class UserMapperTest {
         //given
         User user = new User(
                 1L,
+                0L,
                 "new user",
                 "user@email.ru"
         );
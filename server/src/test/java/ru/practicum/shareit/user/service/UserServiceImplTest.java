@@ -3,11 +3,17 @@ package ru.practicum.shareit.user.service;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.schedule.BookingIntervalIndex;
 import ru.practicum.shareit.exception.model.NotFountException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -23,6 +29,18 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
     @InjectMocks
     UserServiceImpl userService;
 
@@ -43,6 +61,7 @@ class UserServiceImplTest {
 
         User user = new User(
                 1L,
+                0L,
                 "new user",
                 "email@email.ru"
         );
@@ -66,6 +85,7 @@ class UserServiceImplTest {
 
         User user = new User(
                 1L,
+                0L,
                 "new user",
                 "email@email.ru"
         );
@@ -73,7 +93,7 @@ class UserServiceImplTest {
         Long userId = 1L;
 
         //when
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userCache.findById(userId)).thenReturn(Optional.of(UserMapper.toUserDto(user)));
         UserDto returnedUserDto = userService.getUserById(userId);
 
         //then
@@ -86,7 +106,7 @@ class UserServiceImplTest {
         Long userId = 1L;
 
         //when
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userCache.findById(userId)).thenReturn(Optional.empty());
         Exception exception = assertThrows(NotFountException.class, () -> userService.getUserById(userId));
         String expectedMessage = "User with id = " + userId + " not found.";
 
@@ -110,16 +130,19 @@ class UserServiceImplTest {
         List<User> users = List.of(
                 new User(
                         1L,
+                        0L,
                         "new user 1",
                         "user1@eamil.ru"
                 ),
                 new User(
                         2L,
+                        0L,
                         "new user 2",
                         "user2@eamil.ru"
                 ),
                 new User(
                         3L,
+                        0L,
                         "new user 3",
                         "user3@eamil.ru"
                 )
@@ -173,12 +196,14 @@ class UserServiceImplTest {
 
         User oldUser = new User(
                 1L,
+                0L,
                 "old user",
                 "oldEmail@email.ru"
         );
 
         User updatedUser = new User(
                 1L,
+                0L,
                 "old user",
                 "newEmail@email.ru"
         );
@@ -194,6 +219,7 @@ class UserServiceImplTest {
 
         //then
         verify(userRepository).save(userCaptor.capture());
+        verify(userCache).evict(userId);
         assertEquals(1L, userCaptor.getValue().getId());
         assertEquals("old user", userCaptor.getValue().getName());
         assertEquals("newEmail@email.ru", userCaptor.getValue().getEmail());
@@ -212,5 +238,25 @@ class UserServiceImplTest {
 
         //then
         verify(userRepository, times(1)).deleteById(userId);
+        verify(userCache, times(1)).evict(userId);
+    }
+
+    @Test
+    public void deleteUserById_whenUserOwnsItems_thenRemoveItemsFromIndexes() {
+        //given
+        Long userId = 1L;
+        when(itemRepository.findIdsByOwnerId(userId)).thenReturn(List.of(2L, 3L));
+
+        //when
+        userService.deleteUserById(userId);
+
+        //then
+        InOrder inOrder = inOrder(itemRepository, userRepository);
+        inOrder.verify(itemRepository).findIdsByOwnerId(userId);
+        inOrder.verify(userRepository).deleteById(userId);
+        verify(itemSearchIndex).remove(2L);
+        verify(itemSearchIndex).remove(3L);
+        verify(bookingIntervalIndex).removeItem(2L);
+        verify(bookingIntervalIndex).removeItem(3L);
     }
 }
\ No newline at end of file
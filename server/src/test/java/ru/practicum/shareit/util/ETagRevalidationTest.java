@@ -0,0 +1,174 @@
+package ru.practicum.shareit.util;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingIntervalIndex;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.util.Constant.USER_ID_HEADER;
+
+/**
+ * Checks that the ETags of the views showing item comments change when a comment is posted,
+ * so that a conditional GET with the old tag gets the new body instead of 304 Not Modified.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ETagRevalidationTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private ItemRequest request;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+
+        owner = userRepository.save(User.builder().name("Owner").email("owner@email.ru").build());
+        booker = userRepository.save(User.builder().name("Booker").email("booker@email.ru").build());
+
+        request = itemRequestRepository.save(ItemRequest.builder()
+                .requesterId(booker.getId())
+                .description("Need a drill")
+                .created(now.minusDays(3))
+                .build());
+
+        item = itemRepository.save(Item.builder()
+                .name("Drill")
+                .description("Drill description")
+                .available(true)
+                .ownerId(owner.getId())
+                .requestId(request.getId())
+                .build());
+
+        bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .start(now.minusDays(2))
+                .end(now.minusDays(1))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+        userCache.clear();
+        bookingIntervalIndex.rebuild();
+        itemSearchIndex.rebuild();
+    }
+
+    @Test
+    void conditionalGet_whenCommentIsPostedAfterTheTag_thenReturnOk() {
+        //given
+        String bookerBookings = etag("/bookings", booker);
+        String ownerBookings = etag("/bookings/owner", owner);
+        String requestById = etag("/requests/" + request.getId(), owner);
+
+        //when
+        postComment();
+
+        //then
+        assertNotEquals(bookerBookings, revalidate("/bookings", booker, bookerBookings));
+        assertNotEquals(ownerBookings, revalidate("/bookings/owner", owner, ownerBookings));
+        assertNotEquals(requestById, revalidate("/requests/" + request.getId(), owner, requestById));
+    }
+
+    @SneakyThrows
+    private String etag(String path, User user) {
+        String etag = mockMvc.perform(get(path)
+                        .header(USER_ID_HEADER, user.getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        assertNotNull(etag);
+        mockMvc.perform(get(path)
+                        .header(USER_ID_HEADER, user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+
+        return etag;
+    }
+
+    @SneakyThrows
+    private String revalidate(String path, User user, String etag) {
+        return mockMvc.perform(get(path)
+                        .header(USER_ID_HEADER, user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+
+    @SneakyThrows
+    private void postComment() {
+        mockMvc.perform(post("/items/" + item.getId() + "/comment")
+                        .header(USER_ID_HEADER, booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"Great drill\"}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+}
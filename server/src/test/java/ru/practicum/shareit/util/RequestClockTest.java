@@ -0,0 +1,79 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestClockTest {
+    private final MutableClock clock = new MutableClock(Instant.parse("2023-03-01T10:15:30.750Z"));
+    private final RequestClock requestClock = new RequestClock(clock);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void now_whenInvokedInsideRequest_thenReturnSameTimeForWholeRequest() {
+        //given
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        //when
+        LocalDateTime first = requestClock.now();
+        clock.advance(Duration.ofMinutes(1));
+        LocalDateTime second = requestClock.now();
+
+        //then
+        assertEquals(LocalDateTime.of(2023, 3, 1, 10, 15, 30), first);
+        assertEquals(first, second);
+    }
+
+    @Test
+    void now_whenInvokedOutsideRequest_thenReadClockEveryTime() {
+        //when
+        LocalDateTime first = requestClock.now();
+        clock.advance(Duration.ofMinutes(1));
+        LocalDateTime second = requestClock.now();
+
+        //then
+        assertEquals(first.plusMinutes(1), second);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}